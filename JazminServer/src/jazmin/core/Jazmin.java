@@ -126,6 +126,7 @@ public class Jazmin {
 	private static String applicationPackage;
 	private static Application application;
 	private static ClassLoader appClassloader;
+	private static boolean parallelLifecycle;
 	//
 	//
 	static{
@@ -135,9 +136,23 @@ public class Jazmin {
 		serverName="default";
 		startTime=new Date();
 		appClassloader=Thread.currentThread().getContextClassLoader();
+		parallelLifecycle=Boolean.getBoolean("jazmin.boot.parallel");
 		SerializeConfig.getGlobalInstance().setAsmEnable(false);
 		ParserConfig.getGlobalInstance().setAsmEnable(false);
 	}
+	/**
+	 * init and start drivers and servers in parallel,drivers and servers 
+	 * only wait for lifecycles they depend on.also enabled by system
+	 * property jazmin.boot.parallel=true
+	 * @see Lifecycle#dependsOn(Lifecycle...)
+	 */
+	public static void setParallelLifecycle(boolean parallel){
+		parallelLifecycle=parallel;
+	}
+	//
+	public static boolean isParallelLifecycle(){
+		return parallelLifecycle;
+	}
 	/**
 	 * get server start time
 	 */
@@ -467,13 +482,24 @@ public class Jazmin {
 	 * 
 	 */
 	private static void dumpLifecycle(){
+		InfoBuilder ib=InfoBuilder.create();
+		ib.section("lifecycle init/start time");
+		ib.format("%-40s %-10s %-10s\n");
+		ib.print("NAME","INIT(ms)","START(ms)");
 		lifecycles.forEach(lc->{
+			if(lc==null){
+				return;
+			}
 			logger.info(lc.getClass().getSimpleName()+" dump information//");
 			String lcInfo=lc.info();
 			if(lcInfo!=null&&lc.info().trim().length()>0){
 				logger.info("\n"+lc.info());		
 			}
+			ib.print(lc.getClass().getSimpleName(),
+					lc.initUsedTime,
+					lc.startUsedTime);
 		});
+		logger.info("parallelLifecycle:{}\n{}",parallelLifecycle,ib.toString());
 	}
 	//
 	/**
@@ -484,6 +510,7 @@ public class Jazmin {
 		//service but application not registered 
 		if(application!=null){
 			Lifecycle appLc=application;
+			long startTime=System.currentTimeMillis();
 			if(appLc.lifecycleListener!=null){
 				appLc.lifecycleListener.beforeStart(appLc);
 			}
@@ -494,45 +521,65 @@ public class Jazmin {
 			if(appLc.lifecycleListener!=null){
 				appLc.lifecycleListener.afterStart(appLc);
 			}
+			appLc.startUsedTime=System.currentTimeMillis()-startTime;
 		}
-		for(Lifecycle lc:lifecycles){
-			if(lc==application){
-				continue;
-			}
+		List<Lifecycle>startLifecycles=new ArrayList<>(lifecycles);
+		startLifecycles.remove(application);
+		if(parallelLifecycle){
+			new LifecycleRunner(startLifecycles).run(Jazmin::startLifecycle);
+			return;
+		}
+		for(Lifecycle lc:startLifecycles){
 			if(lc==null){
 				continue;
 			}
-			logger.info("start lifecycle:{}-{}//",lc.getClass().getName(),
-					lc.lifecycleListener);
-			if(lc.lifecycleListener!=null){
-				lc.lifecycleListener.beforeStart(lc);
-			}
-			lc.start();
-			if(lc.lifecycleListener!=null){
-				lc.lifecycleListener.afterStart(lc);
-			}
-			lc.started=true;
+			startLifecycle(lc);
+		}
+	}
+	//
+	private static void startLifecycle(Lifecycle lc) throws Exception{
+		logger.info("start lifecycle:{}-{}//",lc.getClass().getName(),
+				lc.lifecycleListener);
+		long startTime=System.currentTimeMillis();
+		if(lc.lifecycleListener!=null){
+			lc.lifecycleListener.beforeStart(lc);
 		}
+		lc.start();
+		if(lc.lifecycleListener!=null){
+			lc.lifecycleListener.afterStart(lc);
+		}
+		lc.startUsedTime=System.currentTimeMillis()-startTime;
+		lc.started=true;
 	}
 	/**
 	 * 
 	 */
 	private static void initLifecycle() throws Exception{
+		if(parallelLifecycle){
+			new LifecycleRunner(lifecycles).run(Jazmin::initLifecycle);
+			return;
+		}
 		for(Lifecycle lc:lifecycles){
 			if(lc==null){
 				continue;
 			}
-			logger.info("init lifecycle:{}-{}//",lc.getClass().getName(),
-					lc.lifecycleListener);
-			if(lc.lifecycleListener!=null){
-				lc.lifecycleListener.beforeInit(lc);
-			}
-			lc.init();
-			if(lc.lifecycleListener!=null){
-				lc.lifecycleListener.afterInit(lc);
-			}
-			lc.inited=true;
+			initLifecycle(lc);
+		}
+	}
+	//
+	private static void initLifecycle(Lifecycle lc) throws Exception{
+		logger.info("init lifecycle:{}-{}//",lc.getClass().getName(),
+				lc.lifecycleListener);
+		long startTime=System.currentTimeMillis();
+		if(lc.lifecycleListener!=null){
+			lc.lifecycleListener.beforeInit(lc);
+		}
+		lc.init();
+		if(lc.lifecycleListener!=null){
+			lc.lifecycleListener.afterInit(lc);
 		}
+		lc.initUsedTime=System.currentTimeMillis()-startTime;
+		lc.inited=true;
 	}
 	/**
 	 * 
@@ -20,7 +20,7 @@ public class JazminThreadFactory implements ThreadFactory{
 	//
 	@Override
 	public Thread newThread(Runnable r) {
-		Thread t=new Thread(r);
+		Thread t=createThread(r);
 		t.setContextClassLoader(Jazmin.getAppClassLoader());
 		t.setName(threadName+"-"+threadCounter.incrementAndGet());
 		Thread.UncaughtExceptionHandler logHander=new Thread.UncaughtExceptionHandler() {
@@ -32,4 +32,8 @@ public class JazminThreadFactory implements ThreadFactory{
 		t.setUncaughtExceptionHandler(logHander);
 		return t;
 	}
+	//
+	protected Thread createThread(Runnable r){
+		return new Thread(r);
+	}
 }
@@ -3,6 +3,10 @@
  */
 package jazmin.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 
  * @author yama
@@ -13,6 +17,9 @@ public abstract class Lifecycle {
 	LifecycleListener lifecycleListener;
 	boolean started;
 	boolean inited;
+	long initUsedTime=-1;
+	long startUsedTime=-1;
+	private List<Lifecycle>dependencies=Collections.emptyList();
 	protected final  boolean isStarted(){
 		return started;
 	}
@@ -34,5 +41,35 @@ public abstract class Lifecycle {
 	public void setLifecycleListener(LifecycleListener lifecycleListener) {
 		this.lifecycleListener = lifecycleListener;
 	}
-	
+	/**
+	 * declare lifecycles must be inited and started before this one,
+	 * used by parallel boot.@AutoWired driver or server fields of
+	 * lifecycle are dependencies too.
+	 */
+	public void dependsOn(Lifecycle ...lifecycles){
+		List<Lifecycle>list=new ArrayList<>(dependencies);
+		for(Lifecycle lc:lifecycles){
+			if(lc==null||lc==this){
+				throw new IllegalArgumentException("bad dependency:"+lc);
+			}
+			list.add(lc);
+		}
+		dependencies=list;
+	}
+	//
+	public List<Lifecycle>getDependencies(){
+		return dependencies;
+	}
+	/**
+	 * @return milliseconds used by init,-1 if not inited
+	 */
+	public long getInitUsedTime() {
+		return initUsedTime;
+	}
+	/**
+	 * @return milliseconds used by start,-1 if not started
+	 */
+	public long getStartUsedTime() {
+		return startUsedTime;
+	}
 }
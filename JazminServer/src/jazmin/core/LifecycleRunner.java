@@ -0,0 +1,165 @@
+/**
+ * 
+ */
+package jazmin.core;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jazmin.core.app.AutoWired;
+
+/**
+ * run lifecycle init/start in parallel by dependency graph.
+ * drivers and servers only depend on lifecycles they declared or 
+ * autowired,other lifecycles(environment,dispatcher,stores...) keep the 
+ * boot sequence:they depend on all lifecycles before them and all 
+ * lifecycles after them depend on them.
+ */
+class LifecycleRunner {
+	//
+	interface LifecycleAction{
+		void run(Lifecycle lc)throws Exception;
+	}
+	//
+	private static final int MAX_THREAD_COUNT=16;
+	private List<Lifecycle>lifecycles;
+	private Map<Lifecycle,Set<Lifecycle>>dependencies;
+	private List<Lifecycle>sortedLifecycles;
+	//
+	LifecycleRunner(List<Lifecycle>lifecycles) {
+		this.lifecycles=new ArrayList<>();
+		for(Lifecycle lc:lifecycles){
+			if(lc!=null){
+				this.lifecycles.add(lc);
+			}
+		}
+		dependencies=new IdentityHashMap<>();
+		for(int i=0;i<this.lifecycles.size();i++){
+			Lifecycle lc=this.lifecycles.get(i);
+			Set<Lifecycle>deps=new LinkedHashSet<>();
+			for(int j=0;j<i;j++){
+				Lifecycle before=this.lifecycles.get(j);
+				if(!isParallel(lc)||!isParallel(before)){
+					deps.add(before);
+				}
+			}
+			for(Lifecycle d:lc.getDependencies()){
+				addDependency(deps, d);
+			}
+			for(Class<?>type:getAutoWiredTypes(lc.getClass())){
+				for(Lifecycle d:this.lifecycles){
+					if(d!=lc&&type.isInstance(d)){
+						addDependency(deps, d);
+					}
+				}
+			}
+			dependencies.put(lc, deps);
+		}
+		sortedLifecycles=sort();
+	}
+	//
+	private static boolean isParallel(Lifecycle lc){
+		return (lc instanceof Driver)||(lc instanceof Server);
+	}
+	//
+	private void addDependency(Set<Lifecycle>deps,Lifecycle d){
+		for(Lifecycle lc:lifecycles){
+			if(lc==d){
+				deps.add(d);
+				return;
+			}
+		}
+	}
+	//
+	private static List<Class<?>>getAutoWiredTypes(Class<?>clazz){
+		List<Class<?>>types=new ArrayList<>();
+		for(Class<?>c=clazz;c!=null&&c!=Object.class;c=c.getSuperclass()){
+			for(Field f:c.getDeclaredFields()){
+				if(f.isAnnotationPresent(AutoWired.class)&&
+						Lifecycle.class.isAssignableFrom(f.getType())){
+					types.add(f.getType());
+				}
+			}
+		}
+		return types;
+	}
+	//
+	private List<Lifecycle>sort(){
+		List<Lifecycle>result=new ArrayList<>();
+		Map<Lifecycle,Boolean>visiting=new IdentityHashMap<>();
+		for(Lifecycle lc:lifecycles){
+			visit(lc, visiting, result);
+		}
+		return result;
+	}
+	//
+	private void visit(Lifecycle lc,Map<Lifecycle,Boolean>visiting,List<Lifecycle>result){
+		Boolean state=visiting.get(lc);
+		if(state!=null){
+			if(state){
+				throw new IllegalStateException("lifecycle dependency cycle at "+
+						lc.getClass().getName());
+			}
+			return;
+		}
+		visiting.put(lc,true);
+		for(Lifecycle d:dependencies.get(lc)){
+			visit(d, visiting, result);
+		}
+		visiting.put(lc,false);
+		result.add(lc);
+	}
+	//
+	Set<Lifecycle>getDependencies(Lifecycle lc){
+		return dependencies.get(lc);
+	}
+	/**
+	 * run action on all lifecycles,each one runs after its dependencies 
+	 * finished.lifecycles depend on a failed one are not run.
+	 */
+	void run(LifecycleAction action)throws Exception{
+		if(sortedLifecycles.isEmpty()){
+			return;
+		}
+		ExecutorService executor=Executors.newFixedThreadPool(
+				Math.min(MAX_THREAD_COUNT,sortedLifecycles.size()),
+				new JazminThreadFactory("LifecycleThread"));
+		Map<Lifecycle,CompletableFuture<Void>>futures=new IdentityHashMap<>();
+		try{
+			for(Lifecycle lc:sortedLifecycles){
+				Set<Lifecycle>deps=dependencies.get(lc);
+				CompletableFuture<?> depFutures[]=new CompletableFuture<?>[deps.size()];
+				int i=0;
+				for(Lifecycle d:deps){
+					depFutures[i++]=futures.get(d);
+				}
+				futures.put(lc,CompletableFuture.allOf(depFutures).thenRunAsync(()->{
+					try {
+						action.run(lc);
+					} catch (Exception e) {
+						throw new CompletionException(e);
+					}
+				},executor));
+			}
+			CompletableFuture.allOf(futures.values().toArray(
+					new CompletableFuture<?>[futures.size()])).join();
+		}catch(CompletionException e){
+			Throwable cause=e.getCause();
+			if(cause instanceof Exception){
+				throw (Exception)cause;
+			}
+			throw e;
+		}finally{
+			executor.shutdown();
+		}
+	}
+}
@@ -6,8 +6,12 @@ package jazmin.core.job;
 import java.lang.reflect.Method;
 import java.text.ParseException;
 import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import jazmin.core.Jazmin;
+import jazmin.misc.io.LatencyHistogram;
 
 
 /**
@@ -20,9 +24,23 @@ public class JazminJob {
 	public String cron;
 	public Object instance;
 	public Method method;
+	public boolean allowOverlap;
 	private Date lastRunTime;
+	private CronExpression cronExpression;
+	//next fire time computed once after each fire,0 if no more fire
+	volatile long nextFireTime;
+	ScheduledFuture<?> scheduledFuture;
+	private final AtomicBoolean running;
+	private final LongAdder overlapCount;
+	private final LatencyHistogram lateHistogram;
+	private final LatencyHistogram durationHistogram;
+	//
 	public JazminJob() {
 		runTimes=0;
+		running=new AtomicBoolean();
+		overlapCount=new LongAdder();
+		lateHistogram=new LatencyHistogram();
+		durationHistogram=new LatencyHistogram();
 	}
 	//
 	public Date lastRunTime(){
@@ -30,13 +48,29 @@ public class JazminJob {
 	}
 	//
 	public Date nextRunTime()throws ParseException {
+		if(nextFireTime>0){
+			return new Date(nextFireTime);
+		}
 		if(lastRunTime==null){
 			lastRunTime=new Date();
 		}
-		CronExpression ce=new CronExpression(cron);
-		return ce.getNextValidTimeAfter(lastRunTime);
+		return getCronExpression().getNextValidTimeAfter(lastRunTime);
+	}
+	/**
+	 * compute next fire time after time,return 0 if no more fire time
+	 */
+	long computeNextFireTime(long time)throws ParseException{
+		Date next=getCronExpression().getNextValidTimeAfter(new Date(time));
+		nextFireTime=(next==null?0:next.getTime());
+		return nextFireTime;
+	}
+	//
+	private CronExpression getCronExpression()throws ParseException{
+		if(cronExpression==null){
+			cronExpression=new CronExpression(cron);
+		}
+		return cronExpression;
 	}
-
 	/**
 	 * @param cron the cron to set
 	 */
@@ -46,11 +80,54 @@ public class JazminJob {
 					+cron);
  		}
 		this.cron = cron;
+		this.cronExpression=null;
 	}
 	//
 	public void run(){
+		if(!running.compareAndSet(false, true)){
+			overlapCount.increment();
+			if(!allowOverlap){
+				return;
+			}
+		}
 		lastRunTime=new Date();
 		runTimes++;
-		Jazmin.dispatcher.invokeInPool("JazminJob",instance, method);
+		long startTime=System.nanoTime();
+		//future also completed when rejected so running flag always reset
+		Jazmin.dispatcher.invokeAsync("JazminJob",instance, method)
+			.whenComplete((ret,e)->{
+				durationHistogram.record(System.nanoTime()-startTime);
+				running.set(false);
+			});
+	}
+	/**
+	 * fired by scheduler
+	 * @param late milliseconds after scheduled fire time
+	 */
+	void fire(long late){
+		lateHistogram.record(late*1000000L);
+		run();
+	}
+	//
+	public boolean isRunning(){
+		return running.get();
+	}
+	/**
+	 * @return times job fired while last run not finished
+	 */
+	public long getOverlapCount(){
+		return overlapCount.longValue();
+	}
+	/**
+	 * histogram of fire time lateness in nanoseconds
+	 */
+	public LatencyHistogram getLateHistogram(){
+		return lateHistogram;
+	}
+	/**
+	 * histogram of run duration(wait in pool+run) in nanoseconds
+	 */
+	public LatencyHistogram getDurationHistogram(){
+		return durationHistogram;
 	}
 }
@@ -25,4 +25,9 @@ public @interface JobDefine{
 	 * @return the cron express
 	 */
 	String cron();
+	/**
+	 * run job even if last run not finished,overlapped fire is skipped 
+	 * by default.
+	 */
+	boolean allowOverlap() default false;
 }
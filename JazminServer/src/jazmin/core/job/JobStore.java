@@ -6,7 +6,6 @@ package jazmin.core.job;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -56,8 +55,9 @@ public class JobStore extends Lifecycle implements Registerable{
 			job.cron=td.cron();
 			job.method=m;
 			job.instance=instance;
+			job.allowOverlap=td.allowOverlap();
 			try {
-				job.nextRunTime();
+				job.computeNextFireTime(System.currentTimeMillis());
 			} catch (Exception e) {
 				throw new IllegalArgumentException(e);
 			}
@@ -65,25 +65,54 @@ public class JobStore extends Lifecycle implements Registerable{
 				throw new IllegalArgumentException("job : "+job.id+" already exists");
 			}
 			jobMap.put(job.id,job);
+			if(isStarted()){
+				scheduleJob(job,System.currentTimeMillis());
+			}
 		}
 	}
 	//
 	/**
+	 * schedule job at next fire time after time.next fire time is computed
+	 * once here,scheduled executor keeps jobs in its timer queue so no job
+	 * is polled.
 	 */
-	private void checkJob(){
-		jobMap.values().forEach((job)->{
-			Date nextRunTime;
-			try {
-				nextRunTime = job.nextRunTime();
-				Date now=new Date();
-				if(nextRunTime!=null&&nextRunTime.before(now)){
-					job.run();
-				}
-			} catch (Exception e) {
-				logger.error(e);
-			}
-			
-		});
+	private void scheduleJob(JazminJob job,long time){
+		long fireTime;
+		try {
+			fireTime=job.computeNextFireTime(time);
+		} catch (Exception e) {
+			logger.catching(e);
+			return;
+		}
+		if(fireTime==0){
+			logger.warn("job {} has no more fire time",job.id);
+			return;
+		}
+		scheduleFire(job, fireTime);
+	}
+	//
+	private void scheduleFire(JazminJob job,long fireTime){
+		long delay=Math.max(0,fireTime-System.currentTimeMillis());
+		job.scheduledFuture=Jazmin.schedule(
+				()->fireJob(job, fireTime),
+				delay,
+				TimeUnit.MILLISECONDS);
+	}
+	//
+	private void fireJob(JazminJob job,long fireTime){
+		long now=System.currentTimeMillis();
+		if(now<fireTime){
+			//wall clock moved back
+			scheduleFire(job, fireTime);
+			return;
+		}
+		try {
+			job.fire(now-fireTime);
+		} catch (Exception e) {
+			logger.catching(e);
+		}
+		//fire times missed while late are skipped
+		scheduleJob(job,now);
 	}
 	//
 	public void runJob(String id){
@@ -103,7 +132,17 @@ public class JobStore extends Lifecycle implements Registerable{
 	//--------------------------------------------------------------------------
 	@Override
 	public void start() throws Exception {
-		Jazmin.scheduleAtFixedRate(this::checkJob,30,30,TimeUnit.SECONDS);
+		long now=System.currentTimeMillis();
+		jobMap.values().forEach(job->scheduleJob(job,now));
+	}
+	//
+	@Override
+	public void stop() throws Exception {
+		jobMap.values().forEach(job->{
+			if(job.scheduledFuture!=null){
+				job.scheduledFuture.cancel(false);
+			}
+		});
 	}
 	//
 	@Override
@@ -111,16 +150,17 @@ public class JobStore extends Lifecycle implements Registerable{
 		if(jobMap.isEmpty()){
 			return null;
 		}
-		String format="%-5s: %-50s %-20s %-30s\n";
+		String format="%-5s: %-50s %-20s %-30s %-10s\n";
 		InfoBuilder ib=InfoBuilder.create().format(format);
 		int i=1;
-		ib.print("#","NAME","CRON","NEXT RUN");	
+		ib.print("#","NAME","CRON","NEXT RUN","OVERLAP");	
 		for(JazminJob job:jobMap.values()){
 			try {
 				ib.print(i++,
 						job.id,
 						job.cron,
-						job.nextRunTime());
+						job.nextRunTime(),
+						job.getOverlapCount());
 			} catch (Exception e) {
 				logger.catching(e);
 			}
@@ -8,12 +8,14 @@ import java.util.Map;
 
 import jazmin.core.Jazmin;
 import jazmin.core.thread.Dispatcher;
+import jazmin.misc.io.LatencyHistogram;
 
 /**
  * @author yama
  * 9 Jun, 2016
  */
 public class DispatcherMonitorAgent implements MonitorAgent{
+	private LatencyHistogram.Snapshot lastFullTimeSnapshot;
 	//
 	@Override
 	public void start(Monitor monitor) {
@@ -35,6 +37,7 @@ public class DispatcherMonitorAgent implements MonitorAgent{
 		Map<String,String>queueSize=new HashMap<String, String>();
 		Map<String,String>avgTime=new HashMap<String, String>();
 		Map<String,String>invokeCnt=new HashMap<String, String>();
+		Map<String,String>percentile=new HashMap<String, String>();
 		
 		Dispatcher dispatcher=Jazmin.dispatcher;
 		double totalFullTime=dispatcher.getTotalFullTime();
@@ -52,10 +55,21 @@ public class DispatcherMonitorAgent implements MonitorAgent{
 		avgTime.put("avgRunTime",(totalRunTime/totalInvokeCount)+"");
 		//
 		invokeCnt.put("invokeCount",dispatcher.getTotalInvokeCount()+"");
+		if(dispatcher.getLoadShedder()!=null){
+			invokeCnt.put("shedCount",dispatcher.getLoadShedder().getTotalShedCount()+"");
+		}
+		//percentiles of invokes since last sample
+		LatencyHistogram.Snapshot current=dispatcher.getFullTimeHistogram().snapshot();
+		LatencyHistogram.Snapshot full=current.since(lastFullTimeSnapshot);
+		lastFullTimeSnapshot=current;
+		percentile.put("p50FullTime",full.getMillisAtPercentile(50)+"");
+		percentile.put("p99FullTime",full.getMillisAtPercentile(99)+"");
+		percentile.put("p999FullTime",full.getMillisAtPercentile(99.9)+"");
 		monitor.sample("Jazmin.Dispatcher.PoolSize",Monitor.CATEGORY_TYPE_VALUE,poolSize);
 		monitor.sample("Jazmin.Dispatcher.QueueSize",Monitor.CATEGORY_TYPE_VALUE,queueSize);
 		monitor.sample("Jazmin.Dispatcher.AvgTime",Monitor.CATEGORY_TYPE_VALUE,avgTime);
 		monitor.sample("Jazmin.Dispatcher.InvokeCount",Monitor.CATEGORY_TYPE_COUNT,invokeCnt);
+		monitor.sample("Jazmin.Dispatcher.Percentile",Monitor.CATEGORY_TYPE_VALUE,percentile);
 	}
 	
 }
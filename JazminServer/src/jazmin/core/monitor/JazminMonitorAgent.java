@@ -42,7 +42,9 @@ public  class JazminMonitorAgent implements MonitorAgent{
 						  "/AVGFULL:"+stat.avgFullTime()+
 						  "/AVGRUN:"+stat.avgRunTime()+
 						  "/MAXFULL:"+stat.maxFullTime+
-						  "/MAXRUN:"+stat.maxRunTime);
+						  "/MAXRUN:"+stat.maxRunTime+
+						  "/P99FULL:"+stat.fullTimePercentile(99)+
+						  "/P999FULL:"+stat.fullTimePercentile(99.9));
 				info.put(stat.name, s);
 			};
 			monitor.sample("Jazmin.InvokeStat",Monitor.CATEGORY_TYPE_KV,info);
@@ -3,9 +3,9 @@
  */
 package jazmin.core.monitor;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import jazmin.core.Jazmin;
 import jazmin.core.Lifecycle;
@@ -37,7 +37,7 @@ public class Monitor extends Lifecycle implements Runnable{
 	public static final String CATEGORY_TYPE_COUNT="Count";
 	//
 	public Monitor() {
-		monitorAgents=new ArrayList<MonitorAgent>();
+		monitorAgents=new CopyOnWriteArrayList<MonitorAgent>();
 		registerAgent(new VMMonitorAgent());
 		registerAgent(new DispatcherMonitorAgent());
 		registerAgent(new OSMonitorAgent());
@@ -66,6 +66,7 @@ public class NotificationCenter extends Lifecycle implements Registerable{
 			}
 			//
 			l.method=m;
+			l.invoker=Jazmin.dispatcher.getMethodInvoker(m);
 			l.async=td.async();
 			l.event=td.event();
 			l.instance=object;
@@ -119,12 +120,12 @@ public class NotificationCenter extends Lifecycle implements Registerable{
 		if(l.async){
 			Jazmin.dispatcher.invokeInPool(
 					"NotificationCenter",
-					l.instance, l.method, Dispatcher.EMPTY_CALLBACK,
+					l.instance, l.invoker, Dispatcher.EMPTY_CALLBACK,
 					n);
 		}else{
 			Jazmin.dispatcher.invokeInCaller(
 					"NotificationCenter",
-					l.instance, l.method, Dispatcher.EMPTY_CALLBACK,
+					l.instance, l.invoker, Dispatcher.EMPTY_CALLBACK,
 					n);
 		}
 	}
@@ -5,6 +5,8 @@ package jazmin.core.notification;
 
 import java.lang.reflect.Method;
 
+import jazmin.core.thread.MethodInvoker;
+
 
 /**
  * @author yama
@@ -15,5 +17,6 @@ public class NotificationListener {
 	public String event;
 	public Object instance;
 	public Method method;
+	public MethodInvoker invoker;
 	public boolean async;
 }
@@ -0,0 +1,11 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+/**
+ * invoke with result,used by {@link Dispatcher#invokeAsync(String, AsyncInvoke)}
+ */
+public interface AsyncInvoke<T> {
+	public T doInvoke()throws Exception;
+}
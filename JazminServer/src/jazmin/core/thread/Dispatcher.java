@@ -11,14 +11,20 @@ import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -29,6 +35,7 @@ import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.InfoBuilder;
 import jazmin.misc.io.InvokeStat;
+import jazmin.misc.io.LatencyHistogram;
 
 /**
  * <pre>
@@ -54,13 +61,29 @@ public class Dispatcher extends Lifecycle implements Executor{
 	//
 	private static final int DEFAULT_CORE_POOL_SIZE=32;
 	private static final int DEFAULT_MAX_POOL_SIZE=64;
+	private static final int DEFAULT_LANE_COUNT=1024;
+	private static final int DEFAULT_MAX_CONCURRENCY=20480;
+	private static final Method ASYNC_INVOKE_METHOD=getMethod(AsyncInvoke.class,"doInvoke");
+	//
+	public static enum ExecutionMode{
+		/**fixed thread pool with bounded request queue*/
+		POOL,
+		/**one virtual thread per task,concurrency limited by maxConcurrency*/
+		VIRTUAL_THREAD
+	}
 	//
 	private ThreadPoolExecutor poolExecutor;
+	private VirtualThreadExecutor virtualThreadExecutor;
+	private Executor taskExecutor;
+	private ExecutionMode executionMode;
+	private int maxConcurrency;
 	private LinkedBlockingQueue<Runnable> requestQueue;
 	private String performanceLogFile;
 	//
 	List<DispatcherCallback>globalCallbacks;
 	private Map<String,InvokeStat>methodStats;
+	private Map<Method,MethodInvoker>methodInvokers;
+	private Map<Object,MethodInvoker>asyncInvokers;
 	private LongAdder totalInvokeCount;
 	private LongAdder totalSubmitCount;
 	private LongAdder totalRunTime;
@@ -68,7 +91,15 @@ public class Dispatcher extends Lifecycle implements Executor{
 	private LongAdder totalRejectedCount;
 	private AtomicLong maxFullTime;
 	private AtomicLong maxRunTime;
+	private LatencyHistogram fullTimeHistogram;
+	private LatencyHistogram runTimeHistogram;
+	private LatencyHistogram.Snapshot lastFullTimeSnapshot;
+	private LatencyHistogram.Snapshot lastRunTimeSnapshot;
 	private LinkedList<PerformanceLog>performanceLogs;
+	private Set<DispatcherThread>workerThreads;
+	volatile boolean lowAllocationMode;
+	private SerialLane lanes[];
+	volatile LoadShedder loadShedder;
 	//
 	/**
 	 * 
@@ -77,22 +108,43 @@ public class Dispatcher extends Lifecycle implements Executor{
 		requestQueue=new LinkedBlockingQueue<Runnable>(20480);
 		globalCallbacks=new ArrayList<DispatcherCallback>();
 		methodStats=new ConcurrentHashMap<String, InvokeStat>();
+		methodInvokers=new ConcurrentHashMap<Method, MethodInvoker>();
+		asyncInvokers=new ConcurrentHashMap<Object, MethodInvoker>();
 		totalInvokeCount=new LongAdder();
 		totalSubmitCount=new LongAdder();
 		totalRunTime=new LongAdder();
 		totalFullTime=new LongAdder();
 		maxFullTime=new AtomicLong();
 		maxRunTime=new AtomicLong();
+		//global histograms are shared by all worker threads,stripe them
+		int stripes=Math.min(16,Runtime.getRuntime().availableProcessors());
+		fullTimeHistogram=new LatencyHistogram(
+				LatencyHistogram.DEFAULT_SUB_BUCKET_BITS,stripes);
+		runTimeHistogram=new LatencyHistogram(
+				LatencyHistogram.DEFAULT_SUB_BUCKET_BITS,stripes);
 		totalRejectedCount=new LongAdder();
 		poolExecutor=new ThreadPoolExecutor(
 				DEFAULT_CORE_POOL_SIZE, DEFAULT_MAX_POOL_SIZE,
 				60,
 				TimeUnit.SECONDS, 
-				requestQueue, new JazminThreadFactory("WorkerThread"));
+				requestQueue, new JazminThreadFactory("WorkerThread"){
+					@Override
+					protected Thread createThread(Runnable r) {
+						DispatcherThread t=new DispatcherThread(r);
+						workerThreads.add(t);
+						return t;
+					}
+				});
 
 		poolExecutor.setRejectedExecutionHandler(
 				new ThreadPoolExecutor.AbortPolicy());
+		taskExecutor=poolExecutor;
+		executionMode=ExecutionMode.POOL;
+		maxConcurrency=DEFAULT_MAX_CONCURRENCY;
 		performanceLogs=new LinkedList<PerformanceLog>();
+		workerThreads=ConcurrentHashMap.newKeySet();
+		lowAllocationMode=false;
+		setLaneCount(DEFAULT_LANE_COUNT);
 	}
 	//--------------------------------------------------------------------------
 	@Override
@@ -106,7 +158,7 @@ public class Dispatcher extends Lifecycle implements Executor{
 		if(!clazz.isInterface()){
 			throw new IllegalArgumentException("target class must be interface.");
 		}
-		InvocationHandler handler=new DispatcherInvocationHandler(object,this);
+		InvocationHandler handler=new DispatcherInvocationHandler(clazz,object,this);
 		Object proxyObject=Proxy.newProxyInstance(
 				clazz.getClassLoader(),
 				new Class<?>[]{clazz}, 
@@ -114,6 +166,148 @@ public class Dispatcher extends Lifecycle implements Executor{
 		return (T) proxyObject;
 	}
 	//--------------------------------------------------------------------------
+	/**
+	 * in low allocation mode pooled ThreadWorker objects are recycled and
+	 * pool threads are not renamed with trace id,trace id only built when
+	 * trace log or {@link #getRunningTraceIds()} need it.
+	 */
+	public boolean isLowAllocationMode() {
+		return lowAllocationMode;
+	}
+	//
+	public void setLowAllocationMode(boolean lowAllocationMode) {
+		this.lowAllocationMode = lowAllocationMode;
+	}
+	/**
+	 * return trace id of running workers in pool threads,key is thread name.
+	 * only available in low allocation mode,otherwise trace id is part of 
+	 * thread name.
+	 */
+	public Map<String,String>getRunningTraceIds(){
+		Map<String,String>result=new TreeMap<String, String>();
+		workerThreads.removeIf(t->!t.isAlive());
+		for(DispatcherThread t:workerThreads){
+			String traceId=t.getTraceId();
+			if(traceId!=null){
+				result.put(t.getName(),traceId);
+			}
+		}
+		return result;
+	}
+	/**
+	 * set serial lane count,lane count will be round up to power of 2.
+	 * keys hash to same lane are executed serially.
+	 */
+	public void setLaneCount(int laneCount){
+		if(isInited()){
+			throw new IllegalStateException("set before inited");
+		}
+		if(laneCount<=0){
+			throw new IllegalArgumentException("laneCount must >0");
+		}
+		int n=Integer.highestOneBit(laneCount);
+		if(n<laneCount){
+			n<<=1;
+		}
+		SerialLane newLanes[]=new SerialLane[n];
+		for(int i=0;i<n;i++){
+			newLanes[i]=new SerialLane(this, taskExecutor);
+		}
+		lanes=newLanes;
+	}
+	//
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+	/**
+	 * set execution mode before inited.in VIRTUAL_THREAD mode each invoke 
+	 * runs on a new virtual thread(jvm must support virtual thread) and 
+	 * maxConcurrency replaces the request queue bound.
+	 */
+	public void setExecutionMode(ExecutionMode executionMode) {
+		if(isInited()){
+			throw new IllegalStateException("set before inited");
+		}
+		if(executionMode==null){
+			throw new IllegalArgumentException("executionMode can not be null");
+		}
+		if(executionMode==ExecutionMode.VIRTUAL_THREAD){
+			virtualThreadExecutor=new VirtualThreadExecutor(
+					"VirtualWorkerThread",maxConcurrency);
+			taskExecutor=virtualThreadExecutor;
+		}else{
+			virtualThreadExecutor=null;
+			taskExecutor=poolExecutor;
+		}
+		this.executionMode = executionMode;
+		//lanes hold executor
+		setLaneCount(lanes.length);
+	}
+	/**
+	 * @return true if jvm support virtual thread
+	 */
+	public static boolean isVirtualThreadSupported(){
+		return VirtualThreadExecutor.isSupported();
+	}
+	//
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+	/**
+	 * max concurrent running invokes in VIRTUAL_THREAD mode,set before 
+	 * execution mode.
+	 */
+	public void setMaxConcurrency(int maxConcurrency) {
+		if(isInited()){
+			throw new IllegalStateException("set before inited");
+		}
+		if(maxConcurrency<=0){
+			throw new IllegalArgumentException("maxConcurrency must >0");
+		}
+		this.maxConcurrency = maxConcurrency;
+		if(executionMode==ExecutionMode.VIRTUAL_THREAD){
+			setExecutionMode(executionMode);
+		}
+	}
+	/**
+	 * return max thread count in POOL mode or max concurrency in 
+	 * VIRTUAL_THREAD mode
+	 */
+	public int getMaxThreadCount(){
+		if(virtualThreadExecutor!=null){
+			return virtualThreadExecutor.getMaxConcurrency();
+		}
+		return poolExecutor.getMaximumPoolSize();
+	}
+	//
+	public int getLaneCount(){
+		return lanes.length;
+	}
+	/**
+	 * return total count of tasks waiting or running in lanes
+	 */
+	public int getLaneTaskCount(){
+		int count=0;
+		for(SerialLane lane:lanes){
+			count+=lane.size();
+		}
+		return count;
+	}
+	//
+	public LoadShedder getLoadShedder() {
+		return loadShedder;
+	}
+	/**
+	 * set load shedder to enable queue management,null to disable.
+	 * when enabled,rejected and shed invokes end with 
+	 * DispatcherOverloadException so servers can response to clients 
+	 * instead of running stale requests.
+	 * @see LoadShedder
+	 * @see InvokePriority
+	 */
+	public void setLoadShedder(LoadShedder loadShedder) {
+		this.loadShedder = loadShedder;
+	}
 	//
 	public String getPerformanceLogFile() {
 		return performanceLogFile;
@@ -139,6 +333,17 @@ public class Dispatcher extends Lifecycle implements Executor{
 		log.rejectedCount=getTotalRejectedCount();
 		log.invokeCount=getTotalInvokeCount();
 		log.submitCount=getTotalSubmitCount();
+		//percentiles of this log interval
+		LatencyHistogram.Snapshot fullTimeSnapshot=fullTimeHistogram.snapshot();
+		LatencyHistogram.Snapshot runTimeSnapshot=runTimeHistogram.snapshot();
+		LatencyHistogram.Snapshot full=fullTimeSnapshot.since(lastFullTimeSnapshot);
+		LatencyHistogram.Snapshot run=runTimeSnapshot.since(lastRunTimeSnapshot);
+		lastFullTimeSnapshot=fullTimeSnapshot;
+		lastRunTimeSnapshot=runTimeSnapshot;
+		log.p50FullTime=full.getMillisAtPercentile(50);
+		log.p99FullTime=full.getMillisAtPercentile(99);
+		log.p999FullTime=full.getMillisAtPercentile(99.9);
+		log.p99RunTime=run.getMillisAtPercentile(99);
 		synchronized (performanceLogs) {
 			performanceLogs.add(log);
 			if(performanceLogs.size()>60*24){
@@ -168,6 +373,11 @@ public class Dispatcher extends Lifecycle implements Executor{
 	@Override
 	public String info() {
 		InfoBuilder ib=InfoBuilder.create().format("%-30s:%-30s\n");
+		ib.print("executionMode:",getExecutionMode());
+		if(virtualThreadExecutor!=null){
+			ib.print("maxConcurrency:",getMaxConcurrency());
+			ib.print("largestActiveCount:",virtualThreadExecutor.getLargestActiveCount());
+		}
 		ib.print("corePoolSize:",getCorePoolSize());
 		ib.print("maxPoolSize:",getMaximumPoolSize());
 		ib.print("rejectedExecutionHandler:",getRejectedExecutionHandler());
@@ -176,6 +386,14 @@ public class Dispatcher extends Lifecycle implements Executor{
 		ib.print("keepAliveTime",getKeepAliveTime(TimeUnit.SECONDS)+" seconds");
 		ib.print("largestPoolSize",Jazmin.dispatcher.getLargestPoolSize());
 		ib.print("allowsCoreThreadTimeOut",allowsCoreThreadTimeOut());
+		ib.print("methodInvokerCount",getMethodInvokerCount());
+		ib.print("lowAllocationMode",isLowAllocationMode());
+		ib.print("laneCount",getLaneCount());
+		ib.print("loadShedder",getLoadShedder());
+		if(loadShedder!=null){
+			ib.print("shedCount",loadShedder.getTotalShedCount());
+			ib.print("overloadCount",loadShedder.getOverloadCount());
+		}
     	ib.section("global callbacks");
 		globalCallbacks.forEach(ib::println);
 		return ib.toString();
@@ -186,15 +404,38 @@ public class Dispatcher extends Lifecycle implements Executor{
 		return requestQueue.size();
 	}
 	//
-	void statMethod(Method m,Throwable e,int runTime,int fullTime){
-		String name=m.getDeclaringClass().getSimpleName()+"."+m.getName();
+	/**
+	 * return cached invoker of method,invoker created at first call.
+	 * servers should call this when registering services so the invoker
+	 * is ready before the first request.
+	 */
+	public MethodInvoker getMethodInvoker(Method method){
+		MethodInvoker invoker=methodInvokers.get(method);
+		if(invoker==null){
+			invoker=methodInvokers.computeIfAbsent(method,MethodInvoker::new);
+		}
+		return invoker;
+	}
+	//
+	public int getMethodInvokerCount(){
+		return methodInvokers.size();
+	}
+	//
+	void statMethod(MethodInvoker invoker,Throwable e,long runNanos,long fullNanos){
+		String name=invoker.name;
 		InvokeStat ms=methodStats.get(name);
 		if(ms==null){
-			ms=new InvokeStat();
-			ms.name=name;
-			methodStats.put(name, ms);
+			ms=methodStats.computeIfAbsent(name,k->{
+				InvokeStat stat=new InvokeStat();
+				stat.name=k;
+				return stat;
+			});
 		}
-		ms.invoke(e!=null, runTime,fullTime);
+		ms.invokeNanos(e!=null, runNanos,fullNanos);
+		fullTimeHistogram.record(fullNanos);
+		runTimeHistogram.record(runNanos);
+		int runTime=(int)(runNanos/1000000);
+		int fullTime=(int)(fullNanos/1000000);
 		totalInvokeCount.increment();
 		totalFullTime.add(fullTime);
 		totalRunTime.add(runTime);
@@ -246,11 +487,27 @@ public class Dispatcher extends Lifecycle implements Executor{
 	//
 	public void resetInvokeStats(){
 		methodStats.clear();
+		fullTimeHistogram.reset();
+		runTimeHistogram.reset();
+		lastFullTimeSnapshot=null;
+		lastRunTimeSnapshot=null;
 		totalFullTime.reset();
 		totalInvokeCount.reset();
 		totalSubmitCount.reset();
 		totalRunTime.reset();
 	}
+	/**
+	 * latency histogram of all invokes full time(wait in queue+run) in nanoseconds
+	 */
+	public LatencyHistogram getFullTimeHistogram(){
+		return fullTimeHistogram;
+	}
+	/**
+	 * latency histogram of all invokes run time in nanoseconds
+	 */
+	public LatencyHistogram getRunTimeHistogram(){
+		return runTimeHistogram;
+	}
 	//
 	public List<InvokeStat>getInvokeStats(){
 		return new ArrayList<InvokeStat>(methodStats.values());
@@ -274,11 +531,21 @@ public class Dispatcher extends Lifecycle implements Executor{
 			Method method,
 			DispatcherCallback callback,
 			Object ...args){
+		return invokeInCaller(traceId, instance, 
+				getMethodInvoker(method), callback, args);
+	}
+	//
+	public ThreadWorker invokeInCaller(
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			DispatcherCallback callback,
+			Object ...args){
 		totalSubmitCount.increment();
 		ThreadWorker tw=new ThreadWorker(
 				this,
 				traceId,
-				instance, method, args,callback);
+				instance, invoker, args,callback);
 		tw.run();
 		return tw;
 	}
@@ -313,23 +580,114 @@ public class Dispatcher extends Lifecycle implements Executor{
 			Method method,
 			DispatcherCallback callback,
 			Object ...args){
+		invokeInPool(traceId, instance, 
+				getMethodInvoker(method), callback, args);
+	}
+	/**
+	 * traceId's toString() is called only when the trace id string is needed,
+	 * so callers can pass an object instead of building the string each call.
+	 */
+	public void invokeInPool(
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			DispatcherCallback callback,
+			Object ...args){
 		totalSubmitCount.increment();
+		ThreadWorker tw=null;
 		try{
-			poolExecutor.execute(new ThreadWorker(
-					this,
-					traceId,
-					instance, method, args,callback));
+			if(lowAllocationMode&&virtualThreadExecutor==null){
+				tw=ThreadWorker.newRecyclable(this,
+						traceId,
+						instance, invoker, args,callback);
+			}else{
+				tw=new ThreadWorker(this,
+						traceId,
+						instance, invoker, args,callback);
+			}
+			if(rejectInOverload(tw)){
+				return;
+			}
+			taskExecutor.execute(tw);
 		}catch(RejectedExecutionException e){
-			totalRejectedCount.increment();
-			logger.error("task rejected {}-{}.{},queueSize:{}",
-					traceId,
-					instance.getClass().getSimpleName(),
-					method.getName(),
-					getQueue().size());
+			rejectWorker(tw);
 		}catch (Throwable e) {
 			logger.catching(e);
 		}
 	}
+	/**
+	 * invoke method in serial lane of laneKey.calls with same lane key run 
+	 * one after another in submit order on pool threads,no pool thread is
+	 * blocked while waiting for previous call.
+	 */
+	public void invokeInLane(
+			Object laneKey,
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			DispatcherCallback callback,
+			Object ...args){
+		if(laneKey==null){
+			throw new IllegalArgumentException("laneKey can not be null");
+		}
+		totalSubmitCount.increment();
+		ThreadWorker tw;
+		if(lowAllocationMode&&virtualThreadExecutor==null){
+			tw=ThreadWorker.newRecyclable(this,
+					traceId,
+					instance, invoker, args,callback);
+		}else{
+			tw=new ThreadWorker(this,
+					traceId,
+					instance, invoker, args,callback);
+		}
+		if(rejectInOverload(tw)){
+			return;
+		}
+		int h=laneKey.hashCode();
+		h^=(h>>>16);
+		SerialLane lanes[]=this.lanes;
+		lanes[h&(lanes.length-1)].submit(tw);
+	}
+	//
+	public void invokeInLane(
+			Object laneKey,
+			String traceId,
+			Object instance,
+			Method method,
+			DispatcherCallback callback,
+			Object ...args){
+		invokeInLane(laneKey,traceId, instance, 
+				getMethodInvoker(method), callback, args);
+	}
+	//
+	void rejectWorker(ThreadWorker tw){
+		totalRejectedCount.increment();
+		logger.error("task rejected {}-{},queueSize:{}",
+				tw.getTraceId(),
+				tw.getInvoker(),
+				getQueue().size());
+		if(loadShedder!=null){
+			tw.abort(new DispatcherOverloadException("task rejected"));
+		}else{
+			tw.recycle();
+		}
+	}
+	//
+	private boolean rejectInOverload(ThreadWorker tw){
+		LoadShedder shedder=loadShedder;
+		if(shedder==null||!shedder.reject(tw.getInvoker().priority,System.nanoTime())){
+			return false;
+		}
+		totalRejectedCount.increment();
+		if(logger.isWarnEnabled()){
+			logger.warn("task rejected in overload state {}-{}",
+					tw.getTraceId(),
+					tw.getInvoker());
+		}
+		tw.abort(new DispatcherOverloadException("rejected in overload state"));
+		return true;
+	}
 	//
 	public void invokeInPool(Invoke invoke){
 		try {
@@ -351,6 +709,156 @@ public class Dispatcher extends Lifecycle implements Executor{
 				EMPTY_CALLBACK,
 				EMPTY_ARGS);
 	}
+	//--------------------------------------------------------------------------
+	/**
+	 * invoke method in pool and return future of result.invoke runs in 
+	 * ThreadWorker with same stats and global callbacks as invokeInPool.
+	 * future completed with DispatcherOverloadException if rejected,
+	 * cancel future before invoke running will skip the invoke.
+	 */
+	public <T> CompletableFuture<T> invokeAsync(
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			Object ...args){
+		totalSubmitCount.increment();
+		FutureDispatcherCallback<T> callback=new FutureDispatcherCallback<T>();
+		ThreadWorker tw=new ThreadWorker(this,
+				traceId,
+				instance, invoker, args,callback);
+		if(rejectInOverload(tw)){
+			return callback.future;
+		}
+		try{
+			taskExecutor.execute(tw);
+		}catch(RejectedExecutionException e){
+			totalRejectedCount.increment();
+			logger.error("task rejected {}-{},queueSize:{}",
+					traceId,
+					invoker.name,
+					getQueue().size());
+			tw.abort(new DispatcherOverloadException("task rejected"));
+		}
+		return callback.future;
+	}
+	//
+	public <T> CompletableFuture<T> invokeAsync(
+			String traceId,
+			Object instance,
+			Method method,
+			Object ...args){
+		return invokeAsync(traceId, instance, 
+				getMethodInvoker(method), args);
+	}
+	//
+	/**
+	 * invoke stat name is derived from class of invoke,eg. 
+	 * LoginService$$Lambda$12.doInvoke
+	 */
+	public <T> CompletableFuture<T> invokeAsync(String traceId,AsyncInvoke<T> invoke){
+		MethodInvoker invoker=asyncInvokers.get(invoke.getClass());
+		if(invoker==null){
+			invoker=asyncInvokers.computeIfAbsent(invoke.getClass(),k->{
+				String name=((Class<?>)k).getName();
+				name=name.substring(name.lastIndexOf('.')+1);
+				int idx=name.indexOf('/');
+				if(idx!=-1){
+					//hidden class of lambda
+					name=name.substring(0,idx);
+				}
+				return new MethodInvoker(ASYNC_INVOKE_METHOD,name+".doInvoke");
+			});
+		}
+		return invokeAsync(traceId,invoke,invoker,EMPTY_ARGS);
+	}
+	/**
+	 * invoke async with given invoke stat name
+	 */
+	public <T> CompletableFuture<T> invokeAsync(
+			String traceId,
+			String name,
+			AsyncInvoke<T> invoke){
+		MethodInvoker invoker=asyncInvokers.get(name);
+		if(invoker==null){
+			invoker=asyncInvokers.computeIfAbsent(name,
+					k->new MethodInvoker(ASYNC_INVOKE_METHOD,(String)k));
+		}
+		return invokeAsync(traceId,invoke,invoker,EMPTY_ARGS);
+	}
+	/**
+	 * run all invokes in pool and wait results with shared deadline.
+	 * if deadline passed,unfinished invokes are cancelled(invokes not 
+	 * started yet will not run) and TimeoutException thrown.
+	 * @return results in same order of invokes
+	 * @throws ExecutionException first exception thrown by invokes
+	 */
+	public <T> List<T> invokeAll(
+			String traceId,
+			List<? extends AsyncInvoke<T>> invokes,
+			long timeout,
+			TimeUnit unit)
+			throws InterruptedException,ExecutionException,TimeoutException{
+		List<CompletableFuture<T>>futures=new ArrayList<>(invokes.size());
+		for(AsyncInvoke<T> invoke:invokes){
+			futures.add(invokeAsync(traceId,invoke));
+		}
+		try{
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]))
+				.get(timeout, unit);
+		}catch(ExecutionException e){
+			//all invokes done,exception reported in invoke order below
+		}finally{
+			cancelAll(futures);
+		}
+		List<T>result=new ArrayList<>(futures.size());
+		for(CompletableFuture<T> f:futures){
+			result.add(f.get());
+		}
+		return result;
+	}
+	/**
+	 * run all invokes in pool and return result of the first one completed
+	 * successfully,other invokes are cancelled.
+	 * @throws ExecutionException if all invokes failed,with last exception
+	 * @throws TimeoutException no invoke completed successfully before deadline
+	 */
+	public <T> T invokeAny(
+			String traceId,
+			List<? extends AsyncInvoke<T>> invokes,
+			long timeout,
+			TimeUnit unit)
+			throws InterruptedException,ExecutionException,TimeoutException{
+		if(invokes.isEmpty()){
+			throw new IllegalArgumentException("invokes can not be empty");
+		}
+		CompletableFuture<T> any=new CompletableFuture<T>();
+		AtomicInteger failedCount=new AtomicInteger();
+		List<CompletableFuture<T>>futures=new ArrayList<>(invokes.size());
+		for(AsyncInvoke<T> invoke:invokes){
+			CompletableFuture<T> f=invokeAsync(traceId,invoke);
+			f.whenComplete((v,e)->{
+				if(e==null){
+					any.complete(v);
+				}else if(failedCount.incrementAndGet()==invokes.size()){
+					any.completeExceptionally(e);
+				}
+			});
+			futures.add(f);
+		}
+		try{
+			return any.get(timeout, unit);
+		}finally{
+			cancelAll(futures);
+		}
+	}
+	//
+	private static void cancelAll(List<? extends CompletableFuture<?>>futures){
+		for(CompletableFuture<?> f:futures){
+			if(!f.isDone()){
+				f.cancel(false);
+			}
+		}
+	}
 	/**
 	 *
 	 */
@@ -369,6 +877,9 @@ public class Dispatcher extends Lifecycle implements Executor{
 	 * @see java.util.concurrent.ThreadPoolExecutor#getActiveCount()
 	 */
 	public int getActiveCount() {
+		if(virtualThreadExecutor!=null){
+			return virtualThreadExecutor.getActiveCount();
+		}
 		return poolExecutor.getActiveCount();
 	}
 	/**
@@ -427,6 +938,9 @@ public class Dispatcher extends Lifecycle implements Executor{
 	 * @see java.util.concurrent.ThreadPoolExecutor#getPoolSize()
 	 */
 	public int getPoolSize() {
+		if(virtualThreadExecutor!=null){
+			return virtualThreadExecutor.getActiveCount();
+		}
 		return poolExecutor.getPoolSize();
 	}
 	/**
@@ -434,6 +948,9 @@ public class Dispatcher extends Lifecycle implements Executor{
 	 * @see java.util.concurrent.ThreadPoolExecutor#getTaskCount()
 	 */
 	public long getTaskCount() {
+		if(virtualThreadExecutor!=null){
+			return virtualThreadExecutor.getTaskCount();
+		}
 		return poolExecutor.getTaskCount();
 	}
 	/**
@@ -441,6 +958,9 @@ public class Dispatcher extends Lifecycle implements Executor{
 	 * @see java.util.concurrent.ThreadPoolExecutor#getCompletedTaskCount()
 	 */
 	public long getCompletedTaskCount() {
+		if(virtualThreadExecutor!=null){
+			return virtualThreadExecutor.getCompletedTaskCount();
+		}
 		return poolExecutor.getCompletedTaskCount();
 	}
 	//
@@ -479,6 +999,6 @@ public class Dispatcher extends Lifecycle implements Executor{
 	//--------------------------------------------------------------------------
 	@Override
 	public void execute(Runnable command) {
-		poolExecutor.execute(command);
+		taskExecutor.execute(command);
 	}
 }
@@ -2,26 +2,51 @@ package jazmin.core.thread;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
+ * target invokers of all interface methods are resolved when proxy created,
+ * proxy call only does one map lookup with the interface method.
  * @author yama
  * @date Jun 4, 2014
  */
 public class DispatcherInvocationHandler  implements InvocationHandler {
 	private Object object;
 	private Dispatcher dispatcher;
-	DispatcherInvocationHandler(Object object,Dispatcher dispatcher){
+	private Map<Method,MethodInvoker>invokers;
+	//
+	DispatcherInvocationHandler(Class<?>clazz,Object object,Dispatcher dispatcher){
 		this.object=object;
 		this.dispatcher=dispatcher;
+		this.invokers=new HashMap<Method, MethodInvoker>();
+		for(Method m:clazz.getMethods()){
+			invokers.put(m,dispatcher.getMethodInvoker(getTargetMethod(m)));
+		}
+	}
+	//
+	private Method getTargetMethod(Method method){
+		try {
+			return object.getClass().getMethod(
+					method.getName(),
+					method.getParameterTypes());
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(e);
+		}
 	}
 	//
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args)
 			throws Throwable {
-		Method m=object.getClass().getMethod(method.getName(),method.getParameterTypes());
+		MethodInvoker invoker=invokers.get(method);
+		if(invoker==null){
+			//Object methods eg. toString,hashCode
+			invoker=dispatcher.getMethodInvoker(getTargetMethod(method));
+		}
 		ThreadWorker tw=dispatcher.invokeInCaller(
-				"",object, m,
-				Dispatcher.EMPTY_CALLBACK, args);
+				"",object, invoker,
+				Dispatcher.EMPTY_CALLBACK, 
+				args==null?Dispatcher.EMPTY_ARGS:args);
 		if(tw.getException()!=null){
 			throw tw.getException();
 		}
@@ -0,0 +1,19 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+/**
+ * thrown to dispatcher callback when invoke is shed or rejected 
+ * because dispatcher is overloaded,target method is not invoked.
+ */
+public class DispatcherOverloadException extends RuntimeException{
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+	//
+	public DispatcherOverloadException(String msg) {
+		super(msg);
+	}
+}
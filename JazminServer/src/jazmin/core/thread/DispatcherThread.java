@@ -0,0 +1,44 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+/**
+ * worker thread of dispatcher pool.in low allocation mode the running
+ * {@link ThreadWorker} is published here instead of renaming the thread.
+ */
+public class DispatcherThread extends Thread{
+	volatile ThreadWorker worker;
+	//
+	DispatcherThread(Runnable r) {
+		super(r);
+	}
+	/**
+	 * @return the running worker,null if thread is idle or not in low 
+	 * allocation mode
+	 */
+	public ThreadWorker getWorker() {
+		return worker;
+	}
+	/**
+	 * @return trace id of running worker
+	 */
+	public String getTraceId(){
+		ThreadWorker tw=worker;
+		if(tw==null){
+			return null;
+		}
+		int generation=tw.getGeneration();
+		String traceId;
+		try{
+			traceId=tw.snapshotTraceId();
+		}catch(RuntimeException e){
+			return null;
+		}
+		//worker finished or reused while building trace id
+		if(worker!=tw||tw.getGeneration()!=generation){
+			return null;
+		}
+		return traceId;
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * complete future when invoke end.invoke is skipped if future 
+ * cancelled(eg. deadline passed) before it starts running.
+ */
+class FutureDispatcherCallback<T> extends DispatcherCallbackAdapter{
+	final CompletableFuture<T> future;
+	//
+	FutureDispatcherCallback() {
+		future=new CompletableFuture<T>();
+	}
+	//
+	@Override
+	public void before(Object instance, Method method, Object[] args)
+			throws Exception {
+		if(future.isDone()){
+			throw new CancellationException("future cancelled before run");
+		}
+	}
+	//
+	@SuppressWarnings("unchecked")
+	@Override
+	public void end(Object instance, Method method, Object[] args, Object ret,
+			Throwable e) {
+		if(e!=null){
+			future.completeExceptionally(e);
+		}else{
+			future.complete((T)ret);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * priority class of dispatched method,used by load shedder to decide which 
+ * invoke is rejected first when dispatcher overloaded.can be added on 
+ * message service methods and rpc service impl methods.
+ * <pre>
+ * HIGH   never shed by queue delay,eg. login,payment
+ * NORMAL shed when queue delay too long in overload state
+ * LOW    rejected at submit in overload state,eg. ranking list,chat
+ * </pre>
+ */
+@Target(ElementType.METHOD)  
+@Retention(RetentionPolicy.RUNTIME)  
+@Documented
+public @interface InvokePriority{
+	public static final int HIGH=0;
+	public static final int NORMAL=1;
+	public static final int LOW=2;
+	//
+	int value() default NORMAL;
+}
@@ -0,0 +1,161 @@
+/**
+ * 
+ */
+package jazmin.core.thread;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CoDel style load shedder.queue delay(sojourn time) of every invoke is 
+ * checked when it starts running,if minimum delay of last interval is
+ * above target delay the queue is a standing queue and dispatcher enters
+ * overload state.in overload state:
+ * <pre>
+ * LOW priority invokes are rejected at submit
+ * NORMAL and LOW invokes waited more than 2*target are shed before run
+ * HIGH priority invokes always run
+ * </pre>
+ * overload state is left after one interval with minimum delay under target
+ * or one interval without any invoke run,so LOW invokes are accepted again 
+ * when traffic goes idle.
+ */
+public class LoadShedder {
+	private static final int PRIORITY_COUNT=InvokePriority.LOW+1;
+	//
+	private final long targetNanos;
+	private final long intervalNanos;
+	private final AtomicLong intervalEnd;
+	private final LongAccumulator minSojourn;
+	private final LongAdder shedCounts[];
+	private final LongAdder rejectCounts[];
+	private final LongAdder overloadCount;
+	private volatile boolean overloaded;
+	//
+	/**
+	 * @param targetDelay target queue delay in milliseconds
+	 * @param interval check interval in milliseconds
+	 */
+	public LoadShedder(int targetDelay,int interval) {
+		if(targetDelay<=0||interval<=0){
+			throw new IllegalArgumentException("targetDelay and interval must >0");
+		}
+		targetNanos=targetDelay*1000000L;
+		intervalNanos=interval*1000000L;
+		intervalEnd=new AtomicLong(System.nanoTime()+intervalNanos);
+		minSojourn=new LongAccumulator(Math::min,Long.MAX_VALUE);
+		shedCounts=new LongAdder[PRIORITY_COUNT];
+		rejectCounts=new LongAdder[PRIORITY_COUNT];
+		for(int i=0;i<PRIORITY_COUNT;i++){
+			shedCounts[i]=new LongAdder();
+			rejectCounts[i]=new LongAdder();
+		}
+		overloadCount=new LongAdder();
+	}
+	//
+	private static int priorityIndex(int priority){
+		if(priority<InvokePriority.HIGH){
+			return InvokePriority.HIGH;
+		}
+		if(priority>InvokePriority.LOW){
+			return InvokePriority.LOW;
+		}
+		return priority;
+	}
+	//
+	private void checkInterval(long now){
+		long end=intervalEnd.get();
+		if(now-end>=0&&intervalEnd.compareAndSet(end,now+intervalNanos)){
+			//no sample in last interval means queue is empty
+			long min=minSojourn.getThenReset();
+			boolean newState=(min!=Long.MAX_VALUE&&min>targetNanos);
+			if(newState&&!overloaded){
+				overloadCount.increment();
+			}
+			overloaded=newState;
+		}
+	}
+	/**
+	 * check invoke before submit,return true if invoke should be rejected
+	 * @param now current nano time
+	 */
+	public boolean reject(int priority,long now){
+		if(!overloaded){
+			return false;
+		}
+		//nothing may run while only LOW invokes arrive,expire state here
+		checkInterval(now);
+		if(overloaded&&priorityIndex(priority)==InvokePriority.LOW){
+			rejectCounts[InvokePriority.LOW].increment();
+			return true;
+		}
+		return false;
+	}
+	/**
+	 * check invoke before run,return true if invoke should be shed
+	 * @param sojournNanos time waited in queue
+	 * @param now current nano time
+	 */
+	public boolean shed(int priority,long sojournNanos,long now){
+		checkInterval(now);
+		minSojourn.accumulate(sojournNanos);
+		int p=priorityIndex(priority);
+		if(overloaded&&
+				p!=InvokePriority.HIGH&&
+				sojournNanos>2*targetNanos){
+			shedCounts[p].increment();
+			return true;
+		}
+		return false;
+	}
+	//
+	public boolean isOverloaded(){
+		return overloaded;
+	}
+	/**
+	 * @return target queue delay in milliseconds
+	 */
+	public long getTargetDelay(){
+		return targetNanos/1000000;
+	}
+	/**
+	 * @return interval in milliseconds
+	 */
+	public long getInterval(){
+		return intervalNanos/1000000;
+	}
+	/**
+	 * @return count of invokes shed before run
+	 */
+	public long getShedCount(int priority){
+		return shedCounts[priorityIndex(priority)].longValue();
+	}
+	/**
+	 * @return count of invokes rejected at submit
+	 */
+	public long getRejectCount(int priority){
+		return rejectCounts[priorityIndex(priority)].longValue();
+	}
+	//
+	public long getTotalShedCount(){
+		long count=0;
+		for(int i=0;i<PRIORITY_COUNT;i++){
+			count+=shedCounts[i].longValue()+rejectCounts[i].longValue();
+		}
+		return count;
+	}
+	/**
+	 * @return times entered overload state
+	 */
+	public long getOverloadCount(){
+		return overloadCount.longValue();
+	}
+	//
+	@Override
+	public String toString() {
+		return "LoadShedder[targetDelay="+getTargetDelay()+
+				"ms,interval="+getInterval()+
+				"ms,overloaded="+overloaded+"]";
+	}
+}
@@ -0,0 +1,107 @@
+/**
+ *
+ */
+package jazmin.core.thread;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+
+/**
+ * cached invoker of a dispatched method.all reflection work (access check,
+ * annotation lookup,name building) is done once when the invoker is created,
+ * {@link #invoke(Object, Object[])} only calls the prepared method handle.
+ */
+public class MethodInvoker {
+	private static Logger logger=LoggerFactory.get(MethodInvoker.class);
+	//
+	private static final MethodType INVOKE_TYPE=MethodType.methodType(
+			Object.class,Object.class,Object[].class);
+	//
+	final Method method;
+	final String name;
+	final boolean traceLog;
+	final int priority;
+	private final MethodHandle handle;
+	//
+	MethodInvoker(Method method) {
+		this(method,method.getDeclaringClass().getSimpleName()+"."+method.getName());
+	}
+	//
+	MethodInvoker(Method method,String name) {
+		this.method=method;
+		this.name=name;
+		this.traceLog=(method.getAnnotation(NoTraceLog.class)==null);
+		InvokePriority ip=method.getAnnotation(InvokePriority.class);
+		this.priority=(ip==null?InvokePriority.NORMAL:ip.value());
+		this.handle=createHandle(method);
+	}
+	//
+	private static MethodHandle createHandle(Method method){
+		try{
+			method.setAccessible(true);
+			MethodHandle mh=MethodHandles.lookup().unreflect(method);
+			if(Modifier.isStatic(method.getModifiers())){
+				mh=MethodHandles.dropArguments(mh,0,Object.class);
+			}
+			return mh.asSpreader(Object[].class,method.getParameterCount())
+					.asType(INVOKE_TYPE);
+		}catch(Exception e){
+			//fall back to reflection,eg. method not accessible
+			logger.warn("can not create method handle for {},use reflection.{}",
+					method,e.getMessage());
+			return null;
+		}
+	}
+	//
+	/**
+	 * invoke method on instance,exception thrown by target method
+	 * is thrown directly(not wrapped in InvocationTargetException)
+	 */
+	public Object invoke(Object instance,Object[] args)throws Throwable{
+		if(handle!=null){
+			return handle.invokeExact(instance,args);
+		}
+		try{
+			return method.invoke(instance, args);
+		}catch(InvocationTargetException e){
+			throw e.getTargetException();
+		}
+	}
+	//
+	/**
+	 * @return the target method
+	 */
+	public Method getMethod() {
+		return method;
+	}
+	/**
+	 * @return method name in SimpleClassName.methodName format
+	 */
+	public String getName() {
+		return name;
+	}
+	/**
+	 * @return false if method annotated with NoTraceLog
+	 */
+	public boolean isTraceLog() {
+		return traceLog;
+	}
+	/**
+	 * @return priority class in InvokePriority,default NORMAL
+	 */
+	public int getPriority() {
+		return priority;
+	}
+	//
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -18,4 +18,9 @@ public class PerformanceLog {
 	public long rejectedCount;
 	public long invokeCount;
 	public long submitCount;
+	//percentiles in milliseconds of invokes in this log interval
+	public double p50FullTime;
+	public double p99FullTime;
+	public double p999FullTime;
+	public double p99RunTime;
 }
@@ -107,12 +107,20 @@ public class PerformanceLogWriter {
 			fileWriter.write(String.format("%-10s %-15s %-15s "
 					+ "AvgFullTime=%.2f "
 					+ "AvgRunTime=%.2f "
+					+ "P50FullTime=%.2f "
+					+ "P99FullTime=%.2f "
+					+ "P999FullTime=%.2f "
+					+ "P99RunTime=%.2f "
 					+ "%-20s %-20s %-20s\n",
 					dateFormat.format(log.date),
 					"PoolSize="+log.poolSize,
 					"QueueSize="+log.queueSize,
 					log.avgFullTime,
 					log.avgRunTime,
+					log.p50FullTime,
+					log.p99FullTime,
+					log.p999FullTime,
+					log.p99RunTime,
 					"RejectedCount="+log.rejectedCount,
 					"InvokeCount="+log.invokeCount,
 					"SubmitCount="+log.submitCount));
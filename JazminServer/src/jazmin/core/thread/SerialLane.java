@@ -0,0 +1,87 @@
+/**
+ *
+ */
+package jazmin.core.thread;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+
+/**
+ * serial execution lane over shared executor.tasks submitted to same lane run
+ * one by one in submit order,but no thread is bound to the lane.the thread
+ * that moves size from 0 to 1 schedules the lane,the lane runs until it is
+ * empty or {@link #MAX_BATCH} tasks done and then yields to other lanes.
+ */
+class SerialLane implements Runnable{
+	private static Logger logger=LoggerFactory.get(SerialLane.class);
+	//
+	static final int MAX_BATCH=32;
+	//
+	private final Executor executor;
+	private final ConcurrentLinkedQueue<ThreadWorker>queue;
+	private final AtomicInteger size;
+	private final Dispatcher dispatcher;
+	//
+	SerialLane(Dispatcher dispatcher,Executor executor) {
+		this.dispatcher=dispatcher;
+		this.executor=executor;
+		this.queue=new ConcurrentLinkedQueue<>();
+		this.size=new AtomicInteger();
+	}
+	//
+	void submit(ThreadWorker worker){
+		queue.offer(worker);
+		if(size.getAndIncrement()!=0){
+			//lane already scheduled
+			return;
+		}
+		try{
+			executor.execute(this);
+		}catch(RejectedExecutionException e){
+			rejectAll();
+		}
+	}
+	//
+	int size(){
+		return size.get();
+	}
+	/*
+	 * we own the lane,reject all tasks until lane empty
+	 */
+	private void rejectAll(){
+		do{
+			ThreadWorker tw=queue.poll();
+			dispatcher.rejectWorker(tw);
+		}while(size.decrementAndGet()>0);
+	}
+	//
+	@Override
+	public void run() {
+		int count=0;
+		while(true){
+			ThreadWorker tw=queue.poll();
+			try{
+				tw.run();
+			}catch(Throwable e){
+				logger.catching(e);
+			}
+			if(size.decrementAndGet()==0){
+				return;
+			}
+			if(++count>=MAX_BATCH){
+				try{
+					executor.execute(this);
+					return;
+				}catch(RejectedExecutionException e){
+					//pool is full,keep running in current thread
+					count=0;
+				}
+			}
+		}
+	}
+}
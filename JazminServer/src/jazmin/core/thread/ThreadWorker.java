@@ -1,12 +1,14 @@
 /**
- * 
+ *
  */
 package jazmin.core.thread;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
 import jazmin.core.app.AppException;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
@@ -18,29 +20,91 @@ import jazmin.util.DumpUtil;
 public class ThreadWorker implements Runnable {
 	private static Logger logger = LoggerFactory.get(ThreadWorker.class);
 	//
+	private static final Recycler<ThreadWorker> RECYCLER=new Recycler<ThreadWorker>() {
+		@Override
+		protected ThreadWorker newObject(Handle<ThreadWorker> handle) {
+			return new ThreadWorker(handle);
+		}
+	};
+	//
+	private final Handle<ThreadWorker> handle;
 	private Object instance;
 	private Object[] args;
 	private Method method;
+	private MethodInvoker invoker;
 	private DispatcherCallback callback;
-	private String traceId;
+	private Object traceId;
+	private String traceIdString;
 	private Dispatcher dispatcher;
 	private List<DispatcherCallback>globalDispatcherCallbacks;
 	private Object ret = null;
 	private Throwable exception = null;
 	private long startTime;
 	private boolean traceLog;
+	private volatile int generation;
 	//
 	public ThreadWorker(
 			Dispatcher dispatcher,
 			String traceId,
 			Object instance,
-			Method method, 
+			Method method,
+			Object[] args,
+			DispatcherCallback callback) {
+		this(dispatcher,traceId,instance,
+				method==null?null:dispatcher.getMethodInvoker(method),
+				args,callback);
+	}
+	//
+	/**
+	 * traceId's toString() is called only when the trace id string is needed
+	 */
+	public ThreadWorker(
+			Dispatcher dispatcher,
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
 			Object[] args,
 			DispatcherCallback callback) {
+		this.handle=null;
+		init(dispatcher, traceId, instance, invoker, args, callback);
+	}
+	//
+	private ThreadWorker(Handle<ThreadWorker> handle){
+		this.handle=handle;
+	}
+	//
+	/**
+	 * get a recycled worker,worker will be recycled after run,
+	 * so it can not be used after submitted.
+	 */
+	static ThreadWorker newRecyclable(
+			Dispatcher dispatcher,
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			Object[] args,
+			DispatcherCallback callback){
+		ThreadWorker tw=RECYCLER.get();
+		try{
+			tw.init(dispatcher, traceId, instance, invoker, args, callback);
+		}catch(IllegalArgumentException e){
+			tw.recycle();
+			throw e;
+		}
+		return tw;
+	}
+	//
+	private void init(
+			Dispatcher dispatcher,
+			Object traceId,
+			Object instance,
+			MethodInvoker invoker,
+			Object[] args,
+			DispatcherCallback callback){
 		if(instance==null){
 			throw new IllegalArgumentException("instance can not be null");
 		}
-		if(method==null){
+		if(invoker==null){
 			throw new IllegalArgumentException("method can not be null");
 		}
 		this.dispatcher=dispatcher;
@@ -52,35 +116,77 @@ public class ThreadWorker implements Runnable {
 		this.traceId=traceId;
 		this.instance = instance;
 		this.args = args;
-		this.method = method;
+		this.invoker = invoker;
+		this.method = invoker.method;
 		this.callback = callback;
-		startTime = System.currentTimeMillis();
-		traceLog=(method.getAnnotation(NoTraceLog.class)==null);
+		startTime = System.nanoTime();
+		traceLog=invoker.traceLog;
+	}
+	//
+	void recycle(){
+		if(handle==null){
+			return;
+		}
+		generation++;
+		instance=null;
+		args=null;
+		method=null;
+		invoker=null;
+		callback=null;
+		traceId=null;
+		traceIdString=null;
+		dispatcher=null;
+		globalDispatcherCallbacks=null;
+		ret=null;
+		exception=null;
+		handle.recycle(this);
 	}
 	//
 	@Override
 	public void run() {
-		String oldName=Thread.currentThread().getName();
-		Thread.currentThread().setName(oldName+"-"+traceId);
-		long runStartTime=System.currentTimeMillis();;
-		String methodName=method.getDeclaringClass().getSimpleName() + "."+ method.getName();
+		Thread thread=Thread.currentThread();
+		DispatcherThread dispatcherThread=null;
+		ThreadWorker oldWorker=null;
+		String oldName=null;
+		boolean lowAllocation=dispatcher.lowAllocationMode;
+		if(lowAllocation&&(thread instanceof DispatcherThread)){
+			//publish worker instead of renaming thread,trace id is built
+			//when thread dump or log line need it
+			dispatcherThread=(DispatcherThread)thread;
+			oldWorker=dispatcherThread.worker;
+			dispatcherThread.worker=this;
+		}else{
+			oldName=thread.getName();
+			thread.setName(oldName+"-"+getTraceId());
+		}
+		long runStartTime=System.nanoTime();
+		String methodName=invoker.name;
 		if(traceLog){
 			if (logger.isInfoEnabled()) {
-				logger.info(">invoke:-{}",methodName);
+				if(dispatcherThread!=null){
+					logger.info(">invoke:-{} {}",methodName,traceId);
+				}else{
+					logger.info(">invoke:-{}",methodName);
+				}
 			}
 			if (logger.isDebugEnabled()) {
 				logger.debug(DumpUtil.dumpInvokeArgs(">invoke:" + methodName, args));
 			}
 		}
 		try {
+			LoadShedder shedder=dispatcher.loadShedder;
+			if(shedder!=null&&shedder.shed(invoker.priority,
+					runStartTime-startTime,runStartTime)){
+				throw new DispatcherOverloadException("shed after wait "+
+						(runStartTime-startTime)/1000000+"ms");
+			}
 			if(globalDispatcherCallbacks!=null){
 				for(DispatcherCallback c:globalDispatcherCallbacks){
 					c.before(methodName, method, args);
 				}
 			}
 			callback.before(methodName, method, args);
-			method.setAccessible(true);
-			ret = method.invoke(instance, args);
+			ret = invoker.invoke(instance, args);
 			callback.after(instance, method,args);
 			//
 			if(globalDispatcherCallbacks!=null){
@@ -88,14 +194,14 @@ public class ThreadWorker implements Runnable {
 					c.after(methodName, method, args);
 				}
 			}
-		} catch (InvocationTargetException e) {
-			exception = e.getTargetException();
 		} catch (Throwable e) {
 			exception = e;
 		} finally {
-			long current=System.currentTimeMillis();
-			long fullTime=current-startTime;
-			long runTime=current-runStartTime;
+			long current=System.nanoTime();
+			long fullNanos=current-startTime;
+			long runNanos=current-runStartTime;
+			long fullTime=fullNanos/1000000;
+			long runTime=runNanos/1000000;
 			if (exception != null) {
 				if(exception instanceof AppException){
 					AppException ae=(AppException)exception;
@@ -103,18 +209,29 @@ public class ThreadWorker implements Runnable {
 							methodName,
 							ae.getCode(),
 							ae.getMessage());
+				}else if(exception instanceof DispatcherOverloadException||
+						exception instanceof CancellationException){
+					logger.warn("<invoke:{},{}",methodName,exception.getMessage());
 				}else{
-					logger.error("<invoke:" + methodName, exception);		
+					logger.error("<invoke:" + methodName, exception);
 				}
 			}
 			if(traceLog){
 				if (logger.isInfoEnabled()) {
-					logger.info("<invoke:{} time:{}-{}", methodName,
-							runTime,fullTime);
+					if(dispatcherThread!=null){
+						logger.info("<invoke:{} {} time:{}-{}", methodName,
+								traceId,runTime,fullTime);
+					}else{
+						logger.info("<invoke:{} time:{}-{}", methodName,
+								runTime,fullTime);
+					}
 				}
 				if (logger.isDebugEnabled()) {
 					logger.debug(DumpUtil.dumpInvokeObject("<invoke:" + methodName,ret));
-				}	
+				}
+			}
+			if(dispatcherThread!=null){
+				dispatcherThread.worker=oldWorker;
 			}
 			if(globalDispatcherCallbacks!=null){
 				for(DispatcherCallback c:globalDispatcherCallbacks){
@@ -122,11 +239,59 @@ public class ThreadWorker implements Runnable {
 				}
 			}
 			callback.end(instance, method,args,ret,exception);
-			dispatcher.statMethod(method, exception,(int) runTime,(int) fullTime);
-			Thread.currentThread().setName(oldName);
+			dispatcher.statMethod(invoker, exception,runNanos,fullNanos);
+			if(oldName!=null){
+				thread.setName(oldName);
+			}
+			recycle();
+		}
+	}
+	/**
+	 * worker rejected before run,callback end is called with exception
+	 * in caller thread so caller can response to client.target method and
+	 * global callbacks are not invoked.
+	 */
+	void abort(Throwable e){
+		exception=e;
+		try{
+			callback.end(instance, method,args,null,exception);
+		}catch(Throwable ee){
+			logger.catching(ee);
+		}finally{
+			recycle();
 		}
 	}
 	//
+	int getGeneration(){
+		return generation;
+	}
+	/**
+	 * build trace id without caching,used by other threads while worker
+	 * may be recycled concurrently
+	 */
+	String snapshotTraceId(){
+		String s=traceIdString;
+		if(s!=null){
+			return s;
+		}
+		Object id=traceId;
+		return id==null?null:id.toString();
+	}
+	/**
+	 * @return the trace id
+	 */
+	public String getTraceId() {
+		if(traceIdString==null&&traceId!=null){
+			traceIdString=traceId.toString();
+		}
+		return traceIdString;
+	}
+	/**
+	 * @return the invoker
+	 */
+	public MethodInvoker getInvoker() {
+		return invoker;
+	}
 
 	/**
 	 * @return the ret
@@ -141,5 +306,5 @@ public class ThreadWorker implements Runnable {
 	public Throwable getException() {
 		return exception;
 	}
-	
+
 }
@@ -0,0 +1,125 @@
+/**
+ *
+ */
+package jazmin.core.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import jazmin.core.JazminThreadFactory;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+
+/**
+ * run each task on a new virtual thread.there is no queue,a semaphore limits
+ * concurrent running tasks and tasks over the limit are rejected.
+ * virtual threads are created via reflection so this class can be loaded
+ * on jvm without virtual thread support,use {@link #isSupported()} to check.
+ */
+class VirtualThreadExecutor implements Executor{
+	private static Logger logger=LoggerFactory.get(VirtualThreadExecutor.class);
+	//
+	private final ThreadFactory threadFactory;
+	private final Semaphore permits;
+	private final int maxConcurrency;
+	private final AtomicInteger activeCount;
+	private final AtomicInteger largestActiveCount;
+	private final LongAdder taskCount;
+	private final LongAdder completedTaskCount;
+	//
+	VirtualThreadExecutor(String name,int maxConcurrency) {
+		this.threadFactory=createVirtualThreadFactory(name);
+		if(threadFactory==null){
+			throw new IllegalStateException("virtual thread not supported by jvm "+
+					System.getProperty("java.version"));
+		}
+		this.maxConcurrency=maxConcurrency;
+		this.permits=new Semaphore(maxConcurrency);
+		this.activeCount=new AtomicInteger();
+		this.largestActiveCount=new AtomicInteger();
+		this.taskCount=new LongAdder();
+		this.completedTaskCount=new LongAdder();
+	}
+	//
+	static boolean isSupported(){
+		return createVirtualThreadFactory("probe")!=null;
+	}
+	//
+	private static ThreadFactory createVirtualThreadFactory(String name){
+		try {
+			Method ofVirtual=Thread.class.getMethod("ofVirtual");
+			Object builder=ofVirtual.invoke(null);
+			Class<?>builderClass=Class.forName("java.lang.Thread$Builder");
+			ThreadFactory virtualFactory=(ThreadFactory) builderClass.
+					getMethod("factory").invoke(builder);
+			//same context class loader,name and uncaught exception handler
+			//as pool threads
+			return new JazminThreadFactory(name){
+				@Override
+				protected Thread createThread(Runnable r) {
+					return virtualFactory.newThread(r);
+				}
+			};
+		} catch (Exception e) {
+			if(logger.isDebugEnabled()){
+				logger.debug("virtual thread not supported:{}",e.getMessage());
+			}
+			return null;
+		}
+	}
+	//
+	@Override
+	public void execute(Runnable command) {
+		if(!permits.tryAcquire()){
+			throw new RejectedExecutionException("max concurrency reached:"+
+					maxConcurrency);
+		}
+		taskCount.increment();
+		try{
+			threadFactory.newThread(()->runTask(command)).start();
+		}catch(Throwable e){
+			permits.release();
+			throw new RejectedExecutionException(e);
+		}
+	}
+	//
+	private void runTask(Runnable command){
+		int active=activeCount.incrementAndGet();
+		int largest=largestActiveCount.get();
+		while(active>largest&&!largestActiveCount.compareAndSet(largest, active)){
+			largest=largestActiveCount.get();
+		}
+		try{
+			command.run();
+		}finally{
+			activeCount.decrementAndGet();
+			completedTaskCount.increment();
+			permits.release();
+		}
+	}
+	//
+	int getMaxConcurrency(){
+		return maxConcurrency;
+	}
+	//
+	int getActiveCount(){
+		return activeCount.get();
+	}
+	//
+	int getLargestActiveCount(){
+		return largestActiveCount.get();
+	}
+	//
+	long getTaskCount(){
+		return taskCount.longValue();
+	}
+	//
+	long getCompletedTaskCount(){
+		return completedTaskCount.longValue();
+	}
+}
@@ -43,12 +43,12 @@ public class C3p0DriverCommand extends ConsoleCommand {
 	}
 	//
     private void showStats(String args){
-    	String format="%-5s : %-10s %-10s %-10s %-10s %-10s %-50s \n";
+    	String format="%-5s : %-10s %-10s %-10s %-10s %-10s %-10s %-50s \n";
 		int i=1;
 		List<InvokeStat>stats=connectionDriver.getInvokeStats();
 		out.println("total "+stats.size()+" sql stats");
 		Collections.sort(stats);
-		out.format(format,"#","IVC","ERR","MINT","MAXT","AVGT","SQL");	
+		out.format(format,"#","IVC","ERR","MINT","MAXT","AVGT","P99T","SQL");	
 		for(InvokeStat stat:stats){
 			String sql=stat.name;
 			if(!cli.hasOption('f')){
@@ -62,6 +62,7 @@ public class C3p0DriverCommand extends ConsoleCommand {
 					stat.minFullTime,
 					stat.maxFullTime,
 					stat.avgFullTime(),
+					String.format("%.2f",stat.fullTimePercentile(99)),
 					sql);
 		};
     }
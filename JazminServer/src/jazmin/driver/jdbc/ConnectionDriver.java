@@ -22,6 +22,7 @@ import jazmin.core.thread.DispatcherCallbackAdapter;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.InvokeStat;
+import jazmin.misc.io.LatencyHistogram;
 
 /**
  * @author yama
@@ -53,6 +54,12 @@ public abstract class ConnectionDriver extends Driver{
 	}
 	//
 	public void statSql(String sql,int time,boolean error){
+		statSqlNanos(sql, time*1000000L, error);
+	}
+	/**
+	 * stat sql execute time in nanoseconds
+	 */
+	public void statSqlNanos(String sql,long nanos,boolean error){
 		totalInvokeCounter.incrementAndGet();
 		if(!isStatSql){
 			return;
@@ -63,11 +70,12 @@ public abstract class ConnectionDriver extends Driver{
 				//max stat 500 sql query
 				return;
 			}
-			stat=new InvokeStat();
+			//sql text is stat key,use compact histogram to save memory
+			stat=new InvokeStat(LatencyHistogram.COMPACT_SUB_BUCKET_BITS);
 			stat.name=sql;
 			sqlStatMap.put(stat.name, stat);
 		}
-		stat.invoke(error, time,time);
+		stat.invokeNanos(error, nanos,nanos);
 	}
 	//
 	public List<InvokeStat>getInvokeStats(){
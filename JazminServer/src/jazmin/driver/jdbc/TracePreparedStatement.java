@@ -73,22 +73,24 @@ public class TracePreparedStatement implements PreparedStatement {
 	//
 	private void traceSql(String ret, long startTime) throws SQLException {
 		boolean autoCommit = statement.getConnection().getAutoCommit();
-		long s2 = System.currentTimeMillis();
-		long time = s2 - startTime;
+		long s2 = System.nanoTime();
+		long nanos = s2 - startTime;
+		long time = nanos/1000000;
 		if (logger.isDebugEnabled()) {
 			logger.debug("RunSQL:{}#{}",connectionHolder,dumpSql(autoCommit, time, ret));
 		}
 		if (time > SLOW_SQL_TIME) {
 			logger.warn("SlowSQL:{}" ,dumpSql(autoCommit, time, ret));
 		}
-		connectionHolder.connectionDriver.statSql(sqlString.toString(),(int)time,false);
+		connectionHolder.connectionDriver.statSqlNanos(sqlString.toString(),nanos,false);
 	}
 
 	//
 	private void processError(String ret, long startTime) throws SQLException {
 		boolean autoCommit = statement.getConnection().getAutoCommit();
-		long time=System.currentTimeMillis()-startTime;
-		connectionHolder.connectionDriver.statSql(sqlString.toString(),(int)time,false);
+		long nanos=System.nanoTime()-startTime;
+		long time=nanos/1000000;
+		connectionHolder.connectionDriver.statSqlNanos(sqlString.toString(),nanos,true);
 		logger.error("execute:" + dumpSql(autoCommit, time, ret));
 	}
 
@@ -235,7 +237,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 *             * @see java.sql.PreparedStatement#execute()
 	 */
 	public boolean execute() throws SQLException {
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		boolean ret = false;
 		try {
 			ret = statement.execute();
@@ -251,7 +253,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	//
 	public boolean execute(String sql, int autoGeneratedKeys)
 			throws SQLException {
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		boolean ret = false;
 		try {
 			ret = statement.execute(sql, autoGeneratedKeys);
@@ -284,7 +286,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 */
 	public boolean execute(String sql) throws SQLException {
 		this.sqlString.append(sql);
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		boolean ret = false;
 		try {
 			ret = statement.execute(sql);
@@ -303,7 +305,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 *             * @see java.sql.Statement#executeBatch()
 	 */
 	public int[] executeBatch() throws SQLException {
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		int[] ret = null;
 		try {
 			ret = statement.executeBatch();
@@ -312,9 +314,9 @@ public class TracePreparedStatement implements PreparedStatement {
 			processError(null, s);
 			throw e;
 		} finally {
-			long s2 = System.currentTimeMillis();
+			long s2 = System.nanoTime();
 			if (logger.isDebugEnabled()) {
-				logger.debug("executeBatch:" + dumpBatchSql(s2 - s, ret));
+				logger.debug("executeBatch:" + dumpBatchSql((s2 - s)/1000000, ret));
 			}
 		}
 	}
@@ -328,7 +330,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 *             * @see java.sql.PreparedStatement#executeQuery()
 	 */
 	public ResultSet executeQuery() throws SQLException {
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		ResultSet rs = null;
 		try {
 			rs = statement.executeQuery();
@@ -352,7 +354,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 */
 	public ResultSet executeQuery(String sql) throws SQLException {
 		this.sqlString.append(sql);
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		ResultSet rs = null;
 		try {
 			rs = statement.executeQuery(sql);
@@ -374,7 +376,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 *             * @see java.sql.PreparedStatement#executeUpdate()
 	 */
 	public int executeUpdate() throws SQLException {
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		int ret = 0;
 		try {
 			ret = statement.executeUpdate();
@@ -413,7 +415,7 @@ public class TracePreparedStatement implements PreparedStatement {
 	 */
 	public int executeUpdate(String sql) throws SQLException {
 		this.sqlString.append(sql);
-		long s = System.currentTimeMillis();
+		long s = System.nanoTime();
 		int ret = 0;
 		try {
 			ret = statement.executeUpdate(sql);
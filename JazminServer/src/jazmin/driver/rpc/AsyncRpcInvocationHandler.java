@@ -15,8 +15,9 @@ public class AsyncRpcInvocationHandler extends RpcInvocationHandler {
 	public AsyncRpcInvocationHandler(
 			JazminRpcDriver driver,
 			RpcClient client,
-			List<RpcSession> sessions) {
-		super(driver,client,sessions);
+			List<RpcSession> sessions,
+			LoadBalancer loadBalancer) {
+		super(driver,client,sessions,loadBalancer);
 		asyncCallbackMethod=AsyncCallback.class.getMethods()[0];
 	}
 	//
@@ -40,7 +41,7 @@ public class AsyncRpcInvocationHandler extends RpcInvocationHandler {
 		callback.serviceId=serviceId;
 		callback.callbackMethod=asyncCallbackMethod;
 		callback.beforeCall();
-		client.invokeAsync(session, serviceId, oo,callback);
+		client.invokeAsync(session, serviceId, oo,callback,getTimeout(method));
 		return null;
 	}
 }
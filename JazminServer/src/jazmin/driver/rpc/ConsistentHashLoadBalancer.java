@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * select session by consistent hash of one invoke argument,invokes with same
+ * argument go to same session while it connected.if session disconnected
+ * next session on ring is used.
+ */
+public class ConsistentHashLoadBalancer implements LoadBalancer{
+	private static final int DEFAULT_VIRTUAL_NODE_COUNT=160;
+	//
+	private final int argIndex;
+	private final int virtualNodeCount;
+	private volatile Ring ring;
+	//
+	private static class Ring{
+		RpcSession sessions[];
+		TreeMap<Long,RpcSession>nodes;
+	}
+	//
+	/**
+	 * @param argIndex index of argument used as hash key
+	 */
+	public ConsistentHashLoadBalancer(int argIndex) {
+		this(argIndex,DEFAULT_VIRTUAL_NODE_COUNT);
+	}
+	/**
+	 * @param argIndex index of argument used as hash key
+	 * @param virtualNodeCount virtual node count of each session on ring
+	 */
+	public ConsistentHashLoadBalancer(int argIndex,int virtualNodeCount) {
+		if(argIndex<0){
+			throw new IllegalArgumentException("argIndex must >=0");
+		}
+		if(virtualNodeCount<=0){
+			throw new IllegalArgumentException("virtualNodeCount must >0");
+		}
+		this.argIndex=argIndex;
+		this.virtualNodeCount=virtualNodeCount;
+	}
+	//
+	@Override
+	public RpcSession select(RpcSession[] sessions, Method method, Object[] args) {
+		if(sessions.length==0){
+			return null;
+		}
+		Object key=null;
+		if(args!=null&&argIndex<args.length){
+			key=args[argIndex];
+		}
+		TreeMap<Long,RpcSession>nodes=getRing(sessions).nodes;
+		long hash=hash(String.valueOf(key));
+		for(RpcSession session:nodes.tailMap(hash).values()){
+			if(session.isConnected()){
+				return session;
+			}
+		}
+		for(Map.Entry<Long,RpcSession>e:nodes.entrySet()){
+			if(e.getKey()>=hash){
+				break;
+			}
+			if(e.getValue().isConnected()){
+				return e.getValue();
+			}
+		}
+		return null;
+	}
+	//
+	private Ring getRing(RpcSession[] sessions){
+		Ring r=ring;
+		if(r!=null&&sameSessions(r.sessions,sessions)){
+			return r;
+		}
+		r=new Ring();
+		r.sessions=sessions.clone();
+		r.nodes=new TreeMap<>();
+		for(RpcSession session:sessions){
+			String name=session.getRemoteHostAddress()+":"+session.getRemotePort();
+			for(int i=0;i<virtualNodeCount;i++){
+				r.nodes.put(hash(name+"#"+i),session);
+			}
+		}
+		ring=r;
+		return r;
+	}
+	//
+	private static boolean sameSessions(RpcSession a[],RpcSession b[]){
+		if(a.length!=b.length){
+			return false;
+		}
+		for(int i=0;i<a.length;i++){
+			if(a[i]!=b[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	//fnv-1a with murmur3 finalizer
+	private static long hash(String s){
+		long h=0xcbf29ce484222325L;
+		for(int i=0;i<s.length();i++){
+			h^=s.charAt(i);
+			h*=0x100000001b3L;
+		}
+		h^=h>>>33;
+		h*=0xff51afd7ed558ccdL;
+		h^=h>>>33;
+		h*=0xc4ceb9fe1a85ec53L;
+		h^=h>>>33;
+		return h;
+	}
+	//
+	@Override
+	public String toString() {
+		return "ConsistentHash[arg"+argIndex+"]";
+	}
+}
@@ -10,13 +10,17 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -31,6 +35,7 @@ import jazmin.misc.InfoBuilder;
 import jazmin.misc.io.InvokeStat;
 import jazmin.server.console.ConsoleServer;
 import jazmin.server.rpc.RpcClient;
+import jazmin.server.rpc.RpcException;
 import jazmin.server.rpc.RpcMessage;
 import jazmin.server.rpc.RpcSession;
 
@@ -56,6 +61,14 @@ public class JazminRpcDriver extends Driver{
 	private boolean disablePushMessage;
 	private Map<String,InvokeStat>methodStats;
 	private LongAdder totalInvokeCount;
+	private long requestTimeout;
+	private int ioThreadCount;
+	private Map<String,LoadBalancer>loadBalancerMap;
+	//one view per remote server over its connections,load balancers select from them
+	private Map<String,List<RpcSession>>serverSessionMap;
+	private Map<String,RpcSession[]>sessionArrayMap;
+	private Map<RpcSession,RpcSession[]>connectionMap;
+	private int connectionCount;
 	//
 	public static class RemoteServerInfo{
 		public String remoteHostAddress;
@@ -64,6 +77,8 @@ public class JazminRpcDriver extends Driver{
 		public String name;
 		public String credential;
 		public boolean enableSSL;
+		public int weight=1;
+		public int connectionCount;
 	}
 	//
 	public JazminRpcDriver(){
@@ -77,7 +92,13 @@ public class JazminRpcDriver extends Driver{
 		methodStats=new ConcurrentHashMap<String, InvokeStat>();
 		totalInvokeCount=new LongAdder();
 		pushCallbackMethod=PushCallback.class.getMethods()[0];
-		client=new RpcClient();
+		requestTimeout=15000;
+		ioThreadCount=1;
+		loadBalancerMap=new ConcurrentHashMap<String, LoadBalancer>();
+		serverSessionMap=new ConcurrentHashMap<String, List<RpcSession>>();
+		sessionArrayMap=new ConcurrentHashMap<String, RpcSession[]>();
+		connectionMap=new ConcurrentHashMap<RpcSession, RpcSession[]>();
+		connectionCount=1;
 	}
 	/**
 	 * set principal of this rpc driver
@@ -115,7 +136,7 @@ public class JazminRpcDriver extends Driver{
 	}
 	/**
 	 * add remote server using information specified by uri.
-	 * jazmin://credential@host:port/cluster/name
+	 * jazmin://credential@host:port/cluster/name?weight=1&connections=1
 	 * @param url the remote server uri
 	 * @throws MalformedURLException 
 	 */
@@ -135,10 +156,19 @@ public class JazminRpcDriver extends Driver{
 		if(ss.length<3){
 			throw new IllegalArgumentException("can not find cluster or server name");
 		}
-		if(credential==null){
-			addRemoteServer(ss[1],ss[2], host, port,enableSSL);
-		}else{
-			addRemoteServer(ss[1],ss[2],credential,host, port,enableSSL);
+		addRemoteServer(ss[1],ss[2],credential,host, port,enableSSL);
+		String query=u.getQuery();
+		if(query!=null){
+			for(String param:query.split("&")){
+				if(param.startsWith("weight=")){
+					setRemoteServerWeight(ss[1],ss[2],
+							Integer.valueOf(param.substring(7)));
+				}
+				if(param.startsWith("connections=")){
+					setRemoteServerConnectionCount(ss[1],ss[2],
+							Integer.valueOf(param.substring(12)));
+				}
+			}
 		}
 	}
 	/**
@@ -205,19 +235,139 @@ public class JazminRpcDriver extends Driver{
 		}
 		serverList.add(si);
 	}
+	/**
+	 * set load balance weight of remote server,used by WeightedLoadBalancer
+	 * @param cluster the cluster of server
+	 * @param name the name of server
+	 * @param weight the weight,default 1
+	 * @see WeightedLoadBalancer
+	 */
+	public void setRemoteServerWeight(String cluster,String name,int weight){
+		if(isInited()){
+			throw new IllegalArgumentException("set before inited");
+		}
+		if(weight<=0){
+			throw new IllegalArgumentException("weight must >0");
+		}
+		getRemoteServer(cluster, name).weight=weight;
+	}
+	/**
+	 * set connection count to remote server,overrides driver connection count
+	 * @param cluster the cluster of server
+	 * @param name the name of server
+	 * @param connectionCount the connection count
+	 * @see #setConnectionCount(int)
+	 */
+	public void setRemoteServerConnectionCount(String cluster,String name,
+			int connectionCount){
+		if(isInited()){
+			throw new IllegalArgumentException("set before inited");
+		}
+		if(connectionCount<=0){
+			throw new IllegalArgumentException("connectionCount must >0");
+		}
+		getRemoteServer(cluster, name).connectionCount=connectionCount;
+	}
+	//
+	private RemoteServerInfo getRemoteServer(String cluster,String name){
+		List<RemoteServerInfo>serverList=serverInfoMap.get(cluster);
+		if(serverList!=null){
+			for(RemoteServerInfo si:serverList){
+				if(si.name.equals(name)){
+					return si;
+				}
+			}
+		}
+		throw new IllegalArgumentException("can not find server "+cluster+"/"+name);
+	}
+	/**
+	 * return default connection count to each remote server
+	 * @return default connection count to each remote server
+	 */
+	public int getConnectionCount(){
+		return connectionCount;
+	}
+	/**
+	 * set default connection count to each remote server,default 1.
+	 * invoke goes to the connection with least outstanding requests of
+	 * server selected by load balancer,so large responses do not block
+	 * small ones.push messages are received by first connection only.
+	 * @param connectionCount connection count to each remote server
+	 */
+	public void setConnectionCount(int connectionCount){
+		if(isInited()){
+			throw new IllegalArgumentException("set before inited");
+		}
+		if(connectionCount<=0){
+			throw new IllegalArgumentException("connectionCount must >0");
+		}
+		this.connectionCount=connectionCount;
+	}
+	/**
+	 * set load balancer of remote cluster,default is RoundRobinLoadBalancer
+	 * @param cluster the cluster name
+	 * @param loadBalancer the load balancer
+	 * @see LeastInflightLoadBalancer
+	 * @see LeastLatencyLoadBalancer
+	 * @see WeightedLoadBalancer
+	 * @see ConsistentHashLoadBalancer
+	 */
+	public void setLoadBalancer(String cluster,LoadBalancer loadBalancer){
+		if(isInited()){
+			throw new IllegalArgumentException("set before inited");
+		}
+		loadBalancerMap.put(cluster, loadBalancer);
+	}
+	/**
+	 * return load balancer of remote cluster
+	 * @param cluster the cluster name
+	 * @return load balancer of remote cluster
+	 */
+	public LoadBalancer getLoadBalancer(String cluster){
+		return loadBalancerMap.computeIfAbsent(cluster,
+				c->new RoundRobinLoadBalancer());
+	}
 	//
 	private void connectToRemoteServer(RemoteServerInfo serverInfo){
+		if(serverInfo.connectionCount<=0){
+			serverInfo.connectionCount=connectionCount;
+		}
+		RpcSession connections[]=new RpcSession[serverInfo.connectionCount];
+		for(int i=0;i<connections.length;i++){
+			connections[i]=connectToRemoteServer(serverInfo, i);
+			connectionMap.put(connections[i],connections);
+		}
+		RemoteServerSession server=new RemoteServerSession(connections);
+		server.setRemoteHostAddress(serverInfo.remoteHostAddress);
+		server.setRemotePort(serverInfo.remotePort);
+		server.setCluster(serverInfo.cluster);
+		server.setEnableSSL(serverInfo.enableSSL);
+		server.setWeight(serverInfo.weight);
+		server.setPrincipal(principal);
+		serverSessionMap.computeIfAbsent(serverInfo.cluster,
+				c->new ArrayList<RpcSession>()).add(server);
+	}
+	//
+	private RpcSession connectToRemoteServer(RemoteServerInfo serverInfo,int index){
 		RpcSession session=new RpcSession();
 		session.setRemoteHostAddress(serverInfo.remoteHostAddress);
 		session.setRemotePort(serverInfo.remotePort);
 		session.setCluster(serverInfo.cluster);
-		session.setPrincipal(principal);
 		session.setCredential(serverInfo.credential);
-		session.setDisablePushMessage(disablePushMessage);
 		session.setEnableSSL(serverInfo.enableSSL);
-		Set<String>topics=topicMap.get(serverInfo.cluster);
-		if(topics!=null){
-			topics.forEach((topic)->session.subscribe(topic));
+		session.setWeight(serverInfo.weight);
+		if(index==0){
+			session.setPrincipal(principal);
+			session.setDisablePushMessage(disablePushMessage);
+			Set<String>topics=topicMap.get(serverInfo.cluster);
+			if(topics!=null){
+				topics.forEach((topic)->session.subscribe(topic));
+			}
+		}else{
+			//server kick session with same principal,and push message
+			//only received by first connection
+			session.setPrincipal(principal+"#"+index);
+			session.setDisablePushMessage(true);
 		}
 		try {
 			client.connect(session);
@@ -231,6 +381,44 @@ public class JazminRpcDriver extends Driver{
 		}
 		logger.info("create rpc session:"+session);
 		sessionList.add(session);
+		return session;
+	}
+	/**
+	 * return connected connection with least outstanding requests to the 
+	 * remote server selected by load balancer
+	 */
+	RpcSession selectConnection(RpcSession session){
+		if(!(session instanceof RemoteServerSession)){
+			return session;
+		}
+		RpcSession connections[]=((RemoteServerSession)session).getConnections();
+		if(connections.length==1){
+			return connections[0];
+		}
+		//random start so ties are spread over connections
+		int start=ThreadLocalRandom.current().nextInt(connections.length);
+		RpcSession result=connections[0];
+		int inflight=Integer.MAX_VALUE;
+		for(int i=0;i<connections.length;i++){
+			RpcSession s=connections[(start+i)%connections.length];
+			if(s.isConnected()&&s.getInflightCount()<inflight){
+				result=s;
+				inflight=s.getInflightCount();
+			}
+		}
+		return result;
+	}
+	/**
+	 * return connections to same remote server of session
+	 */
+	public List<RpcSession>getConnections(RpcSession session){
+		RpcSession connections[]=(session instanceof RemoteServerSession)?
+				((RemoteServerSession)session).getConnections():
+				connectionMap.get(session);
+		if(connections==null){
+			return Collections.emptyList();
+		}
+		return Arrays.asList(connections);
 	}
 	/**
 	 * set push callback of this driver
@@ -339,7 +527,7 @@ public class JazminRpcDriver extends Driver{
 			return (T) proxyObject;
 		}
 		//
-		List<RpcSession>sessions=sessionMap.get(clusterName);
+		List<RpcSession>sessions=serverSessionMap.get(clusterName);
 		if(sessions==null){
 			throw new IllegalArgumentException("can not find cluster with name:"
 					+clusterName);
@@ -348,9 +536,11 @@ public class JazminRpcDriver extends Driver{
 		InvocationHandler handler=handlerMap.get(clusterName);
 		if(handler==null){
 			if(isAsync){
-				handler=new AsyncRpcInvocationHandler(this,client,sessions);	
+				handler=new AsyncRpcInvocationHandler(this,client,sessions,
+						getLoadBalancer(clusterName));	
 			}else{
-				handler=new SyncRpcInvocationHandler(this,client,sessions);			
+				handler=new SyncRpcInvocationHandler(this,client,sessions,
+						getLoadBalancer(clusterName));			
 			}
 			handlerMap.put(clusterName, handler);
 		}
@@ -400,6 +590,28 @@ public class JazminRpcDriver extends Driver{
 		checkAsyncClassSignature(clazz);
 		return create0(clazz, clusterName, asyncProxyMap,asyncHandlerMap,true);
 	}
+	/**
+	 * invoke service of remote cluster,future is completed in io thread
+	 * with response message,payloads[0] is return value and payloads[1] is
+	 * exception.
+	 * @param cluster the cluster name
+	 * @param serviceId the service id eg. UserService.getUser
+	 * @param args service arguments
+	 * @return future of response message
+	 */
+	public CompletableFuture<RpcMessage> invoke(String cluster,
+			String serviceId,Object ...args){
+		RpcSession sessions[]=sessionArrayMap.get(cluster);
+		if(sessions==null){
+			throw new IllegalArgumentException("can not find cluster with name:"
+					+cluster);
+		}
+		RpcSession session=getLoadBalancer(cluster).select(sessions,null,args);
+		if(session==null){
+			throw new RpcException("no active session for cluster:"+cluster);
+		}
+		return client.invoke(selectConnection(session), serviceId, args);
+	}
 	//--------------------------------------------------------------------------
 	//pub sub
 	/**
@@ -464,14 +676,38 @@ public class JazminRpcDriver extends Driver{
 	 * @return request timeout time in million seconds
 	 */
 	public long getRequestTimeout(){
-		return client.getTimeout();
+		return requestTimeout;
 	}
 	/**
 	 * set  request timeout time in million seconds
 	 * @param timeout request timeout time in million seconds
 	 */
 	public void setRequestTimeout(long timeout){
-		client.setTimeout(timeout);
+		this.requestTimeout=timeout;
+		if(client!=null){
+			client.setTimeout(timeout);
+		}
+	}
+	/**
+	 * return io thread count of rpc client
+	 * @return io thread count of rpc client
+	 */
+	public int getIoThreadCount(){
+		return ioThreadCount;
+	}
+	/**
+	 * set io thread count of rpc client,sessions to remote servers are
+	 * spread over io threads
+	 * @param ioThreadCount io thread count of rpc client
+	 */
+	public void setIoThreadCount(int ioThreadCount){
+		if(isInited()){
+			throw new IllegalArgumentException("set before inited");
+		}
+		if(ioThreadCount<=0){
+			throw new IllegalArgumentException("ioThreadCount must >0");
+		}
+		this.ioThreadCount=ioThreadCount;
 	}
 	//
 	//--------------------------------------------------------------------------
@@ -480,12 +716,17 @@ public class JazminRpcDriver extends Driver{
 		if(principal==null){
 			principal=Jazmin.getServerName();
 		}
-		client=new RpcClient();
+		client=new RpcClient(ioThreadCount);
+		client.setTimeout(requestTimeout);
 		client.setPrincipal(principal);
 		client.setPushMessageCallback(this::handlePushMessage);
 		serverInfoMap.forEach((cluster,serverList)->{
 			serverList.forEach(serverInfo->connectToRemoteServer(serverInfo));
 		});
+		serverSessionMap.forEach((cluster,sessionList)->{
+			sessionArrayMap.put(cluster,
+					sessionList.toArray(new RpcSession[sessionList.size()]));
+		});
 	}
 	//
 	@Override
@@ -522,13 +763,18 @@ public class JazminRpcDriver extends Driver{
 		ib.format("%-30s:%-30s\n");
 		ib.print("pushCallback",pushCallback);
 		ib.print("principal",principal);
+		ib.print("ioThreadCount",ioThreadCount);
+		ib.print("connectionCount",connectionCount);
+		ib.print("requestTimeout",requestTimeout);
 		//
 		ib.section("remote servers");
 		ib.format("%-30s:%-30s\n");
 		for(Entry<String, List<RemoteServerInfo>>e:serverInfoMap.entrySet()){
 			ib.println("cluster:"+e.getKey());
+			ib.print("loadBalancer",getLoadBalancer(e.getKey()));
 			e.getValue().forEach(rs->{
-				ib.print(rs.name,rs.name+"/"+rs.remoteHostAddress+":"+rs.remotePort+" ssl:"+rs.enableSSL);	
+				ib.print(rs.name,rs.name+"/"+rs.remoteHostAddress+":"+rs.remotePort+" ssl:"+rs.enableSSL+" weight:"+rs.weight+
+						" connections:"+rs.connectionCount);	
 			});
 			
 		}
@@ -24,6 +24,7 @@ public class JazminRpcDriverCommand extends ConsoleCommand {
     	addOption("session",false,"show all sessions.",this::showSessions);
     	addOption("stat",false,"show method stat.",this::showMethodStats);
     	addOption("tps",false,"show invoke tps.",this::showInvokeTps);
+    	addOption("lb",false,"show session load balance stat.",this::showLoadBalance);
     	//
     	driver=Jazmin.getDriver(JazminRpcDriver.class);
     }
@@ -43,7 +44,7 @@ public class JazminRpcDriverCommand extends ConsoleCommand {
    
     //
     private void showSessions(String args){
-		String format="%-5s : %-20s %-10 %-20s %-10s %-15s %-10s %-10s %-10s %-10s %-10s %-15s %-10s\n";
+		String format="%-5s : %-20s %-10s %-20s %-10s %-15s %-10s %-10s %-10s %-10s %-10s %-15s %-10s\n";
 		int i=1;
 		List<RpcSession> sessions=driver.getSessions();
 		out.println("total "+sessions.size()+" sessions");
@@ -83,6 +84,36 @@ public class JazminRpcDriverCommand extends ConsoleCommand {
 		};
     }
     //
+    private void showLoadBalance(String args){
+		String format="%-5s : %-20s %-25s %-20s %-15s %-10s %-10s %-10s %-10s %-10s\n";
+		int i=1;
+		List<RpcSession> sessions=driver.getSessions();
+		out.println("total "+sessions.size()+" sessions");
+		out.format(format,"#",
+				"PRINCIPAL",
+				"CLUSTER",
+				"BALANCER",
+				"HOSTADDRESS",
+				"PORT",
+				"CONNECTED",
+				"WEIGHT",
+				"INFLIGHT",
+				"EWMA(ms)");	
+		for(RpcSession s:sessions){
+			out.format(format,
+					i++,
+					s.getPrincipal(),
+					s.getCluster(),
+					driver.getLoadBalancer(s.getCluster()),
+					s.getRemoteHostAddress(),
+					s.getRemotePort(),
+					s.isConnected(),
+					s.getWeight(),
+					s.getInflightCount(),
+					String.format("%.2f",s.getEwmaLatency()));
+		};
+    }
+    //
     private void showMethodStats(String args){
     	String format="%-5s : %-50s %-10s %-10s %-10s %-10s %-10s\n";
 		int i=0;
@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * power of two choices,pick two random connected sessions and select the one
+ * with lower cost.cost is count of outstanding requests.
+ */
+public class LeastInflightLoadBalancer implements LoadBalancer{
+	//
+	@Override
+	public RpcSession select(RpcSession[] sessions, Method method, Object[] args) {
+		int size=sessions.length;
+		if(size==0){
+			return null;
+		}
+		ThreadLocalRandom random=ThreadLocalRandom.current();
+		int a=random.nextInt(size);
+		if(size==1){
+			return sessions[a].isConnected()?sessions[a]:null;
+		}
+		int b=random.nextInt(size-1);
+		if(b>=a){
+			b++;
+		}
+		RpcSession sa=sessions[a];
+		RpcSession sb=sessions[b];
+		if(!sa.isConnected()){
+			return sb.isConnected()?sb:firstConnected(sessions,a);
+		}
+		if(!sb.isConnected()){
+			return sa;
+		}
+		return cost(sb)<cost(sa)?sb:sa;
+	}
+	//
+	protected double cost(RpcSession session){
+		return session.getInflightCount();
+	}
+	//
+	static RpcSession firstConnected(RpcSession[] sessions,int start){
+		int size=sessions.length;
+		for(int i=1;i<size;i++){
+			RpcSession session=sessions[(start+i)%size];
+			if(session.isConnected()){
+				return session;
+			}
+		}
+		return null;
+	}
+	//
+	@Override
+	public String toString() {
+		return "LeastInflight";
+	}
+}
@@ -0,0 +1,24 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * power of two choices on ewma latency,cost is ewma latency multiplied by
+ * outstanding requests plus one,so slow session receives less requests and
+ * session without latency sample is probed first.
+ */
+public class LeastLatencyLoadBalancer extends LeastInflightLoadBalancer{
+	//
+	@Override
+	protected double cost(RpcSession session) {
+		return session.getEwmaLatency()*(session.getInflightCount()+1);
+	}
+	//
+	@Override
+	public String toString() {
+		return "LeastLatency";
+	}
+}
@@ -0,0 +1,22 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import java.lang.reflect.Method;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * select session of remote cluster for each invoke
+ */
+public interface LoadBalancer {
+	/**
+	 * select session to invoke
+	 * @param sessions all sessions of cluster
+	 * @param method the invoked proxy method,null when invoke by service id
+	 * @param args the invoke arguments,may be null
+	 * @return connected session or null if no session connected
+	 */
+	RpcSession select(RpcSession sessions[],Method method,Object args[]);
+}
@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * view of all pooled connections to one remote server,load balancers select
+ * from these views.server is connected if any connection is connected,
+ * inflight count is summed and latency is merged over connections.
+ */
+class RemoteServerSession extends RpcSession{
+	private final RpcSession connections[];
+	//
+	RemoteServerSession(RpcSession connections[]) {
+		this.connections=connections;
+	}
+	//
+	RpcSession[] getConnections(){
+		return connections;
+	}
+	//
+	@Override
+	public boolean isConnected() {
+		for(RpcSession s:connections){
+			if(s.isConnected()){
+				return true;
+			}
+		}
+		return false;
+	}
+	//
+	@Override
+	public int getInflightCount() {
+		int count=0;
+		for(RpcSession s:connections){
+			count+=s.getInflightCount();
+		}
+		return count;
+	}
+	/**
+	 * average latency of connections which have latency samples
+	 */
+	@Override
+	public double getEwmaLatency() {
+		double total=0;
+		int n=0;
+		for(RpcSession s:connections){
+			double latency=s.getEwmaLatency();
+			if(latency>0){
+				total+=latency;
+				n++;
+			}
+		}
+		return n==0?0:total/n;
+	}
+	//
+	@Override
+	public String toString() {
+		return "[RemoteServer]"+getPrincipal()+"/"+getRemoteHostAddress()+":"+
+				getRemotePort()+"/connections:"+connections.length;
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * select connected sessions in turn,default load balancer
+ */
+public class RoundRobinLoadBalancer implements LoadBalancer{
+	private AtomicInteger invokeCounter=new AtomicInteger();
+	//
+	@Override
+	public RpcSession select(RpcSession[] sessions, Method method, Object[] args) {
+		int size=sessions.length;
+		int start=invokeCounter.getAndIncrement();
+		for(int i=0;i<size;i++){
+			RpcSession session=sessions[Math.abs((start+i)%size)];
+			if(session.isConnected()){
+				return session;
+			}
+		}
+		return null;
+	}
+	//
+	@Override
+	public String toString() {
+		return "RoundRobin";
+	}
+}
@@ -3,12 +3,15 @@ package jazmin.driver.rpc;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.server.rpc.RpcClient;
 import jazmin.server.rpc.RpcException;
 import jazmin.server.rpc.RpcSession;
+import jazmin.server.rpc.RpcTimeout;
 /**
  * 
  * @author yama
@@ -17,21 +20,35 @@ import jazmin.server.rpc.RpcSession;
 public abstract class RpcInvocationHandler implements InvocationHandler {
 	private static Logger logger=LoggerFactory.get(RpcInvocationHandler.class);
 	//
-	private int invokeCounter;
 	private RpcSession[]sessions;
-	private int sessionCount;
+	private LoadBalancer loadBalancer;
 	protected RpcClient client;
 	protected JazminRpcDriver driver;
+	private Map<Method,Long>timeoutMap;
 	//
 	public RpcInvocationHandler(
 			JazminRpcDriver driver,
 			RpcClient client,
-			List<RpcSession> sessionList) {
+			List<RpcSession> sessionList,
+			LoadBalancer loadBalancer) {
 		this.client=client;
 		this.driver=driver;
+		this.loadBalancer=loadBalancer;
 		sessions=sessionList.toArray(new RpcSession[sessionList.size()]);
-		invokeCounter=0;
-		sessionCount=sessions.length;
+		timeoutMap=new ConcurrentHashMap<>();
+	}
+	/**
+	 * request timeout of method,value of RpcTimeout annotation or 
+	 * client default timeout
+	 */
+	protected long getTimeout(Method method){
+		Long timeout=timeoutMap.get(method);
+		if(timeout==null){
+			RpcTimeout rt=method.getAnnotation(RpcTimeout.class);
+			timeout=(rt==null||rt.value()<=0)?0L:rt.value();
+			timeoutMap.put(method,timeout);
+		}
+		return timeout>0?timeout:client.getTimeout();
 	}
 	/**
 	 * 
@@ -39,20 +56,10 @@ public abstract class RpcInvocationHandler implements InvocationHandler {
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args)
 			throws Throwable {
-		//
-		int idx=Math.abs(invokeCounter++%sessionCount);
-		RpcSession session = sessions[idx];
-		if(!session.isConnected()){
-			//find next active session
-			for(int i=0;i<sessionCount;i++){
-				session=sessions[i];
-				if(session.isConnected()){
-					break;
-				}
-			}
-		}
+		RpcSession session=loadBalancer.select(sessions,method,args);
 		//if all session deactive throw exception.
-		if(!session.isConnected()){
+		if(session==null){
+			session=sessions[0];
 			logger.warn("no active session for connection.{}:{}",
 					session.getRemoteHostAddress(),
 					session.getRemotePort());
@@ -60,7 +67,7 @@ public abstract class RpcInvocationHandler implements InvocationHandler {
 					session.getRemoteHostAddress()+":"+
 					session.getRemotePort());
 		}
-		return invoke0(session,proxy,method,args);
+		return invoke0(driver.selectConnection(session),proxy,method,args);
 	}
 	/**
 	 * 调用rpcclient发送消息
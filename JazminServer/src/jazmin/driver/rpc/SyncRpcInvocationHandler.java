@@ -22,8 +22,9 @@ public class SyncRpcInvocationHandler extends RpcInvocationHandler {
 	public SyncRpcInvocationHandler(
 			JazminRpcDriver driver,
 			RpcClient client,
-			List<RpcSession> sessions) {
-		super(driver,client,sessions);
+			List<RpcSession> sessions,
+			LoadBalancer loadBalancer) {
+		super(driver,client,sessions,loadBalancer);
 	}
 	//
 	@Override
@@ -37,7 +38,8 @@ public class SyncRpcInvocationHandler extends RpcInvocationHandler {
 		if(logger.isDebugEnabled()){
 			logger.debug(">invoke {}",serviceId);
 		}
-		RpcMessage msg=client.invokeSync(session, serviceId, args);
+		RpcMessage msg=client.invokeSync(session, serviceId, args,
+				getTimeout(method));
 		if(msg==null){
 			return null;
 		}
@@ -0,0 +1,48 @@
+/**
+ * 
+ */
+package jazmin.driver.rpc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * select connected session randomly in proportion to session weight,each
+ * connection to remote server carries weight of the server
+ * @see RpcSession#setWeight(int)
+ */
+public class WeightedLoadBalancer implements LoadBalancer{
+	//
+	@Override
+	public RpcSession select(RpcSession[] sessions, Method method, Object[] args) {
+		int totalWeight=0;
+		for(RpcSession session:sessions){
+			if(session.isConnected()){
+				totalWeight+=session.getWeight();
+			}
+		}
+		if(totalWeight==0){
+			return null;
+		}
+		int r=ThreadLocalRandom.current().nextInt(totalWeight);
+		RpcSession last=null;
+		for(RpcSession session:sessions){
+			if(session.isConnected()){
+				last=session;
+				r-=session.getWeight();
+				if(r<0){
+					return session;
+				}
+			}
+		}
+		//session disconnected while selecting
+		return last;
+	}
+	//
+	@Override
+	public String toString() {
+		return "Weighted";
+	}
+}
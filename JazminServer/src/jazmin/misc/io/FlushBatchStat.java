@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package jazmin.misc.io;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * count of messages written per flush.batch size distribution is kept in
+ * power of 2 buckets:1,2,3-4,5-8,9-16,17-32,33+
+ */
+public class FlushBatchStat {
+	public static final int BUCKET_COUNT=7;
+	//
+	public LongAdder flushCount;
+	public LongAdder messageCount;
+	public LongAccumulator maxBatchSize;
+	private LongAdder buckets[];
+	//
+	public FlushBatchStat() {
+		flushCount=new LongAdder();
+		messageCount=new LongAdder();
+		maxBatchSize=new LongAccumulator(Math::max,0);
+		buckets=new LongAdder[BUCKET_COUNT];
+		for(int i=0;i<BUCKET_COUNT;i++){
+			buckets[i]=new LongAdder();
+		}
+	}
+	//
+	public void flush(int batchSize){
+		if(batchSize<=0){
+			return;
+		}
+		flushCount.increment();
+		messageCount.add(batchSize);
+		maxBatchSize.accumulate(batchSize);
+		int idx=32-Integer.numberOfLeadingZeros(batchSize-1);
+		buckets[Math.min(idx,BUCKET_COUNT-1)].increment();
+	}
+	//
+	public double avgBatchSize(){
+		long flush=flushCount.longValue();
+		if(flush==0){
+			return 0;
+		}
+		return (double)messageCount.longValue()/flush;
+	}
+	/**
+	 * @return flush count of batch size bucket
+	 */
+	public long getBucketCount(int bucket){
+		return buckets[bucket].longValue();
+	}
+	/**
+	 * @return label of batch size bucket eg. 3-4
+	 */
+	public static String getBucketLabel(int bucket){
+		if(bucket==0){
+			return "1";
+		}
+		if(bucket==1){
+			return "2";
+		}
+		if(bucket==BUCKET_COUNT-1){
+			return ((1<<(bucket-1))+1)+"+";
+		}
+		return ((1<<(bucket-1))+1)+"-"+(1<<bucket);
+	}
+}
@@ -1,8 +1,9 @@
 /**
- * 
+ *
  */
 package jazmin.misc.io;
 
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
@@ -13,48 +14,56 @@ public class InvokeStat implements Comparable<InvokeStat>{
 	public String name;
 	public LongAdder invokeCount=new LongAdder();
 	public LongAdder errorCount=new LongAdder();
-	
-	public LongAdder minRunTime=new LongAdder();
-	public LongAdder maxRunTime=new LongAdder();
+
+	public LongAccumulator minRunTime=new LongAccumulator(Math::min,Integer.MAX_VALUE);
+	public LongAccumulator maxRunTime=new LongAccumulator(Math::max,0);
 	public LongAdder totalRunTime=new LongAdder();
 	//
-	public LongAdder minFullTime=new LongAdder();
-	public LongAdder maxFullTime=new LongAdder();
+	public LongAccumulator minFullTime=new LongAccumulator(Math::min,Integer.MAX_VALUE);
+	public LongAccumulator maxFullTime=new LongAccumulator(Math::max,0);
 	public LongAdder totalFullTime=new LongAdder();
 	//
-	
+	public final LatencyHistogram runTimeHistogram;
+	public final LatencyHistogram fullTimeHistogram;
 	//
 	public InvokeStat() {
-		minRunTime.add(Integer.MAX_VALUE);
-		minFullTime.add(Integer.MAX_VALUE);
+		this(LatencyHistogram.DEFAULT_SUB_BUCKET_BITS);
 	}
-	//
+	/**
+	 * @param subBucketBits histogram precision,see LatencyHistogram
+	 */
+	public InvokeStat(int subBucketBits) {
+		runTimeHistogram=new LatencyHistogram(subBucketBits,1);
+		fullTimeHistogram=new LatencyHistogram(subBucketBits,1);
+	}
+	/**
+	 * record invoke with time in milliseconds
+	 */
 	public void invoke(boolean error,int runTime,int fullTime){
+		invokeNanos(error, runTime*1000000L, fullTime*1000000L);
+	}
+	/**
+	 * record invoke with time in nanoseconds
+	 */
+	public void invokeNanos(boolean error,long runNanos,long fullNanos){
 		invokeCount.increment();
 		if(error){
 			errorCount.increment();
 		}
-		if(minRunTime.intValue()>runTime){
-			minRunTime.reset();
-			minRunTime.add(runTime);
-		}
-		if(maxRunTime.intValue()<runTime){
-			maxRunTime.reset();
-			maxRunTime.add(runTime);
-		}
+		runTimeHistogram.record(runNanos);
+		fullTimeHistogram.record(fullNanos);
+		//
+		long runTime=runNanos/1000000;
+		minRunTime.accumulate(runTime);
+		maxRunTime.accumulate(runTime);
 		totalRunTime.add(runTime);
 		if(totalRunTime.longValue()<0){
 			totalRunTime.reset();
 		}
 		//
-		if(minFullTime.intValue()>fullTime){
-			minFullTime.reset();
-			minFullTime.add(fullTime);
-		}
-		if(maxFullTime.intValue()<fullTime){
-			maxFullTime.reset();
-			maxFullTime.add(fullTime);
-		}
+		long fullTime=fullNanos/1000000;
+		minFullTime.accumulate(fullTime);
+		maxFullTime.accumulate(fullTime);
 		totalFullTime.add(fullTime);
 		if(totalFullTime.longValue()<0){
 			totalFullTime.reset();
@@ -75,6 +84,20 @@ public class InvokeStat implements Comparable<InvokeStat>{
 		}
 		return totalFullTime.intValue()/invokeCount.intValue();
 	}
+	/**
+	 * return full time at percentile in milliseconds since created
+	 * @param percentile 0-100,eg 99.9
+	 */
+	public double fullTimePercentile(double percentile){
+		return fullTimeHistogram.snapshot().getMillisAtPercentile(percentile);
+	}
+	/**
+	 * return run time at percentile in milliseconds since created
+	 * @param percentile 0-100,eg 99.9
+	 */
+	public double runTimePercentile(double percentile){
+		return runTimeHistogram.snapshot().getMillisAtPercentile(percentile);
+	}
 	//
 	/**
 	 * @param anotherString
@@ -84,5 +107,5 @@ public class InvokeStat implements Comparable<InvokeStat>{
 	public int compareTo(InvokeStat ms) {
 		return name.compareTo(ms.name);
 	}
-	
+
 }
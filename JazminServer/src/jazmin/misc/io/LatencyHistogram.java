@@ -0,0 +1,214 @@
+/**
+ *
+ */
+package jazmin.misc.io;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * lock free log bucketed latency histogram in nanoseconds.
+ * every power of 2 range is split into 2^subBucketBits linear sub buckets
+ * so relative error of percentiles is under 1/2^subBucketBits(1/16 by 
+ * default,1/4 for COMPACT_SUB_BUCKET_BITS).last bucket ends at 2^37-1 ns
+ * (about 137 seconds),larger values are counted in it,max value is always
+ * exact.counts can be spread over several stripes to reduce contention 
+ * when histogram is shared by many threads.
+ */
+public class LatencyHistogram {
+	public static final int DEFAULT_SUB_BUCKET_BITS=4;
+	/**
+	 * 4 sub buckets,relative error under 1/4,about 1KB per histogram
+	 */
+	public static final int COMPACT_SUB_BUCKET_BITS=2;
+	private static final int MAX_EXP=36;
+	//
+	private final int subBucketBits;
+	private final int bucketCount;
+	private final int stripeMask;
+	private final AtomicLongArray counts;
+	private final LongAdder totalCount;
+	private final LongAdder totalValue;
+	private final LongAccumulator maxValue;
+	//
+	public LatencyHistogram() {
+		this(DEFAULT_SUB_BUCKET_BITS,1);
+	}
+	/**
+	 * @param subBucketBits log2 of linear sub buckets in every power of 2 range
+	 * @param stripes count stripes,rounded up to power of 2
+	 */
+	public LatencyHistogram(int subBucketBits,int stripes) {
+		if(subBucketBits<1||subBucketBits>8){
+			throw new IllegalArgumentException("subBucketBits must in [1,8]");
+		}
+		if(stripes<1){
+			throw new IllegalArgumentException("stripes must >0");
+		}
+		this.subBucketBits=subBucketBits;
+		bucketCount=bucketCount(subBucketBits);
+		int stripeCount=Integer.highestOneBit(stripes-1)<<1;
+		if(stripes==1){
+			stripeCount=1;
+		}
+		stripeMask=stripeCount-1;
+		counts=new AtomicLongArray(bucketCount*stripeCount);
+		totalCount=new LongAdder();
+		totalValue=new LongAdder();
+		maxValue=new LongAccumulator(Math::max,0);
+	}
+	//
+	static int bucketCount(int subBucketBits){
+		int subBucketCount=1<<subBucketBits;
+		return subBucketCount+(MAX_EXP-subBucketBits+1)*subBucketCount;
+	}
+	//
+	static int bucketIndex(int subBucketBits,long value){
+		int subBucketCount=1<<subBucketBits;
+		if(value<subBucketCount){
+			return value<0?0:(int)value;
+		}
+		int exp=63-Long.numberOfLeadingZeros(value);
+		if(exp>MAX_EXP){
+			return bucketCount(subBucketBits)-1;
+		}
+		int shift=exp-subBucketBits;
+		int sub=(int)(value>>>shift)-subBucketCount;
+		return subBucketCount+shift*subBucketCount+sub;
+	}
+	//
+	static long bucketUpperBound(int subBucketBits,int index){
+		int subBucketCount=1<<subBucketBits;
+		if(index<subBucketCount){
+			return index;
+		}
+		int shift=(index-subBucketCount)/subBucketCount;
+		long sub=(index-subBucketCount)%subBucketCount+subBucketCount;
+		return ((sub+1)<<shift)-1;
+	}
+	/**
+	 * record one latency value in nanoseconds
+	 */
+	public void record(long nanos){
+		int stripe=(int)Thread.currentThread().getId()&stripeMask;
+		counts.incrementAndGet(stripe*bucketCount+bucketIndex(subBucketBits,nanos));
+		totalCount.increment();
+		totalValue.add(nanos);
+		maxValue.accumulate(nanos);
+	}
+	//
+	public long getTotalCount(){
+		return totalCount.longValue();
+	}
+	//
+	public long getMaxValue(){
+		return maxValue.get();
+	}
+	//
+	public void reset(){
+		synchronized (this) {
+			for(int i=0;i<counts.length();i++){
+				counts.set(i, 0);
+			}
+			totalCount.reset();
+			totalValue.reset();
+			maxValue.reset();
+		}
+	}
+	/**
+	 * snapshot of all values recorded since created or reset
+	 */
+	public Snapshot snapshot(){
+		long c[]=new long[bucketCount];
+		for(int i=0;i<counts.length();i++){
+			c[i%bucketCount]+=counts.get(i);
+		}
+		return new Snapshot(subBucketBits,c,totalValue.longValue(),maxValue.get());
+	}
+	//
+	/**
+	 * immutable view of histogram counts
+	 */
+	public static class Snapshot{
+		private final int subBucketBits;
+		private final long counts[];
+		private final long count;
+		private final long totalValue;
+		private final long maxValue;
+		//
+		Snapshot(int subBucketBits,long counts[],long totalValue,long maxValue){
+			this.subBucketBits=subBucketBits;
+			this.counts=counts;
+			long n=0;
+			int highest=-1;
+			for(int i=0;i<counts.length;i++){
+				if(counts[i]>0){
+					n+=counts[i];
+					highest=i;
+				}
+			}
+			this.count=n;
+			this.totalValue=totalValue;
+			//interval max is upper bound of highest bucket
+			long max=highest<0?0:bucketUpperBound(subBucketBits,highest);
+			this.maxValue=Math.min(max, maxValue);
+		}
+		/**
+		 * return snapshot of values recorded between earlier snapshot and 
+		 * this one,used to get interval percentiles.
+		 */
+		public Snapshot since(Snapshot earlier){
+			if(earlier==null||earlier.counts.length!=counts.length){
+				return this;
+			}
+			long c[]=new long[counts.length];
+			for(int i=0;i<c.length;i++){
+				c[i]=Math.max(0,counts[i]-earlier.counts[i]);
+			}
+			return new Snapshot(subBucketBits,c,totalValue-earlier.totalValue,maxValue);
+		}
+		//
+		public long getCount(){
+			return count;
+		}
+		//
+		public long getMaxValue(){
+			return maxValue;
+		}
+		//
+		public double getMean(){
+			if(count==0){
+				return 0;
+			}
+			return (double)totalValue/count;
+		}
+		/**
+		 * return value at percentile in nanoseconds
+		 * @param percentile 0-100,eg 99.9
+		 */
+		public long getValueAtPercentile(double percentile){
+			if(count==0){
+				return 0;
+			}
+			long target=(long)Math.ceil(count*percentile/100.0);
+			if(target<1){
+				target=1;
+			}
+			long n=0;
+			for(int i=0;i<counts.length;i++){
+				n+=counts[i];
+				if(n>=target){
+					return Math.min(bucketUpperBound(subBucketBits,i),maxValue);
+				}
+			}
+			return maxValue;
+		}
+		/**
+		 * return value at percentile in milliseconds
+		 */
+		public double getMillisAtPercentile(double percentile){
+			return getValueAtPercentile(percentile)/1000000.0;
+		}
+	}
+}
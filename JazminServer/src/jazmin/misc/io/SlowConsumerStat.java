@@ -0,0 +1,24 @@
+/**
+ * 
+ */
+package jazmin.misc.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * count of push messages held,dropped,coalesced and sessions kicked because
+ * of slow consumer policy
+ */
+public class SlowConsumerStat {
+	public LongAdder queuedCount;
+	public LongAdder droppedCount;
+	public LongAdder coalescedCount;
+	public LongAdder kickedCount;
+	//
+	public SlowConsumerStat() {
+		queuedCount=new LongAdder();
+		droppedCount=new LongAdder();
+		coalescedCount=new LongAdder();
+		kickedCount=new LongAdder();
+	}
+}
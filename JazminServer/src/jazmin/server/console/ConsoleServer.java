@@ -10,10 +10,10 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.sshd.common.config.keys.KeyUtils;
 import org.apache.sshd.server.SshServer;
@@ -59,7 +59,7 @@ public class ConsoleServer extends Server{
 	int port=2222;
 	SshServer sshServer;
 	Authenticator authenticator;
-	Map<String,ConsoleCommand>commands=new HashMap<String, ConsoleCommand>();
+	Map<String,ConsoleCommand>commands=new ConcurrentHashMap<String, ConsoleCommand>();
 	LinkedList<String>commandHistory=new LinkedList<String>();
 	int maxCommandHistory;
 	SimplePasswordAuthenticator defaultAuthenticator;
@@ -200,7 +200,7 @@ public class ConsoleServer extends Server{
 		} 
 	}
 	//
-	private void registerCommand(ConsoleCommand cmd){
+	private synchronized void registerCommand(ConsoleCommand cmd){
 		if(commands.containsKey(cmd.getId())){
 			throw new IllegalArgumentException("cmd :"+cmd.getId()+" already exists.");
 		}
@@ -17,6 +17,7 @@ import jazmin.core.thread.PerformanceLog;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.InvokeStat;
+import jazmin.misc.io.LatencyHistogram;
 import jazmin.server.console.ascii.AsciiChart;
 import jazmin.server.console.ascii.FormPrinter;
 import jazmin.server.console.ascii.TablePrinter;
@@ -46,6 +47,7 @@ public class JazminCommand extends ConsoleCommand {
 
     	addOption("pool_info",false,"show thread pool info",this::showThreadPoolInfo);  	
     	addOption("pool_stat",false,"show method stats",this::showThreadPoolStats);  	
+    	addOption("pool_pct",false,"show method latency percentiles",this::showThreadPoolPercentiles);  	
     	addOption("pool_log_chart",false,"show thread pool log",this::showThreadPoolLogChart); 
     	addOption("pool_log",false,"show thread pool log",this::showThreadPoolLog); 
     	addOption("pool_db",false,"show thread pool dashboard",this::showThreadPoolDashboard); 
@@ -53,6 +55,7 @@ public class JazminCommand extends ConsoleCommand {
     	addOption("pool_reset",false,"reset method stats",this::resetThreadPoolStats); 
     	addOption("pool_coresize",true,"set core pool size",this::setCorePoolSize); 
     	addOption("pool_maxsize",true,"set max pool size",this::setMaxPoolSize); 
+    	addOption("pool_trace",false,"show trace id of running workers",this::showThreadPoolTraces); 
     	
     	addOption("dump",false,"dump servers and drivers",this::dump); 
         
@@ -100,15 +103,19 @@ public class JazminCommand extends ConsoleCommand {
     //
     private void showJobs(String args)throws Exception{
     	TablePrinter tp=TablePrinter.create(out).
-    			length(50,20,15,15,10).
-    			headers("NAME","CRON","LAST RUN","NEXT RUN","RUNTIMES");  	
+    			length(50,20,15,15,10,10,10,10).
+    			headers("NAME","CRON","LAST RUN","NEXT RUN","RUNTIMES",
+    					"OVERLAP","P99LATE","P99TIME");  	
     	List<JazminJob>jobs=Jazmin.jobStore.getJobs();
 		for(JazminJob job:jobs){
 			tp.print(job.id,
 					job.cron,
 					formatDate(job.lastRunTime()),
 					formatDate(job.nextRunTime()),
-					job.runTimes);
+					job.runTimes,
+					job.getOverlapCount(),
+					formatMillis(job.getLateHistogram().snapshot().getMillisAtPercentile(99)),
+					formatMillis(job.getDurationHistogram().snapshot().getMillisAtPercentile(99)));
 		};
     }
     //
@@ -196,6 +203,17 @@ public class JazminCommand extends ConsoleCommand {
 		
     }
     //
+    private void showThreadPoolTraces(String args){
+    	if(!Jazmin.dispatcher.isLowAllocationMode()){
+    		out.println("trace id is part of thread name when low allocation mode off");
+    		return;
+    	}
+    	TablePrinter tp=TablePrinter.create(out).
+    			length(30,50).
+    			headers("THREAD","TRACEID");
+    	Jazmin.dispatcher.getRunningTraceIds().forEach(tp::print);
+    }
+    //
     private void resetThreadPoolStats(String args){
     	Jazmin.dispatcher.resetInvokeStats();
     	out.println("reset thread pool method stats done");
@@ -221,14 +239,45 @@ public class JazminCommand extends ConsoleCommand {
 		};
     }
     //
+    private void showThreadPoolPercentiles(String args){
+    	TablePrinter tp=TablePrinter.create(out).
+    			length(50,10,10,10,10,10,10,10).
+    			headers("NAME","IVC","P50-F","P90-F","P99-F","P999-F","MAX-F","P99-R");  	
+    	List<InvokeStat>stats=Jazmin.dispatcher.getInvokeStats();
+		Collections.sort(stats);
+		for(InvokeStat stat:stats){
+			LatencyHistogram.Snapshot full=stat.fullTimeHistogram.snapshot();
+			LatencyHistogram.Snapshot run=stat.runTimeHistogram.snapshot();
+			tp.print(
+					stat.name,
+					stat.invokeCount,
+					formatMillis(full.getMillisAtPercentile(50)),
+					formatMillis(full.getMillisAtPercentile(90)),
+					formatMillis(full.getMillisAtPercentile(99)),
+					formatMillis(full.getMillisAtPercentile(99.9)),
+					formatMillis(full.getMaxValue()/1000000.0),
+					formatMillis(run.getMillisAtPercentile(99)));
+		};
+		LatencyHistogram.Snapshot all=Jazmin.dispatcher.getFullTimeHistogram().snapshot();
+		out.println("all methods full time ms p50:"+formatMillis(all.getMillisAtPercentile(50))+
+				" p99:"+formatMillis(all.getMillisAtPercentile(99))+
+				" p999:"+formatMillis(all.getMillisAtPercentile(99.9)));
+    }
+    //
+    private static String formatMillis(double ms){
+    	return String.format("%.2f", ms);
+    }
+    //
     private void showThreadPoolLog(String args){
     	TablePrinter tp=TablePrinter.create(out).
-    			length(15,15,15,15,15,15,15,15).
+    			length(15,15,15,15,15,15,15,15,15,15).
     			headers("TIME",
     					"POOLSIZE",
     					"QUEUESIZE",
     					"AVGFULLTIME",
     					"AVGRUNTIME",
+    					"P99FULLTIME",
+    					"P999FULLTIME",
     					"REJECTED",
     					"INVOKE",
     					"SUBMIT");
@@ -239,6 +288,8 @@ public class JazminCommand extends ConsoleCommand {
         			log.queueSize,
         			String.format("%.2f", log.avgFullTime),
         			String.format("%.2f", log.avgRunTime),
+        			String.format("%.2f", log.p99FullTime),
+        			String.format("%.2f", log.p999FullTime),
         			log.rejectedCount,
         			log.invokeCount,
         			log.submitCount);
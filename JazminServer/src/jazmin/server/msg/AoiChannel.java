@@ -0,0 +1,255 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * channel with area of interest.sessions carry a 2d position and are
+ * indexed in square grid cells,broadcast to a position only visits cells
+ * overlapping the radius so fan-out is O(nearby) instead of O(channel).
+ * sessions added without position receive channel wide broadcast only.
+ */
+public class AoiChannel extends Channel{
+	//
+	private static class Entry{
+		Session session;
+		double x;
+		double y;
+		long cell;
+		int index;
+	}
+	//
+	private final double cellSize;
+	private final Map<String,Entry>entries;
+	private final Map<Long,ArrayList<Entry>>cells;
+	//
+	AoiChannel(MessageServer messageServer, String id,double cellSize) {
+		super(messageServer, id);
+		if(cellSize<=0){
+			throw new IllegalArgumentException("cellSize must >0");
+		}
+		this.cellSize=cellSize;
+		this.entries=new HashMap<>();
+		this.cells=new HashMap<>();
+	}
+	//
+	private long cellKey(double x,double y){
+		return cellKey((int)Math.floor(x/cellSize),(int)Math.floor(y/cellSize));
+	}
+	//
+	private static long cellKey(int cx,int cy){
+		return ((long)cx<<32)|(cy&0xffffffffL);
+	}
+	//
+	private void addToCell(Entry e){
+		ArrayList<Entry>cell=cells.get(e.cell);
+		if(cell==null){
+			cell=new ArrayList<>();
+			cells.put(e.cell,cell);
+		}
+		e.index=cell.size();
+		cell.add(e);
+	}
+	//
+	private void removeFromCell(Entry e){
+		ArrayList<Entry>cell=cells.get(e.cell);
+		int last=cell.size()-1;
+		if(e.index!=last){
+			Entry moved=cell.get(last);
+			cell.set(e.index,moved);
+			moved.index=e.index;
+		}
+		cell.remove(last);
+		if(cell.isEmpty()){
+			cells.remove(e.cell);
+		}
+	}
+	//--------------------------------------------------------------------------
+	/**
+	 * @return cell size of grid
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+	/**
+	 * @return count of non empty cells
+	 */
+	public synchronized int getCellCount(){
+		return cells.size();
+	}
+	/**
+	 * add session to this channel at position
+	 */
+	public void addSession(Session session,double x,double y){
+		addSession(session);
+		move(session,x,y);
+	}
+	/**
+	 * update position of session,cell membership changes only when session
+	 * crosses cell border
+	 */
+	public synchronized void move(Session session,double x,double y){
+		if(sessions.get(session.principal)!=session){
+			throw new IllegalArgumentException("session not in channel:"+
+					session.principal);
+		}
+		Entry e=entries.get(session.principal);
+		long cell=cellKey(x, y);
+		if(e==null||e.session!=session){
+			if(e!=null){
+				removeFromCell(e);
+			}
+			e=new Entry();
+			e.session=session;
+			e.x=x;
+			e.y=y;
+			e.cell=cell;
+			entries.put(session.principal,e);
+			addToCell(e);
+			return;
+		}
+		e.x=x;
+		e.y=y;
+		if(e.cell!=cell){
+			removeFromCell(e);
+			e.cell=cell;
+			addToCell(e);
+		}
+	}
+	/**
+	 * @return position {x,y} of session or null if session has no position
+	 */
+	public synchronized double[] getPosition(String principal){
+		Entry e=entries.get(principal);
+		return e==null?null:new double[]{e.x,e.y};
+	}
+	//
+	private synchronized void removePosition(Session session){
+		Entry e=entries.get(session.principal);
+		if(e!=null&&e.session==session){
+			entries.remove(session.principal);
+			removeFromCell(e);
+		}
+	}
+	//
+	@Override
+	public Session removeSession(String principal) {
+		Session s=super.removeSession(principal);
+		if(s!=null){
+			removePosition(s);
+		}
+		return s;
+	}
+	//
+	@Override
+	public void removeSession(Session session) {
+		super.removeSession(session);
+		removePosition(session);
+	}
+	//
+	@Override
+	public List<Session> removeAllSessions() {
+		List<Session>result=super.removeAllSessions();
+		synchronized (this) {
+			entries.clear();
+			cells.clear();
+		}
+		return result;
+	}
+	/**
+	 * @return sessions within radius of position
+	 */
+	public synchronized List<Session>getSessions(double x,double y,double radius){
+		List<Session>result=new ArrayList<>();
+		int minX=(int)Math.floor((x-radius)/cellSize);
+		int maxX=(int)Math.floor((x+radius)/cellSize);
+		int minY=(int)Math.floor((y-radius)/cellSize);
+		int maxY=(int)Math.floor((y+radius)/cellSize);
+		double r2=radius*radius;
+		long boxCellCount=((long)maxX-minX+1)*((long)maxY-minY+1);
+		if(boxCellCount>cells.size()){
+			//large radius,visit non empty cells instead of every cell in box
+			for(Map.Entry<Long,ArrayList<Entry>>ce:cells.entrySet()){
+				long key=ce.getKey();
+				int cx=(int)(key>>32);
+				int cy=(int)key;
+				if(cx>=minX&&cx<=maxX&&cy>=minY&&cy<=maxY){
+					addInRadius(ce.getValue(),x,y,r2,result);
+				}
+			}
+			return result;
+		}
+		for(int cx=minX;cx<=maxX;cx++){
+			for(int cy=minY;cy<=maxY;cy++){
+				ArrayList<Entry>cell=cells.get(cellKey(cx, cy));
+				if(cell!=null){
+					addInRadius(cell,x,y,r2,result);
+				}
+			}
+		}
+		return result;
+	}
+	//
+	private static void addInRadius(ArrayList<Entry>cell,double x,double y,
+			double r2,List<Session>result){
+		for(int i=0;i<cell.size();i++){
+			Entry e=cell.get(i);
+			double dx=e.x-x;
+			double dy=e.y-y;
+			if(dx*dx+dy*dy<=r2){
+				result.add(e.session);
+			}
+		}
+	}
+	/**
+	 * @return sessions in cell of position and 8 cells around it
+	 */
+	public synchronized List<Session>getNeighborSessions(double x,double y){
+		List<Session>result=new ArrayList<>();
+		int cx=(int)Math.floor(x/cellSize);
+		int cy=(int)Math.floor(y/cellSize);
+		for(int i=cx-1;i<=cx+1;i++){
+			for(int j=cy-1;j<=cy+1;j++){
+				ArrayList<Entry>cell=cells.get(cellKey(i, j));
+				if(cell!=null){
+					for(int k=0;k<cell.size();k++){
+						result.add(cell.get(k).session);
+					}
+				}
+			}
+		}
+		return result;
+	}
+	//
+	private void broadcast(String serviceId,Object payload,List<Session>targets){
+		if(targets.isEmpty()){
+			return;
+		}
+		BroadcastMessage message=new BroadcastMessage(messageServer,serviceId,payload);
+		try{
+			for(Session s:targets){
+				message.send(s);
+			}
+		}finally{
+			message.release();
+		}
+	}
+	/**
+	 * broadcast message to sessions within radius of position
+	 */
+	public void broadcast(String serviceId,Object payload,
+			double x,double y,double radius){
+		broadcast(serviceId,payload,getSessions(x, y, radius));
+	}
+	/**
+	 * broadcast message to sessions in cell neighborhood of position
+	 */
+	public void broadcastNeighbor(String serviceId,Object payload,double x,double y){
+		broadcast(serviceId,payload,getNeighborSessions(x, y));
+	}
+}
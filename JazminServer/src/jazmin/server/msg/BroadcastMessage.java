@@ -0,0 +1,97 @@
+/**
+ * 
+ */
+package jazmin.server.msg;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.msg.codec.ResponseMessage;
+
+/**
+ * push message shared by all receivers of a broadcast.payload is encoded 
+ * once per message format,receivers get retained duplicate of the 
+ * encoded frame.push message has no per session header field
+ * (request id is 0),so the whole frame is shared.stream compressed format
+ * is shared as plain json.
+ */
+class BroadcastMessage {
+	private static Logger logger=LoggerFactory.get(BroadcastMessage.class);
+	//
+	private static final int MAX_FORMAT=17;
+	private final CodecFactory codecFactory;
+	private final NetworkTrafficStat networkTrafficStat;
+	private final String serviceId;
+	private final Object payload;
+	private final ByteBuf frames[];
+	private final int sentCounts[];
+	//
+	BroadcastMessage(MessageServer messageServer,String serviceId,Object payload) {
+		if(serviceId==null){
+			throw new IllegalArgumentException("serviceId can not be null.");
+		}
+		if(payload==null){
+			throw new IllegalArgumentException("payload can not be null.");
+		}
+		this.codecFactory=messageServer.codecFactory;
+		this.networkTrafficStat=messageServer.networkTrafficStat;
+		this.serviceId=serviceId;
+		this.payload=payload;
+		this.frames=new ByteBuf[MAX_FORMAT];
+		this.sentCounts=new int[MAX_FORMAT];
+	}
+	/**
+	 * return encoded frame of message type,null if encode failed.
+	 * caller should retain the frame before write.
+	 */
+	ByteBuf getFrame(int messageType){
+		if(messageType<0||messageType>=MAX_FORMAT){
+			return null;
+		}
+		ByteBuf frame=frames[messageType];
+		if(frame==null){
+			ResponseMessage rsm=new ResponseMessage();
+			rsm.requestId=0;
+			rsm.serviceId=serviceId;
+			rsm.responseObject=payload;
+			rsm.messageType=messageType;
+			frame=PooledByteBufAllocator.DEFAULT.buffer(256);
+			try {
+				codecFactory.encode(rsm, frame, networkTrafficStat);
+			} catch (Exception e) {
+				frame.release();
+				logger.catching(e);
+				return null;
+			}
+			frames[messageType]=frame;
+		}
+		sentCounts[messageType]++;
+		return frame;
+	}
+	//
+	void send(Session session){
+		ByteBuf frame=getFrame(session.messageType);
+		if(frame!=null){
+			session.sendFrame(serviceId,frame.duplicate().retain());
+		}
+	}
+	/**
+	 * release encoded frames,frames are freed after all writes done
+	 */
+	void release(){
+		for(int i=0;i<MAX_FORMAT;i++){
+			ByteBuf frame=frames[i];
+			if(frame==null){
+				continue;
+			}
+			//codec count one frame when encoding
+			if(sentCounts[i]>1){
+				networkTrafficStat.outBound((frame.readableBytes()-4)*(sentCounts[i]-1));
+			}
+			frame.release();
+			frames[i]=null;
+		}
+	}
+}
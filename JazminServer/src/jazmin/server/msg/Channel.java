@@ -35,6 +35,7 @@ public class Channel {
 	Object userObject;
 	MessageServer messageServer;
 	boolean autoRemoveDisconnectedSession;
+	boolean clustered;
 	//
 	Channel(MessageServer messageServer,String id) {
 		this.id=id;
@@ -124,19 +125,34 @@ public class Channel {
 	 *broadcast message to all sessions in this channel.
 	 */
 	public void broadcast(String serviceId,Object payload){
-		sessions.forEach((a,s)->{
-				s.push(serviceId, payload);
-		});
+		broadcastLocal(serviceId, payload, null);
+		if(clustered){
+			messageServer.publishClusterBroadcast(id,serviceId,payload,null);
+		}
 	}
 	/**
 	 *broadcast message to all sessions in this channel expect session in blockPrincipalSet.
 	 */
 	public void broadcast(String serviceId,Object payload,Set<String>blockPrincipalSet){
-		sessions.forEach((a,s)->{
-			if(!blockPrincipalSet.contains(s.principal)){
-				s.push(serviceId, payload);
-			}
-		});
+		broadcastLocal(serviceId, payload, blockPrincipalSet);
+		if(clustered){
+			messageServer.publishClusterBroadcast(id,serviceId,payload,blockPrincipalSet);
+		}
+	}
+	/**
+	 *broadcast message to sessions of this node only
+	 */
+	void broadcastLocal(String serviceId,Object payload,Set<String>blockPrincipalSet){
+		BroadcastMessage message=new BroadcastMessage(messageServer,serviceId,payload);
+		try{
+			sessions.forEach((a,s)->{
+				if(blockPrincipalSet==null||!blockPrincipalSet.contains(s.principal)){
+					message.send(s);
+				}
+			});
+		}finally{
+			message.release();
+		}
 	}
 	/** 
 	 *@return user object 
@@ -164,5 +180,21 @@ public class Channel {
 			boolean autoRemoveDisconnectedSession) {
 		this.autoRemoveDisconnectedSession = autoRemoveDisconnectedSession;
 	}
+	/**
+	 * @return is broadcast routed to peer nodes
+	 */
+	public boolean isClustered() {
+		return clustered;
+	}
+	/**
+	 * if true,broadcast is also sent to sessions in channel with same id
+	 * on peer nodes(see ClusterBroadcaster)
+	 */
+	public void setClustered(boolean clustered) {
+		if(clustered&&messageServer.getClusterBroadcaster()==null){
+			throw new IllegalStateException("cluster broadcaster not set");
+		}
+		this.clustered = clustered;
+	}
 	
 }
@@ -0,0 +1,31 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * batch of channel broadcasts published to peer message servers
+ */
+public class ClusterBroadcast implements Serializable{
+	private static final long serialVersionUID = 1L;
+	//
+	public static class Item implements Serializable{
+		private static final long serialVersionUID = 1L;
+		public String channelId;
+		public String serviceId;
+		//json text of payload,serialized when broadcast published
+		public String payload;
+		public Set<String>blockPrincipalSet;
+	}
+	//
+	public String node;
+	public ArrayList<Item>items;
+	//
+	public ClusterBroadcast() {
+		items=new ArrayList<>();
+	}
+}
@@ -0,0 +1,259 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.fastjson.JSON;
+
+import jazmin.core.Jazmin;
+import jazmin.driver.rpc.JazminRpcDriver;
+import jazmin.driver.rpc.PushCallback;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.server.rpc.RpcServer;
+import jazmin.server.rpc.RpcSession;
+
+/**
+ * routes broadcast of clustered channels to peer message servers.each node
+ * runs a RpcServer and a JazminRpcDriver connected to peers' RpcServer.
+ * broadcasts are batched per tick and published on TOPIC,so payloads are
+ * encoded once per peer per tick.peers broadcast received items to local
+ * sessions of channel with same id.payload is serialized to json when
+ * broadcast is published,later changes of payload are not seen by peers.
+ * broadcasts are dropped when more than maxPendingCount are waiting.
+ * <pre>
+ * ClusterBroadcaster cb=new ClusterBroadcaster(rpcServer,rpcDriver,"gateway");
+ * messageServer.setClusterBroadcaster(cb);
+ * messageServer.createChannel("room1").setClustered(true);
+ * </pre>
+ */
+public class ClusterBroadcaster {
+	private static Logger logger=LoggerFactory.get(ClusterBroadcaster.class);
+	//
+	public static final String TOPIC="jazmin.msg.broadcast";
+	//
+	private final RpcServer rpcServer;
+	private final JazminRpcDriver rpcDriver;
+	private final String peerCluster;
+	private final String node;
+	private MessageServer messageServer;
+	private int tickMillis;
+	private int maxBatchSize;
+	private int maxPendingCount;
+	private ConcurrentLinkedQueue<ClusterBroadcast.Item>pendingItems;
+	private AtomicInteger pendingCount;
+	private ScheduledFuture<?>tickFuture;
+	private LongAdder publishedCount;
+	private LongAdder batchCount;
+	private LongAdder receivedCount;
+	private LongAdder droppedCount;
+	/**
+	 * must be created before rpc driver inited
+	 * @param rpcServer local rpc server peers connect to
+	 * @param rpcDriver driver connected to peers' rpc server
+	 * @param peerCluster cluster name of peers in rpc driver
+	 */
+	public ClusterBroadcaster(RpcServer rpcServer,
+			JazminRpcDriver rpcDriver,
+			String peerCluster) {
+		this.rpcServer=rpcServer;
+		this.rpcDriver=rpcDriver;
+		this.peerCluster=peerCluster;
+		this.node=UUID.randomUUID().toString();
+		tickMillis=20;
+		maxBatchSize=256;
+		maxPendingCount=10240;
+		pendingItems=new ConcurrentLinkedQueue<>();
+		pendingCount=new AtomicInteger();
+		publishedCount=new LongAdder();
+		batchCount=new LongAdder();
+		receivedCount=new LongAdder();
+		droppedCount=new LongAdder();
+		rpcDriver.subscribe(peerCluster, TOPIC);
+	}
+	//
+	/**
+	 * @return the tickMillis
+	 */
+	public int getTickMillis() {
+		return tickMillis;
+	}
+	/**
+	 * @param tickMillis broadcasts are published to peers every tick
+	 */
+	public void setTickMillis(int tickMillis) {
+		if(tickMillis<=0){
+			throw new IllegalArgumentException("tickMillis must >0");
+		}
+		this.tickMillis = tickMillis;
+	}
+	/**
+	 * @return the maxBatchSize
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+	/**
+	 * @param maxBatchSize max broadcast count of one publish
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		if(maxBatchSize<=0){
+			throw new IllegalArgumentException("maxBatchSize must >0");
+		}
+		this.maxBatchSize = maxBatchSize;
+	}
+	/**
+	 * @return the maxPendingCount
+	 */
+	public int getMaxPendingCount() {
+		return maxPendingCount;
+	}
+	/**
+	 * @param maxPendingCount max broadcast count waiting for next tick,
+	 * broadcasts published when queue full are dropped
+	 */
+	public void setMaxPendingCount(int maxPendingCount) {
+		if(maxPendingCount<=0){
+			throw new IllegalArgumentException("maxPendingCount must >0");
+		}
+		this.maxPendingCount = maxPendingCount;
+	}
+	//
+	public int getPendingCount(){
+		return pendingCount.get();
+	}
+	/**
+	 * @return the peerCluster
+	 */
+	public String getPeerCluster() {
+		return peerCluster;
+	}
+	//
+	public long getPublishedCount(){
+		return publishedCount.longValue();
+	}
+	//
+	public long getBatchCount(){
+		return batchCount.longValue();
+	}
+	//
+	public long getReceivedCount(){
+		return receivedCount.longValue();
+	}
+	//
+	public long getDroppedCount(){
+		return droppedCount.longValue();
+	}
+	/**
+	 * called when message server started,push callback of rpc driver is
+	 * wrapped,other push messages are passed to original callback.
+	 */
+	void start(MessageServer messageServer){
+		this.messageServer=messageServer;
+		PushCallback callback=rpcDriver.getPushCallback();
+		rpcDriver.setPushCallback((cluster,serviceId,payload)->{
+			if(TOPIC.equals(serviceId)){
+				receive(payload);
+			}else if(callback!=null){
+				callback.callback(cluster, serviceId, payload);
+			}
+		});
+		tickFuture=Jazmin.scheduleAtFixedRate(this::tick,
+				tickMillis,tickMillis,TimeUnit.MILLISECONDS);
+	}
+	//
+	void stop(){
+		if(tickFuture!=null){
+			tickFuture.cancel(false);
+		}
+	}
+	/**
+	 * queue broadcast of channel to peers
+	 */
+	void publish(String channelId,String serviceId,Object payload,
+			Set<String>blockPrincipalSet){
+		if(pendingCount.incrementAndGet()>maxPendingCount){
+			pendingCount.decrementAndGet();
+			droppedCount.increment();
+			return;
+		}
+		ClusterBroadcast.Item item=new ClusterBroadcast.Item();
+		item.channelId=channelId;
+		item.serviceId=serviceId;
+		try{
+			item.payload=JSON.toJSONString(payload);
+		}catch(Exception e){
+			pendingCount.decrementAndGet();
+			droppedCount.increment();
+			logger.catching(e);
+			return;
+		}
+		if(blockPrincipalSet!=null){
+			item.blockPrincipalSet=new HashSet<>(blockPrincipalSet);
+		}
+		pendingItems.add(item);
+	}
+	//
+	private void tick(){
+		try{
+			while(!pendingItems.isEmpty()){
+				ClusterBroadcast batch=new ClusterBroadcast();
+				batch.node=node;
+				ClusterBroadcast.Item item;
+				while(batch.items.size()<maxBatchSize&&
+						(item=pendingItems.poll())!=null){
+					pendingCount.decrementAndGet();
+					batch.items.add(item);
+				}
+				List<RpcSession>peers=rpcServer.getTopicSession(TOPIC);
+				if(peers==null||peers.isEmpty()){
+					droppedCount.add(batch.items.size());
+					continue;
+				}
+				rpcServer.publish(TOPIC, batch);
+				publishedCount.add(batch.items.size());
+				batchCount.increment();
+			}
+		}catch(Exception e){
+			logger.catching(e);
+		}
+	}
+	//
+	private void receive(Object payload){
+		if(!(payload instanceof ClusterBroadcast)){
+			logger.warn("bad cluster broadcast {}",payload);
+			return;
+		}
+		ClusterBroadcast batch=(ClusterBroadcast)payload;
+		if(node.equals(batch.node)){
+			return;
+		}
+		for(ClusterBroadcast.Item item:batch.items){
+			receivedCount.increment();
+			Channel channel=messageServer.getChannel(item.channelId);
+			if(channel==null){
+				continue;
+			}
+			channel.broadcastLocal(item.serviceId,JSON.parse(item.payload),
+					item.blockPrincipalSet);
+		}
+	}
+	//
+	@Override
+	public String toString() {
+		return "ClusterBroadcaster [peerCluster=" + peerCluster 
+				+ ", tickMillis=" + tickMillis 
+				+ ", maxBatchSize=" + maxBatchSize 
+				+ ", maxPendingCount=" + maxPendingCount + "]";
+	}
+}
@@ -7,6 +7,7 @@ import io.netty.buffer.ByteBuf;
 import jazmin.misc.io.NetworkTrafficStat;
 import jazmin.server.msg.codec.RequestMessage;
 import jazmin.server.msg.codec.ResponseMessage;
+import jazmin.server.msg.codec.StreamDeflater;
 
 /**
  * @author yama
@@ -18,6 +19,23 @@ public interface CodecFactory {
 			ResponseMessage msg,
 			ByteBuf out,
 			NetworkTrafficStat networkTrafficStat)throws Exception;
+	/**
+	 * encode with deflate stream of connection,deflater is null when message
+	 * is shared by many connections
+	 */
+	default void encode(
+			ResponseMessage msg,
+			ByteBuf out,
+			NetworkTrafficStat networkTrafficStat,
+			StreamDeflater deflater)throws Exception{
+		encode(msg, out, networkTrafficStat);
+	}
+	/**
+	 * create deflate stream for a connection,null if not supported
+	 */
+	default StreamDeflater createStreamDeflater(){
+		return null;
+	}
 	//
 	RequestMessage decode(ByteBuf in,
 			NetworkTrafficStat networkTrafficStat)throws Exception;
@@ -18,6 +18,11 @@
 */
 package jazmin.server.msg;
 
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.fastjson.JSON;
+
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.server.msg.codec.RequestMessage;
@@ -113,33 +118,85 @@ public class Context {
 	}
 	//--------------------------------------------------------------------------
 	//
+	//typed parameter of binary format or string parameter of text format,
+	//null if client sent less parameters
+	Object getParameter(int idx){
+		Object parameters[]=requestMessage.requestObjects;
+		if(parameters==null){
+			parameters=requestMessage.requestParameters;
+		}
+		if(parameters==null||idx>=parameters.length){
+			return null;
+		}
+		return parameters[idx];
+	}
 	Boolean  getBoolean(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Boolean.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null||o instanceof Boolean){
+			return (Boolean)o;
+		}
+		return Boolean.valueOf(o.toString());
 	}
 	String  getString(int idx){	
-		String ss=requestMessage.requestParameters[idx];
-		return ss;
+		Object o=getParameter(idx);
+		if(o==null){
+			return null;
+		}
+		if(o instanceof List||o instanceof Map){
+			//binary format decodes json array and object into List and Map
+			return JSON.toJSONString(o);
+		}
+		return o.toString();
 	}
 	Long  getLong(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Long.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null){
+			return null;
+		}
+		if(o instanceof Long||o instanceof Integer){
+			return ((Number)o).longValue();
+		}
+		return Long.valueOf(o.toString());
 	}
 	Integer  getInteger(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Integer.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null||o instanceof Integer){
+			return (Integer)o;
+		}
+		if(o instanceof Long){
+			return Math.toIntExact((Long)o);
+		}
+		return Integer.valueOf(o.toString());
 	}
 	Short  getShort(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Short.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null){
+			return null;
+		}
+		if(o instanceof Integer&&(Integer)o==((Integer)o).shortValue()){
+			return ((Integer)o).shortValue();
+		}
+		return Short.valueOf(o.toString());
 	}
 	Float  getFloat(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Float.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null){
+			return null;
+		}
+		if(o instanceof Number){
+			return ((Number)o).floatValue();
+		}
+		return Float.valueOf(o.toString());
 	}
 	Double  getDouble(int idx){
-		String ss=requestMessage.requestParameters[idx];
-		return ss==null?null:Double.valueOf(ss);
+		Object o=getParameter(idx);
+		if(o==null){
+			return null;
+		}
+		if(o instanceof Number){
+			return ((Number)o).doubleValue();
+		}
+		return Double.valueOf(o.toString());
 	}
 	//
 	void close(boolean error){
@@ -6,14 +6,17 @@ package jazmin.server.msg;
 import java.net.InetSocketAddress;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.socket.DatagramPacket;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.msg.codec.DefaultCodecFactory;
 import jazmin.server.msg.codec.RequestMessage;
 import jazmin.server.msg.codec.ResponseMessage;
+import jazmin.server.msg.codec.StreamDeflater;
 import jazmin.server.msg.kcp.KCP;
 import jazmin.util.HexDumpUtil;
 
@@ -24,7 +27,7 @@ import jazmin.util.HexDumpUtil;
 public class KcpChannel extends KCP implements NetworkChannel {
 	private static Logger logger = LoggerFactory.get(KcpChannel.class);
 	//
-	Channel channel;
+	volatile Channel channel;
 	InetSocketAddress localAddress;
 	InetSocketAddress peerAddress;
 	ByteBuf receiveBuffer;
@@ -38,11 +41,16 @@ public class KcpChannel extends KCP implements NetworkChannel {
 	//
 	long lastPingTime;
 	long peerTimestamp;
-	long nextUpdateTime;
-	boolean needUpdate;
 	long lag;
 	long totalLag;
 	long totalPingPkgCount;
+	//update wheel state,only accessed in event loop
+	KcpUpdateWheel updateWheel;
+	long wheelTick;
+	KcpChannel wheelPrev;
+	KcpChannel wheelNext;
+	//deflate stream,only accessed in update loop
+	private StreamDeflater streamDeflater;
 	//
 	public int getConvId() {
 		return conv;
@@ -84,14 +92,15 @@ public class KcpChannel extends KCP implements NetworkChannel {
 
 	//
 	@Override
-	protected void output(byte[] buffer, int size) {
+	protected void output(ByteBuf buffer) {
+		Channel channel=this.channel;
 		if(channel==null){
 			logger.debug("channel already closed.convId:"+conv);
+			buffer.release();
 			return;
 		}
 		sentPacketCount++;
-		DatagramPacket dp = new DatagramPacket(Unpooled.copiedBuffer(buffer, 0, size), peerAddress);
-		channel.writeAndFlush(dp);
+		channel.writeAndFlush(new DatagramPacket(buffer, peerAddress));
 	}
 	//
 	void receivePing(long timestamp,int lag){
@@ -102,21 +111,22 @@ public class KcpChannel extends KCP implements NetworkChannel {
 		totalLag+=lag;
 		totalPingPkgCount++;
 	}
-	//
-	byte buffer[] = new byte[IKCP_MTU_DEF];
-	//
-	public RequestMessage receive(byte[] data) {
-		needUpdate=true;
+	/**
+	 * kcp segments keep retained slices of data,messages are merged into
+	 * receive buffer
+	 */
+	public RequestMessage receive(ByteBuf data) {
 		receivePacketCount++;
 		lastReceiveTime = System.currentTimeMillis();
+		int start=data.readerIndex();
 		int ret = input(data);
 		if (ret < 0) {
-			logger.warn("bad input data \n{}", HexDumpUtil.dumpHexString(data));
+			logger.warn("bad input data \n{}", HexDumpUtil.dumpHexString(
+					ByteBufUtil.getBytes(data,start,data.writerIndex()-start)));
 			return null;
 		}
-		int dataRead = 0;
-		while ((dataRead = recv(buffer)) > 0) {
-			receiveBuffer.writeBytes(buffer, 0, dataRead);
+		scheduleUpdate();
+		while (recv(receiveBuffer) > 0) {
 		}
 		//
 		try {
@@ -145,33 +155,95 @@ public class KcpChannel extends KCP implements NetworkChannel {
 	}
 
 	//
+	/**
+	 * message is encoded in caller thread into pooled buffer,kcp send is
+	 * done in event loop and segments share the encoded buffer
+	 */
 	@Override
 	public void writeAndFlush(Object obj) {
-		needUpdate=true;
 		lastSentTime = System.currentTimeMillis();
-		ResponseMessage msg = (ResponseMessage) obj;
-		ByteBuf out = Unpooled.buffer(256);
+		ByteBuf content;
+		if(obj instanceof ByteBuf){
+			//encoded broadcast frame
+			content=(ByteBuf)obj;
+		}else{
+			ResponseMessage msg = (ResponseMessage) obj;
+			if(msg.messageType==DefaultCodecFactory.FORMAT_ZJSON_STREAM){
+				//deflate stream is used in update loop in write order
+				if(updateWheel.inEventLoop()){
+					sendStream(msg);
+				}else{
+					updateWheel.execute(()->sendStream(msg));
+				}
+				return;
+			}
+			content = allocator.buffer(256);
+			try {
+				messageServer.codecFactory.encode(msg, content, networkTrafficStat);
+			} catch (Exception e) {
+				logger.catching(e);
+				content.release();
+				return;
+			}
+		}
+		if(updateWheel.inEventLoop()){
+			send0(content);
+		}else{
+			updateWheel.execute(()->send0(content));
+		}
+	}
+	//
+	private void sendStream(ResponseMessage msg){
+		if(channel==null){
+			return;
+		}
+		if(streamDeflater==null){
+			streamDeflater=messageServer.codecFactory.createStreamDeflater();
+		}
+		ByteBuf content = allocator.buffer(256);
 		try {
-			messageServer.codecFactory.encode(msg, out, networkTrafficStat);
-			byte content[] = new byte[out.readableBytes()];
-			out.readBytes(content);
-			send(content);
+			messageServer.codecFactory.encode(msg, content, 
+					networkTrafficStat,streamDeflater);
 		} catch (Exception e) {
 			logger.catching(e);
-		}finally {
-			out.release();
+			content.release();
+			return;
+		}
+		send0(content);
+	}
+	//
+	@Override
+	public void release() {
+		super.release();
+		if(streamDeflater!=null){
+			streamDeflater.end();
+			streamDeflater=null;
+		}
+	}
+	//
+	private void send0(ByteBuf content){
+		try{
+			if(channel==null){
+				return;
+			}
+			send(content);
+			scheduleUpdate();
+		}finally{
+			content.release();
 		}
 	}
 	//
-	void updateChannel(){
-		if(session==null){
+	void scheduleUpdate(){
+		updateWheel.schedule(this,check(System.currentTimeMillis()));
+	}
+	//
+	void runUpdate(long now){
+		if(channel==null){
 			return;
 		}
-		long now=System.currentTimeMillis();
-		if(needUpdate||now>=nextUpdateTime){
-			update(now);
-			nextUpdateTime=check(now);
-			needUpdate=false;
+		update(now);
+		if(!isIdle()){
+			updateWheel.schedule(this,check(now));
 		}
 	}
 	//
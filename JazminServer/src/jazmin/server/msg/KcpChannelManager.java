@@ -4,16 +4,16 @@
 package jazmin.server.msg;
 
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.Channel;
 import io.netty.channel.socket.DatagramPacket;
 import jazmin.log.Logger;
@@ -24,23 +24,45 @@ import jazmin.util.HexDumpUtil;
 import jazmin.util.RandomUtil;
 
 /**
+ * kcp channels are pinned to event loop of udp channel,kcp update is driven
+ * by update wheel and idle check runs every second in same event loop.
  * @author yama
  *
  */
-public class KcpChannelManager implements Runnable{
+public class KcpChannelManager {
 	private static Logger logger=LoggerFactory.get(KcpChannelManager.class);
 	//
 	private AtomicInteger kcpChannelId;
 	private Map<Integer,KcpChannel>kcpChannelMap;
-	private Thread kcpUpdateThread;
 	private MessageServer messageServer;
 	private Channel udpChannel;
+	private KcpUpdateWheel updateWheel;
+	private List<Integer>removedChannel;
+	//
+	public static final int UPDATE_WHEEL_TICK=10;
+	public static final int UPDATE_WHEEL_SLOTS=512;
+	//
 	public KcpChannelManager(MessageServer messageServer) {
 		this.messageServer=messageServer;
 		kcpChannelId=new AtomicInteger(RandomUtil.randomInt(1000000));
 		kcpChannelMap=new ConcurrentHashMap<>();
-		kcpUpdateThread=new Thread(this);
-		kcpUpdateThread.start();
+		removedChannel=new LinkedList<>();
+	}
+	/**
+	 * called in event loop when udp channel active
+	 */
+	void start(Channel channel){
+		udpChannel=channel;
+		updateWheel=new KcpUpdateWheel(channel.eventLoop(),
+				UPDATE_WHEEL_TICK,UPDATE_WHEEL_SLOTS);
+		updateWheel.start();
+		channel.eventLoop().scheduleAtFixedRate(()->{
+			try {
+				checkChannels();
+			} catch (Exception e) {
+				logger.catching(e);
+			}
+		},1,1,TimeUnit.SECONDS);
 	}
 	//-----------------------------------------------------------------------------
 	public List<KcpChannel>getChannels(){
@@ -67,7 +89,7 @@ public class KcpChannelManager implements Runnable{
 			int convId,
 			int number,
 			int info){
-		ByteBuf bf=Unpooled.buffer(26);
+		ByteBuf bf=udpChannel.alloc().ioBuffer(26);
 		bf.writeShort(UDP_PKG_MAGIC);
 		bf.writeShort(number);
 		bf.writeShort(UDP_PKG_TYPE_PONG);
@@ -87,18 +109,22 @@ public class KcpChannelManager implements Runnable{
 		return kcpChannelId.get();
 	}
 	//
-	private boolean receivePingMessage(byte []data,Channel channel,DatagramPacket dp){
-		ByteBuffer bf=ByteBuffer.wrap(data);
-		short magic=bf.getShort();
-		short number=bf.getShort();
-		short type=bf.getShort();
-		long timestamp=bf.getLong();
-		int lag=bf.getInt();
-		int convId=bf.getInt();
-		int info=bf.getInt();
+	private static String dump(ByteBuf data){
+		return HexDumpUtil.dumpHexString(ByteBufUtil.getBytes(data));
+	}
+	//
+	private boolean receivePingMessage(ByteBuf data,Channel channel,DatagramPacket dp){
+		int idx=data.readerIndex();
+		short magic=data.getShort(idx);
+		short number=data.getShort(idx+2);
+		short type=data.getShort(idx+4);
+		long timestamp=data.getLong(idx+6);
+		int lag=data.getInt(idx+14);
+		int convId=data.getInt(idx+18);
+		int info=data.getInt(idx+22);
 		//
 		if(magic!=UDP_PKG_MAGIC){
-			logger.warn("bad udp message:\n"+HexDumpUtil.dumpHexString(data));
+			logger.warn("bad udp message:\n"+dump(data));
 			return false;
 		}
 		if(type==UDP_PKG_TYPE_PING){
@@ -112,6 +138,7 @@ public class KcpChannelManager implements Runnable{
 						dp.recipient(),
 						dp.sender());
 				newChannel.networkTrafficStat=messageServer.networkTrafficStat;
+				newChannel.updateWheel=updateWheel;
 				kcpChannelMap.put(newConvId,newChannel);
 				if(logger.isInfoEnabled()){
 					logger.info("session create conv {} sender {}",newConvId,dp.sender());
@@ -151,16 +178,16 @@ public class KcpChannelManager implements Runnable{
 			}
 			return true;
 		}
-		logger.warn("bad udp message type:\n"+HexDumpUtil.dumpHexString(data));
+		logger.warn("bad udp message type:\n"+dump(data));
 		return true;
 	}
 	//
+	/**
+	 * packet content is read in place,kcp segments retain slices of it
+	 */
 	public void receiveDatagramPacket(Channel channel,DatagramPacket dp){
 		udpChannel=channel;
-		ByteBuf buf=dp.copy().content();
-		byte data[]=new byte[buf.readableBytes()];
-		buf.readBytes(data);
-		buf.release();
+		ByteBuf data=dp.content();
 		//ping message
 		/*
 		*ping message format
@@ -174,7 +201,7 @@ public class KcpChannelManager implements Runnable{
 		*/
 		//
 		//
-		if(data.length==26){
+		if(data.readableBytes()==26){
 			if(receivePingMessage(data,channel, dp)){
 				return;
 			}
@@ -207,16 +234,14 @@ public class KcpChannelManager implements Runnable{
 			messageServer.sessionCreated(session);
 		}
 		//
-		synchronized (kcpChannel) {
-			kcpChannel.peerAddress=dp.sender();
-			RequestMessage req=kcpChannel.receive(data);
-			if(req!=null){
-				messageServer.receiveMessage(kcpChannel.session, req);
-			}
+		kcpChannel.peerAddress=dp.sender();
+		RequestMessage req=kcpChannel.receive(data);
+		if(req!=null){
+			messageServer.receiveMessage(kcpChannel.session, req);
 		}
 	}
 	//
-	private void updateKcp0(List<Integer>removedChannel){
+	private void checkChannels(){
 		long now=System.currentTimeMillis();
 		//
 		removedChannel.clear();
@@ -228,13 +253,13 @@ public class KcpChannelManager implements Runnable{
 						0,
 						KcpChannelManager.UDP_INFO_CHANNEL_SERVER_CLOSED);
 				removedChannel.add(id);
+				updateWheel.cancel(channel);
+				channel.release();
 				if(channel.session!=null){
 					messageServer.sessionDisconnected(channel.session);
 				}
 				return;
 			}
-			//
-			channel.updateChannel();
 			//10 mins no data transfer
 			if((now-channel.lastReceiveTime)>60*10*1000L){
 				if(logger.isWarnEnabled()){
@@ -259,15 +284,4 @@ public class KcpChannelManager implements Runnable{
 			kcpChannelMap.remove(id);
 		}
 	}
-	//
-	@Override
-	public void run() {
-		List<Integer>removedChannel=new LinkedList<>();
-		while(true){
-			try {
-				updateKcp0(removedChannel);
-				Thread.sleep(10);
-			} catch (Exception e) {}
-		}
-	}
 }
@@ -24,6 +24,12 @@ public class KcpUdpHandler extends SimpleChannelInboundHandler<DatagramPacket> {
 	}
 	//
 	@Override
+	public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		kcpChannelManager.start(ctx.channel());
+		super.channelActive(ctx);
+	}
+	//
+	@Override
 	protected void messageReceived(ChannelHandlerContext ctx,
 			DatagramPacket pkg) throws Exception {
 		kcpChannelManager.receiveDatagramPacket(ctx.channel(),pkg);
@@ -0,0 +1,144 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+
+/**
+ * hashed timer wheel driving kcp update of channels pinned to one event loop.
+ * each channel is linked into the slot of its next check() deadline,a tick
+ * only visits channels in its slot so update cost scales with active
+ * channels.all methods except execute must be called in the event loop.
+ */
+class KcpUpdateWheel implements Runnable{
+	private static Logger logger=LoggerFactory.get(KcpUpdateWheel.class);
+	//
+	private final EventLoop eventLoop;
+	private final int tickMillis;
+	private final KcpChannel slots[];
+	private final int mask;
+	private long currentTick;
+	private int scheduledCount;
+	private ScheduledFuture<?> tickFuture;
+	//
+	KcpUpdateWheel(EventLoop eventLoop,int tickMillis,int slotCount) {
+		if(Integer.bitCount(slotCount)!=1){
+			throw new IllegalArgumentException("slotCount must be power of 2");
+		}
+		this.eventLoop=eventLoop;
+		this.tickMillis=tickMillis;
+		this.slots=new KcpChannel[slotCount];
+		this.mask=slotCount-1;
+	}
+	//
+	void start(){
+		currentTick=System.currentTimeMillis()/tickMillis;
+		tickFuture=eventLoop.scheduleAtFixedRate(this,
+				tickMillis,tickMillis,TimeUnit.MILLISECONDS);
+	}
+	//
+	void stop(){
+		if(tickFuture!=null){
+			tickFuture.cancel(false);
+		}
+	}
+	//
+	boolean inEventLoop(){
+		return eventLoop.inEventLoop();
+	}
+	//
+	void execute(Runnable task){
+		eventLoop.execute(task);
+	}
+	//
+	EventLoop eventLoop(){
+		return eventLoop;
+	}
+	//
+	int getScheduledCount(){
+		return scheduledCount;
+	}
+	/**
+	 * schedule channel update at deadline in milliseconds,earlier deadline
+	 * is kept if channel already scheduled
+	 */
+	void schedule(KcpChannel channel,long deadline){
+		long tick=deadline/tickMillis;
+		if(tick<=currentTick){
+			tick=currentTick+1;
+		}
+		if(channel.wheelTick>0){
+			if(channel.wheelTick<=tick){
+				return;
+			}
+			unlink(channel);
+		}
+		int idx=(int)(tick&mask);
+		channel.wheelTick=tick;
+		channel.wheelPrev=null;
+		channel.wheelNext=slots[idx];
+		if(slots[idx]!=null){
+			slots[idx].wheelPrev=channel;
+		}
+		slots[idx]=channel;
+		scheduledCount++;
+	}
+	//
+	void cancel(KcpChannel channel){
+		if(channel.wheelTick>0){
+			unlink(channel);
+		}
+	}
+	//
+	private void unlink(KcpChannel channel){
+		int idx=(int)(channel.wheelTick&mask);
+		if(channel.wheelPrev!=null){
+			channel.wheelPrev.wheelNext=channel.wheelNext;
+		}else{
+			slots[idx]=channel.wheelNext;
+		}
+		if(channel.wheelNext!=null){
+			channel.wheelNext.wheelPrev=channel.wheelPrev;
+		}
+		channel.wheelPrev=null;
+		channel.wheelNext=null;
+		channel.wheelTick=0;
+		scheduledCount--;
+	}
+	//
+	@Override
+	public void run() {
+		long now=System.currentTimeMillis();
+		long nowTick=now/tickMillis;
+		if(nowTick-currentTick>slots.length){
+			//fall behind more than one round,visit each slot once
+			currentTick=nowTick-slots.length;
+		}
+		while(currentTick<nowTick){
+			currentTick++;
+			expire(currentTick,now);
+		}
+	}
+	//
+	private void expire(long tick,long now){
+		KcpChannel channel=slots[(int)(tick&mask)];
+		while(channel!=null){
+			KcpChannel next=channel.wheelNext;
+			if(channel.wheelTick<=tick){
+				unlink(channel);
+				try{
+					channel.runUpdate(now);
+				}catch(Exception e){
+					logger.catching(e);
+				}
+			}
+			channel=next;
+		}
+	}
+}
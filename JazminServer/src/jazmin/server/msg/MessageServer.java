@@ -23,8 +23,10 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +34,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
@@ -42,16 +45,21 @@ import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
 import jazmin.core.Jazmin;
 import jazmin.core.Registerable;
 import jazmin.core.Server;
 import jazmin.core.app.AppException;
 import jazmin.core.thread.Dispatcher;
 import jazmin.core.thread.DispatcherCallbackAdapter;
+import jazmin.core.thread.DispatcherOverloadException;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.InfoBuilder;
 import jazmin.misc.io.IOWorker;
+import jazmin.misc.io.FlushBatchStat;
+import jazmin.misc.io.SlowConsumerStat;
 import jazmin.misc.io.NetworkTrafficStat;
 import jazmin.server.console.ConsoleServer;
 import jazmin.server.msg.codec.MessageDecoder;
@@ -59,6 +67,8 @@ import jazmin.server.msg.codec.MessageEncoder;
 import jazmin.server.msg.codec.DefaultCodecFactory;
 import jazmin.server.msg.codec.RequestMessage;
 import jazmin.server.msg.codec.ResponseMessage;
+import jazmin.server.msg.codec.StreamDeflater;
+import jazmin.server.msg.codec.WebSocketMessageEncoder;
 
 /**
  * @author yama
@@ -90,6 +100,19 @@ public class MessageServer extends Server implements Registerable{
 	int maxChannelCount;
 	int maxSessionRequestCountPerSecond;
 	boolean checkRequestId;
+	boolean syncServiceInLane;
+	boolean flushBatchMode;
+	int flushWindow;
+	FlushBatchStat flushBatchStat;
+	int compressThreshold;
+	List<String>compressDictionary;
+	int outboundHighWaterMark;
+	int outboundLowWaterMark;
+	int maxPendingPushCount;
+	SlowConsumerPolicy defaultSlowConsumerPolicy;
+	Map<String,SlowConsumerPolicy>slowConsumerPolicies;
+	SlowConsumerStat slowConsumerStat;
+	ClusterBroadcaster clusterBroadcaster;
 	//
 	KcpChannelManager kcpChannelManager;
 	//
@@ -118,6 +141,7 @@ public class MessageServer extends Server implements Registerable{
 		channelMap=new ConcurrentHashMap<>();
 		sessionId=new AtomicInteger(1);
 		networkTrafficStat=new NetworkTrafficStat();
+		flushBatchStat=new FlushBatchStat();
 		codecFactory=new DefaultCodecFactory();
 		port=DEFAULT_PORT;
 		idleTime=DEFAULT_IDLE_TIME;
@@ -136,6 +160,15 @@ public class MessageServer extends Server implements Registerable{
 		udpPort=-1;
 		//
 		checkRequestId=true;
+		syncServiceInLane=false;
+		compressThreshold=128;
+		compressDictionary=new ArrayList<String>();
+		outboundHighWaterMark=64*1024;
+		outboundLowWaterMark=32*1024;
+		maxPendingPushCount=64;
+		defaultSlowConsumerPolicy=SlowConsumerPolicy.WRITE;
+		slowConsumerPolicies=new HashMap<String, SlowConsumerPolicy>();
+		slowConsumerStat=new SlowConsumerStat();
 	}
 	//
 	
@@ -157,6 +190,257 @@ public class MessageServer extends Server implements Registerable{
 		this.checkRequestId = checkRequestId;
 	}
 
+	/**
+	 * @return the syncServiceInLane
+	 */
+	public boolean isSyncServiceInLane() {
+		return syncServiceInLane;
+	}
+	/**
+	 * if true,syncOnSession services of same session are queued and executed
+	 * in order in dispatcher serial lane instead of rejected with 
+	 * SC_SYNC_SERVICE when another one is processing.
+	 * @param syncServiceInLane the syncServiceInLane to set
+	 */
+	public void setSyncServiceInLane(boolean syncServiceInLane) {
+		this.syncServiceInLane = syncServiceInLane;
+	}
+	/**
+	 * @return the flushBatchMode
+	 */
+	public boolean isFlushBatchMode() {
+		return flushBatchMode;
+	}
+	/**
+	 * if true,messages sent to tcp and websocket sessions are written 
+	 * without flush and flushed once per flush window.kcp sessions already
+	 * merge messages into packets on kcp update.
+	 * @param flushBatchMode the flushBatchMode to set
+	 */
+	public void setFlushBatchMode(boolean flushBatchMode) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		this.flushBatchMode = flushBatchMode;
+	}
+	/**
+	 * @return the flushWindow in microseconds
+	 */
+	public int getFlushWindow() {
+		return flushWindow;
+	}
+	/**
+	 * set flush window in microseconds,0 means flush at end of current 
+	 * event loop tick.
+	 * @param flushWindow the flushWindow to set
+	 */
+	public void setFlushWindow(int flushWindow) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(flushWindow<0){
+			throw new IllegalArgumentException("flushWindow must >=0");
+		}
+		this.flushWindow = flushWindow;
+	}
+	/**
+	 * @return batch size stat of flush batch mode
+	 */
+	public FlushBatchStat getFlushBatchStat() {
+		return flushBatchStat;
+	}
+	/**
+	 * @return the compressThreshold
+	 */
+	public int getCompressThreshold() {
+		return compressThreshold;
+	}
+	/**
+	 * zjson-stream responses shorter than threshold are sent as plain json
+	 * @param compressThreshold the compressThreshold to set
+	 */
+	public void setCompressThreshold(int compressThreshold) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(compressThreshold<0){
+			throw new IllegalArgumentException("compressThreshold must >=0");
+		}
+		this.compressThreshold = compressThreshold;
+	}
+	/**
+	 * @return words of zjson-stream preset dictionary
+	 */
+	public List<String> getCompressDictionary() {
+		return Collections.unmodifiableList(compressDictionary);
+	}
+	/**
+	 * add words such as service ids and response field names to zjson-stream
+	 * preset dictionary.client must use same words in same order,so keep
+	 * the list stable across releases,changing it breaks deployed clients.
+	 * dictionary is empty if no word added.
+	 */
+	public void addCompressDictionary(String ...words) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		for(String w:words){
+			compressDictionary.add(w);
+		}
+	}
+	/**
+	 * words of zjson-stream preset dictionary,only words added by 
+	 * addCompressDictionary are used so adding or removing services does 
+	 * not change dictionary
+	 */
+	public List<String> getCompressDictionaryWords(){
+		return new ArrayList<String>(compressDictionary);
+	}
+	//
+	private void initStreamCompress(){
+		if(codecFactory instanceof DefaultCodecFactory){
+			DefaultCodecFactory dcf=(DefaultCodecFactory)codecFactory;
+			dcf.setStreamThreshold(compressThreshold);
+			dcf.setStreamDictionary(
+					StreamDeflater.buildDictionary(getCompressDictionaryWords()));
+		}
+	}
+	/**
+	 * @return the outboundHighWaterMark
+	 */
+	public int getOutboundHighWaterMark() {
+		return outboundHighWaterMark;
+	}
+	/**
+	 * @return the outboundLowWaterMark
+	 */
+	public int getOutboundLowWaterMark() {
+		return outboundLowWaterMark;
+	}
+	/**
+	 * session is slow when outbound bytes exceed high water mark,and 
+	 * becomes writable again when outbound bytes drop below low water mark
+	 */
+	public void setOutboundWaterMark(int low,int high) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(low<=0||high<low){
+			throw new IllegalArgumentException("bad water mark "+low+"/"+high);
+		}
+		this.outboundLowWaterMark = low;
+		this.outboundHighWaterMark = high;
+	}
+	/**
+	 * @return the maxPendingPushCount
+	 */
+	public int getMaxPendingPushCount() {
+		return maxPendingPushCount;
+	}
+	/**
+	 * max held pushes per service id of DROP_OLDEST policy
+	 * @param maxPendingPushCount the maxPendingPushCount to set
+	 */
+	public void setMaxPendingPushCount(int maxPendingPushCount) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(maxPendingPushCount<=0){
+			throw new IllegalArgumentException("maxPendingPushCount must >0");
+		}
+		this.maxPendingPushCount = maxPendingPushCount;
+	}
+	/**
+	 * @return the defaultSlowConsumerPolicy
+	 */
+	public SlowConsumerPolicy getDefaultSlowConsumerPolicy() {
+		return defaultSlowConsumerPolicy;
+	}
+	/**
+	 * policy of pushes without service policy,default is WRITE
+	 * @param policy the defaultSlowConsumerPolicy to set
+	 */
+	public void setDefaultSlowConsumerPolicy(SlowConsumerPolicy policy) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(policy==null){
+			throw new IllegalArgumentException("policy can not be null");
+		}
+		this.defaultSlowConsumerPolicy = policy;
+	}
+	/**
+	 * set policy of pushes with service id when session is slow
+	 */
+	public void setSlowConsumerPolicy(String serviceId,SlowConsumerPolicy policy) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		if(serviceId==null||policy==null){
+			throw new IllegalArgumentException("serviceId and policy can not be null");
+		}
+		slowConsumerPolicies.put(serviceId, policy);
+	}
+	/**
+	 * @return slow consumer policies of service id
+	 */
+	public Map<String,SlowConsumerPolicy> getSlowConsumerPolicies() {
+		return Collections.unmodifiableMap(slowConsumerPolicies);
+	}
+	/**
+	 * @return the slowConsumerStat
+	 */
+	public SlowConsumerStat getSlowConsumerStat() {
+		return slowConsumerStat;
+	}
+	/**
+	 * @return the clusterBroadcaster
+	 */
+	public ClusterBroadcaster getClusterBroadcaster() {
+		return clusterBroadcaster;
+	}
+	/**
+	 * route broadcast of clustered channels to peer nodes
+	 * @param clusterBroadcaster the clusterBroadcaster to set
+	 */
+	public void setClusterBroadcaster(ClusterBroadcaster clusterBroadcaster) {
+		if(isStarted()){
+			throw new IllegalStateException("set before started.");
+		}
+		this.clusterBroadcaster = clusterBroadcaster;
+	}
+	//
+	void publishClusterBroadcast(String channelId,String serviceId,
+			Object payload,Set<String>blockPrincipalSet){
+		clusterBroadcaster.publish(channelId, serviceId, payload, blockPrincipalSet);
+	}
+	//
+	NettyNetworkChannel createNetworkChannel(io.netty.channel.Channel channel){
+		//low must not exceed high at any time
+		ChannelConfig config=channel.config();
+		if(outboundHighWaterMark>=config.getWriteBufferLowWaterMark()){
+			config.setWriteBufferHighWaterMark(outboundHighWaterMark);
+			config.setWriteBufferLowWaterMark(outboundLowWaterMark);
+		}else{
+			config.setWriteBufferLowWaterMark(outboundLowWaterMark);
+			config.setWriteBufferHighWaterMark(outboundHighWaterMark);
+		}
+		NettyNetworkChannel nc;
+		if(flushBatchMode){
+			nc=new NettyNetworkChannel(channel,flushWindow,flushBatchStat);
+		}else{
+			nc=new NettyNetworkChannel(channel);
+		}
+		if(defaultSlowConsumerPolicy!=SlowConsumerPolicy.WRITE||
+				!slowConsumerPolicies.isEmpty()){
+			nc.setOutboundQueue(new OutboundQueue(
+					slowConsumerPolicies,
+					defaultSlowConsumerPolicy,
+					maxPendingPushCount,
+					slowConsumerStat),slowConsumerStat);
+		}
+		return nc;
+	}
 	//
 	MessageDecoder createDecoder(){
 		return new MessageDecoder(codecFactory,networkTrafficStat);
@@ -460,6 +744,7 @@ public class MessageServer extends Server implements Registerable{
 			ch.pipeline().addLast(new HttpServerCodec());
 			ch.pipeline().addLast(new HttpObjectAggregator(65536));
 			ch.pipeline().addLast(new WebSocketServerCompressionHandler());
+			ch.pipeline().addLast(new WebSocketMessageEncoder(codecFactory,networkTrafficStat));
 			ch.pipeline().addLast(new WebSocketServerHandler(MessageServer.this));
 		}
 	}
@@ -474,22 +759,6 @@ public class MessageServer extends Server implements Registerable{
 		if(pTypes.length==0||!pTypes[0].equals(Context.class)){
 			return false;
 		}
-		for(int i=1;i<pTypes.length;i++){
-			Class<?>type=pTypes[i];
-			if(!type.equals(String.class)&&
-					!type.equals(Short.class)&&
-					!type.equals(Integer.class)&&
-					!type.equals(Double.class)&&
-					!type.equals(Float.class)&&
-					!type.equals(Long.class)&&
-					!type.equals(Boolean.class)){
-				logger.warn("{}.{}/parameter must be String/Integer/"
-						+ "Double/Float/Long/Boolean/Short",
-						m.getDeclaringClass().getSimpleName(),
-						m.getName());
-				return false;
-			}
-		}
 		return true;
 	}
 	/**
@@ -511,6 +780,14 @@ public class MessageServer extends Server implements Registerable{
 			if(!checkParameterTypes(m)){
 				continue;
 			}
+			ParameterBinder binder=ParameterBinder.compile(m);
+			if(binder==null){
+				logger.warn("{}.{}/parameter must be String/primitive/wrapper"
+						+ "/enum/POJO",
+						m.getDeclaringClass().getSimpleName(),
+						m.getName());
+				continue;
+			}
 			String methodName=interfaceClass.getSimpleName()+"."+m.getName();
 			//
 			if(serviceMap.containsKey(methodName)){
@@ -534,6 +811,8 @@ public class MessageServer extends Server implements Registerable{
 			}
 			ss.instance=instance;
 			ss.method=m;
+			ss.binder=binder;
+			ss.invoker=Jazmin.dispatcher.getMethodInvoker(m);
 			serviceMap.put(ss.serviceId, ss);
 		}
 	}
@@ -585,7 +864,9 @@ public class MessageServer extends Server implements Registerable{
 		}
 		
 		//5.check async state
-		if(ss.isSyncOnSessionService&&session.isProcessSyncService()){
+		if(ss.isSyncOnSessionService&&
+				!syncServiceInLane&&
+				session.isProcessSyncService()){
 			if(logger.isWarnEnabled()){
 				logger.warn("{} process sync service:{}",session,message.serviceId);	
 			}
@@ -601,36 +882,16 @@ public class MessageServer extends Server implements Registerable{
 			Context context,
 			Session session,
 			ServiceStub stub,
-			RequestMessage message){
-		Class<?> types[]=stub.method.getParameterTypes();
+			RequestMessage message) throws Exception{
+		Class<?> types[]=stub.binder.getTypes();
 		Object []parameters=new Object[types.length];
-		parameters[0]=context;
-		for(int i=1;i<types.length;i++){
-			Class<?>type=types[i];
-			int pIdx=i-1;
-			if(type.equals(String.class)){
-				parameters[i]=context.getString(pIdx);
-			}else if(type.equals(Integer.class)){
-				parameters[i]=context.getInteger(pIdx);
-			}else if(type.equals(Boolean.class)){
-				parameters[i]=context.getBoolean(pIdx);
-			}else if(type.equals(Short.class)){
-				parameters[i]=context.getShort(pIdx);
-			}else if(type.equals(Double.class)){
-				parameters[i]=context.getDouble(pIdx);
-			}else if(type.equals(Long.class)){
-				parameters[i]=context.getLong(pIdx);
-			}else if(type.equals(Float.class)){
-				parameters[i]=context.getFloat(pIdx);
-			}
-			//
-			if(parameters[i]==null){
-				session.sendError(
-						message,
-						ResponseMessage.SC_ILLEGA_ARGUMENT, 
-						"parameter:"+pIdx+"["+types[i].getSimpleName()+"] required");
-				return null;
-			}
+		int missing=stub.binder.bind(context, parameters);
+		if(missing>0){
+			session.sendError(
+					message,
+					ResponseMessage.SC_ILLEGA_ARGUMENT, 
+					"parameter:"+(missing-1)+"["+types[missing].getSimpleName()+"] required");
+			return null;
 		}
 		return parameters;
 	}
@@ -655,25 +916,68 @@ public class MessageServer extends Server implements Registerable{
 		if(parameters==null){
 			return;
 		}
+		boolean inLane=stub.isSyncOnSessionService&&syncServiceInLane;
 		//mark async 
-		session.processSyncService(stub.isSyncOnSessionService);
+		if(!inLane){
+			session.processSyncService(stub.isSyncOnSessionService);
+		}
 		//
-		MessageDispatcherCallback callback=new MessageDispatcherCallback();
+		MessageDispatcherCallback callback;
+		if(Jazmin.dispatcher.isLowAllocationMode()){
+			callback=MessageDispatcherCallback.RECYCLER.get();
+		}else{
+			callback=new MessageDispatcherCallback(null);
+		}
 		callback.session=session;
 		callback.requestMessage=message;
 		callback.serviceFilter=serviceFilter;
-		Jazmin.dispatcher.invokeInPool(
-				"@"+session.principal+"#"+message.requestId,
-				stub.instance,
-				stub.method, 
-				callback,parameters);
+		//callback build trace id when needed
+		if(inLane){
+			Jazmin.dispatcher.invokeInLane(
+					session,
+					callback,
+					stub.instance,
+					stub.invoker, 
+					callback,parameters);
+		}else{
+			Jazmin.dispatcher.invokeInPool(
+					callback,
+					stub.instance,
+					stub.invoker, 
+					callback,parameters);
+		}
 	}
 	//
 	static class MessageDispatcherCallback extends DispatcherCallbackAdapter{
+		static final Recycler<MessageDispatcherCallback> RECYCLER=
+				new Recycler<MessageDispatcherCallback>() {
+			@Override
+			protected MessageDispatcherCallback newObject(
+					Handle<MessageDispatcherCallback> handle) {
+				return new MessageDispatcherCallback(handle);
+			}
+		};
+		//
+		private final Handle<MessageDispatcherCallback> handle;
 		public Session session;
 		public RequestMessage requestMessage;
 		public ServiceFilter serviceFilter;
 		//
+		MessageDispatcherCallback(Handle<MessageDispatcherCallback> handle) {
+			this.handle=handle;
+		}
+		//
+		@Override
+		public String toString() {
+			//may be called by other thread while callback recycled
+			Session s=session;
+			RequestMessage m=requestMessage;
+			if(s==null||m==null){
+				return "";
+			}
+			return "@"+s.principal+"#"+m.requestId;
+		}
+		//
 		@Override
 		public void before(Object instance, Method method, Object[] args)throws Exception {
 			if(serviceFilter!=null){
@@ -699,6 +1003,11 @@ public class MessageServer extends Server implements Registerable{
 							requestMessage,
 							ResponseMessage.SC_APP_EXCEPTION, 
 							ae.getCode()+"."+ae.getMessage());					
+				}else if(e instanceof DispatcherOverloadException){
+					session.sendError(
+							requestMessage,
+							ResponseMessage.SC_SERVER_BUSY, 
+							"server busy");
 				}else{
 					session.sendError(
 							requestMessage,
@@ -707,6 +1016,12 @@ public class MessageServer extends Server implements Registerable{
 				}	
 			}
 			context.close(e!=null);	
+			if(handle!=null){
+				session=null;
+				requestMessage=null;
+				serviceFilter=null;
+				handle.recycle(this);
+			}
 		}	
 	}
 	//message
@@ -879,9 +1194,14 @@ public class MessageServer extends Server implements Registerable{
 	 * @param payload the message 
 	 */
 	public void broadcast(String serviceId,Object payload){
-		sessionMap.forEach((id,session)->{
-			session.push(serviceId, payload);
-		});
+		BroadcastMessage message=new BroadcastMessage(this,serviceId,payload);
+		try{
+			sessionMap.forEach((id,session)->{
+				message.send(session);
+			});
+		}finally{
+			message.release();
+		}
 	}
 	//
 	
@@ -909,6 +1229,33 @@ public class MessageServer extends Server implements Registerable{
 		channelMap.put(id, channel);
 		return channel;
 	}
+	/**
+	 * create a new area of interest channel with specified id
+	 * @param id the channel id
+	 * @param cellSize grid cell size,usually view radius of player
+	 * @return the channel with specified id
+	 */
+	public AoiChannel createAoiChannel(String id,double cellSize){
+		if(logger.isDebugEnabled()){
+			logger.debug("create aoi channel:"+id);
+		}
+		if(id==null){
+			throw new IllegalArgumentException("id can not be null.");
+		}
+		Channel channel=channelMap.get(id);
+		if(channel!=null){
+			if(!(channel instanceof AoiChannel)){
+				throw new IllegalStateException("channel:"+id+" is not aoi channel");
+			}
+			return (AoiChannel)channel;
+		}
+		if(channelMap.size()>maxChannelCount){
+			throw new IllegalStateException("too many channel,max:"+maxChannelCount);
+		}
+		AoiChannel aoiChannel=new AoiChannel(this,id,cellSize);
+		channelMap.put(id, aoiChannel);
+		return aoiChannel;
+	}
 	/**
 	 * get channel by id
 	 * @param id the channel id
@@ -958,6 +1305,8 @@ public class MessageServer extends Server implements Registerable{
 	//
 	@Override
 	public void start() throws Exception {
+		//services are registered before start
+		initStreamCompress();
 		tcpNettyServer.bind(port).sync();
 		if(webSocketNettyServer!=null){
 			webSocketNettyServer.bind(webSocketPort).sync();
@@ -966,11 +1315,17 @@ public class MessageServer extends Server implements Registerable{
 			udpNettyServer.bind(udpPort).sync();
 		}
 		startSessionChecker();
+		if(clusterBroadcaster!=null){
+			clusterBroadcaster.start(this);
+		}
 	}
 	//
 	@Override
 	public void stop() throws Exception {
 		setSessionLifecycleListener(null);
+		if(clusterBroadcaster!=null){
+			clusterBroadcaster.stop();
+		}
 		if(bossGroup!=null){
 			bossGroup.shutdownGracefully();
 			workerGroup.shutdownGracefully();
@@ -991,6 +1346,16 @@ public class MessageServer extends Server implements Registerable{
 		.print("maxSessionCount", maxSessionCount)
 		.print("maxChannelCount", maxChannelCount)
 		.print("maxSessionRequestCountPerSecond", maxSessionRequestCountPerSecond)
+		.print("syncServiceInLane", syncServiceInLane)
+		.print("flushBatchMode", flushBatchMode)
+		.print("flushWindow", flushWindow+" microseconds")
+		.print("compressThreshold", compressThreshold)
+		.print("compressDictionary", compressDictionary)
+		.print("outboundWaterMark", outboundLowWaterMark+"/"+outboundHighWaterMark)
+		.print("maxPendingPushCount", maxPendingPushCount)
+		.print("defaultSlowConsumerPolicy", defaultSlowConsumerPolicy)
+		.print("slowConsumerPolicies", slowConsumerPolicies)
+		.print("clusterBroadcaster", clusterBroadcaster)
 		.print("sessionLifecycleListener", sessionLifecycleListener)
 		.print("serviceFilter", serviceFilter);
 		ib.section("services");
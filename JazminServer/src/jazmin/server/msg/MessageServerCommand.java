@@ -1,9 +1,14 @@
 package jazmin.server.msg;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import jazmin.core.Jazmin;
+import jazmin.misc.io.FlushBatchStat;
+import jazmin.misc.io.SlowConsumerStat;
 import jazmin.server.console.ascii.AsciiChart;
 import jazmin.server.console.ascii.TablePrinter;
 import jazmin.server.console.ascii.TerminalWriter;
@@ -32,6 +37,9 @@ public class MessageServerCommand extends ConsoleCommand {
     	addOption("kick",true,"kick session",this::kickSession);
     	addOption("co",true,"show channel info",this::showChannelInfo); 
     	addOption("net",false,"show network stats.",this::showNetworkStats);
+    	addOption("flush",false,"show flush batch stats.",this::showFlushBatchStats);
+    	addOption("outbound",false,"show slow consumer stats.",this::showOutboundStats);
+    	addOption("cluster",false,"show cluster broadcast stats.",this::showClusterStats);
     	//
     	messageServer=Jazmin.getServer(MessageServer.class);
     }
@@ -84,6 +92,8 @@ public class MessageServerCommand extends ConsoleCommand {
 		out.printf(format,"createTime",formatDate(session.getCreateTime()));
 		out.printf(format,"sentMessageCount",session.getSentMessageCount());
 		out.printf(format,"receiveMessageCount",session.getReceiveMessageCount());
+		out.printf(format,"pendingOutboundBytes",session.getPendingOutboundBytes());
+		out.printf(format,"pendingPushCount",session.getPendingPushCount());
 		
 		out.printf(format,"channels",session.getChannels());
 		out.printf(format,"userObject",DumpUtil.dump(session.getUserObject()));		
@@ -130,6 +140,10 @@ public class MessageServerCommand extends ConsoleCommand {
 				msgType="zjson";
 			}else if(s.getMessageType()==DefaultCodecFactory.FORMAT_AMF){
 				msgType="amf";
+			}else if(s.getMessageType()==DefaultCodecFactory.FORMAT_BINARY){
+				msgType="binary";
+			}else if(s.getMessageType()==DefaultCodecFactory.FORMAT_ZJSON_STREAM){
+				msgType="zjson-stream";
 			}
 			tp.print(
 					s.getId(),
@@ -172,7 +186,13 @@ public class MessageServerCommand extends ConsoleCommand {
     	String format="%-20s: %-10s\n";
 		out.printf(format,"id",channel.getId());
 		out.printf(format,"autoRemoveDisconnectedSession",channel.isAutoRemoveDisconnectedSession());
+		out.printf(format,"clustered",channel.isClustered());
 		out.printf(format,"createTime",formatDate(new Date(channel.getCreateTime())));
+		if(channel instanceof AoiChannel){
+			AoiChannel aoiChannel=(AoiChannel)channel;
+			out.printf(format,"cellSize",aoiChannel.getCellSize());
+			out.printf(format,"cellCount",aoiChannel.getCellCount());
+		}
 		out.printf(format,"userObject",DumpUtil.dump(channel.getUserObject()));	
 		for(Session session:channel.getSessions()){
 			out.printf(format,"session",session.getId()+"#"+session.getPrincipal());
@@ -198,6 +218,76 @@ public class MessageServerCommand extends ConsoleCommand {
     	stdin.read();
     }
     //
+    private void showFlushBatchStats(String args){
+    	FlushBatchStat stat=messageServer.getFlushBatchStat();
+    	out.format("flushBatchMode:%s flushWindow:%sus\n",
+    			messageServer.isFlushBatchMode(),
+    			messageServer.getFlushWindow());
+    	out.format("flushCount:%s messageCount:%s avgBatchSize:%.2f maxBatchSize:%s\n",
+    			stat.flushCount,
+    			stat.messageCount,
+    			stat.avgBatchSize(),
+    			stat.maxBatchSize);
+    	TablePrinter tp=TablePrinter.create(out)
+    			.length(15,15)
+    			.headers("BATCHSIZE","FLUSHCOUNT");
+    	for(int i=0;i<FlushBatchStat.BUCKET_COUNT;i++){
+    		tp.print(FlushBatchStat.getBucketLabel(i),stat.getBucketCount(i));
+    	}
+    }
+    //
+    private void showClusterStats(String args){
+    	ClusterBroadcaster cb=messageServer.getClusterBroadcaster();
+    	if(cb==null){
+    		out.println("cluster broadcaster not set");
+    		return;
+    	}
+    	out.format("peerCluster:%s tickMillis:%s maxBatchSize:%s maxPendingCount:%s\n",
+    			cb.getPeerCluster(),
+    			cb.getTickMillis(),
+    			cb.getMaxBatchSize(),
+    			cb.getMaxPendingCount());
+    	out.format("pending:%s published:%s batch:%s received:%s dropped:%s\n",
+    			cb.getPendingCount(),
+    			cb.getPublishedCount(),
+    			cb.getBatchCount(),
+    			cb.getReceivedCount(),
+    			cb.getDroppedCount());
+    }
+    //
+    private void showOutboundStats(String args){
+    	SlowConsumerStat stat=messageServer.getSlowConsumerStat();
+    	out.format("waterMark:%s/%s maxPendingPushCount:%s defaultPolicy:%s\n",
+    			messageServer.getOutboundLowWaterMark(),
+    			messageServer.getOutboundHighWaterMark(),
+    			messageServer.getMaxPendingPushCount(),
+    			messageServer.getDefaultSlowConsumerPolicy());
+    	out.format("policies:%s\n",messageServer.getSlowConsumerPolicies());
+    	out.format("queued:%s dropped:%s coalesced:%s kicked:%s\n",
+    			stat.queuedCount,
+    			stat.droppedCount,
+    			stat.coalescedCount,
+    			stat.kickedCount);
+    	//top 20 sessions by pending outbound bytes
+    	List<Session> sessions=new ArrayList<>(messageServer.getSessions());
+    	Map<Session,Long>pendingMap=new HashMap<>();
+    	for(Session s:sessions){
+    		pendingMap.put(s,s.getPendingOutboundBytes());
+    	}
+    	sessions.sort((a,b)->Long.compare(pendingMap.get(b),pendingMap.get(a)));
+    	TablePrinter tp=TablePrinter.create(out)
+    			.length(6,48,15,15,10)
+    			.headers("ID","PRINCIPAL","PENDINGBYTES","PENDINGPUSH","CONN");
+    	for(int i=0;i<sessions.size()&&i<20;i++){
+    		Session s=sessions.get(i);
+    		tp.print(s.getId(),
+    				s.getPrincipal(),
+    				pendingMap.get(s),
+    				s.getPendingPushCount(),
+    				s.getConnectionType());
+    	}
+    }
+    //
     private void showNetworkStats(String args)throws Exception{
     	TerminalWriter tw=new TerminalWriter(out);
     	lastInBoundBytes=messageServer.getInBoundBytes();
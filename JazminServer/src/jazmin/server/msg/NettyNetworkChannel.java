@@ -5,18 +5,56 @@ package jazmin.server.msg;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.misc.io.FlushBatchStat;
+import jazmin.misc.io.SlowConsumerStat;
 
 /**
  * @author yama
  *
  */
 public class NettyNetworkChannel implements NetworkChannel{
+	private static Logger logger=LoggerFactory.get(NettyNetworkChannel.class);
+	//
 	private Channel channel;
+	//flush batch state,only accessed in event loop
+	private FlushBatchStat flushBatchStat;
+	private long flushWindow;
+	private int pendingCount;
+	private boolean flushScheduled;
+	private Runnable flushTask;
+	//held pushes of slow consumer,only accessed in event loop
+	private OutboundQueue outboundQueue;
+	private SlowConsumerStat slowConsumerStat;
+	private volatile int pendingPushCount;
+	//
 	public NettyNetworkChannel(Channel chanel) {
 		this.channel=chanel;
 	}
+	/**
+	 * writes are flushed once at end of current event loop tick(flushWindow 0)
+	 * or after flushWindow microseconds
+	 */
+	NettyNetworkChannel(Channel chanel,int flushWindow,FlushBatchStat flushBatchStat) {
+		this.channel=chanel;
+		this.flushWindow=flushWindow;
+		this.flushBatchStat=flushBatchStat;
+		this.flushTask=this::flush;
+	}
+	/**
+	 * enable slow consumer policy on channel
+	 */
+	void setOutboundQueue(OutboundQueue outboundQueue,SlowConsumerStat stat){
+		this.outboundQueue=outboundQueue;
+		this.slowConsumerStat=stat;
+	}
 	//
 	@Override
 	public InetSocketAddress getRemoteAddress() {
@@ -27,14 +65,149 @@ public class NettyNetworkChannel implements NetworkChannel{
 	@Override
 	public void close() {
 		try {
-			channel.close().sync();
+			if(flushBatchStat==null){
+				channel.close().sync();
+				return;
+			}
+			//batched writes not flushed yet must be flushed before close
+			EventLoop eventLoop=channel.eventLoop();
+			if(eventLoop.inEventLoop()){
+				flushAndClose();
+			}else{
+				eventLoop.execute(this::flushAndClose);
+			}
+			channel.closeFuture().sync();
 		} catch (Exception e) {
 		}	
 	}
 	//
+	private void flushAndClose(){
+		if(pendingCount>0){
+			flush();
+		}
+		channel.close();
+	}
+	//
 	@Override
 	public void writeAndFlush(Object obj) {
-		channel.writeAndFlush(obj);
+		if(flushBatchStat==null){
+			channel.writeAndFlush(obj);
+			return;
+		}
+		EventLoop eventLoop=channel.eventLoop();
+		if(eventLoop.inEventLoop()){
+			write(obj);
+		}else{
+			eventLoop.execute(()->write(obj));
+		}
+	}
+	//
+	@Override
+	public void writePush(String serviceId, Object obj) {
+		if(outboundQueue==null){
+			writeAndFlush(obj);
+			return;
+		}
+		EventLoop eventLoop=channel.eventLoop();
+		if(eventLoop.inEventLoop()){
+			push(serviceId,obj);
+		}else{
+			eventLoop.execute(()->push(serviceId,obj));
+		}
+	}
+	//
+	private void push(String serviceId,Object obj){
+		if(!channel.isActive()){
+			ReferenceCountUtil.release(obj);
+			return;
+		}
+		if(channel.isWritable()&&outboundQueue.isEmpty()){
+			write0(obj);
+			return;
+		}
+		SlowConsumerPolicy policy=outboundQueue.getPolicy(serviceId);
+		switch (policy) {
+		case WRITE:
+			write0(obj);
+			break;
+		case KICK:
+			ReferenceCountUtil.release(obj);
+			slowConsumerStat.kickedCount.increment();
+			logger.warn("kick slow consumer {} pendingBytes:{}",
+					channel.remoteAddress(),getPendingOutboundBytes());
+			channel.close();
+			break;
+		default:
+			outboundQueue.offer(policy,serviceId,obj);
+			pendingPushCount=outboundQueue.size();
+			break;
+		}
+	}
+	/**
+	 * called in event loop when channel writability changed,held pushes
+	 * are written until channel is not writable
+	 */
+	void writabilityChanged(){
+		if(outboundQueue==null){
+			return;
+		}
+		Object obj;
+		while(channel.isWritable()&&(obj=outboundQueue.poll())!=null){
+			write0(obj);
+		}
+		pendingPushCount=outboundQueue.size();
+	}
+	/**
+	 * called in event loop when channel closed
+	 */
+	void closed(){
+		if(outboundQueue!=null){
+			outboundQueue.clear();
+			pendingPushCount=0;
+		}
+	}
+	//
+	private void write0(Object obj){
+		if(flushBatchStat==null){
+			channel.writeAndFlush(obj);
+		}else{
+			write(obj);
+		}
+	}
+	//
+	@Override
+	public long getPendingOutboundBytes() {
+		ChannelOutboundBuffer buffer=channel.unsafe().outboundBuffer();
+		return buffer==null?0:buffer.totalPendingWriteBytes();
+	}
+	//
+	@Override
+	public int getPendingPushCount() {
+		return pendingPushCount;
+	}
+	//
+	private void write(Object obj){
+		channel.write(obj);
+		pendingCount++;
+		if(flushScheduled){
+			return;
+		}
+		flushScheduled=true;
+		if(flushWindow<=0){
+			channel.eventLoop().execute(flushTask);
+		}else{
+			channel.eventLoop().schedule(flushTask,flushWindow,TimeUnit.MICROSECONDS);
+		}
+	}
+	//
+	private void flush(){
+		flushScheduled=false;
+		if(pendingCount==0){
+			//already flushed by close
+			return;
+		}
+		flushBatchStat.flush(pendingCount);
+		pendingCount=0;
+		channel.flush();
 	}
-	
 }
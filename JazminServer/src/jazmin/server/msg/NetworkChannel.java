@@ -11,5 +11,23 @@ public interface NetworkChannel {
 	InetSocketAddress getRemoteAddress();
 	void close();
 	void writeAndFlush(Object obj);
-	
+	/**
+	 * write push message,push may be held,dropped or coalesced when peer 
+	 * is slow(see SlowConsumerPolicy)
+	 */
+	default void writePush(String serviceId,Object obj){
+		writeAndFlush(obj);
+	}
+	/**
+	 * @return bytes written but not yet sent to peer
+	 */
+	default long getPendingOutboundBytes(){
+		return 0;
+	}
+	/**
+	 * @return count of push messages held by slow consumer policy
+	 */
+	default int getPendingPushCount(){
+		return 0;
+	}
 }
@@ -0,0 +1,118 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.netty.util.ReferenceCountUtil;
+import jazmin.misc.io.SlowConsumerStat;
+
+/**
+ * push messages held while channel is not writable.only accessed in event
+ * loop of channel.
+ */
+class OutboundQueue {
+	private static class Entry{
+		String serviceId;
+		Object message;
+		Entry(String serviceId,Object message){
+			this.serviceId=serviceId;
+			this.message=message;
+		}
+	}
+	//
+	private final Map<String,SlowConsumerPolicy>policies;
+	private final SlowConsumerPolicy defaultPolicy;
+	private final int maxPendingPushCount;
+	private final SlowConsumerStat stat;
+	private final ArrayDeque<Entry>queue;
+	private final Map<String,Integer>pendingCounts;
+	//
+	OutboundQueue(Map<String,SlowConsumerPolicy>policies,
+			SlowConsumerPolicy defaultPolicy,
+			int maxPendingPushCount,
+			SlowConsumerStat stat) {
+		this.policies=policies;
+		this.defaultPolicy=defaultPolicy;
+		this.maxPendingPushCount=maxPendingPushCount;
+		this.stat=stat;
+		this.queue=new ArrayDeque<>();
+		this.pendingCounts=new HashMap<>();
+	}
+	//
+	SlowConsumerPolicy getPolicy(String serviceId){
+		SlowConsumerPolicy p=policies.get(serviceId);
+		return p==null?defaultPolicy:p;
+	}
+	//
+	boolean isEmpty(){
+		return queue.isEmpty();
+	}
+	//
+	int size(){
+		return queue.size();
+	}
+	/**
+	 * hold push message,DROP_OLDEST and COALESCE policy only
+	 */
+	void offer(SlowConsumerPolicy policy,String serviceId,Object message){
+		stat.queuedCount.increment();
+		if(policy==SlowConsumerPolicy.COALESCE){
+			for(Entry e:queue){
+				if(e.serviceId.equals(serviceId)){
+					ReferenceCountUtil.release(e.message);
+					e.message=message;
+					stat.coalescedCount.increment();
+					return;
+				}
+			}
+		}
+		queue.addLast(new Entry(serviceId, message));
+		Integer count=pendingCounts.get(serviceId);
+		count=(count==null)?1:count+1;
+		pendingCounts.put(serviceId,count);
+		if(policy==SlowConsumerPolicy.DROP_OLDEST&&count>maxPendingPushCount){
+			Iterator<Entry>it=queue.iterator();
+			while(it.hasNext()){
+				Entry e=it.next();
+				if(e.serviceId.equals(serviceId)){
+					it.remove();
+					pendingCounts.put(serviceId,count-1);
+					ReferenceCountUtil.release(e.message);
+					stat.droppedCount.increment();
+					break;
+				}
+			}
+		}
+	}
+	/**
+	 * @return oldest held message or null if queue is empty
+	 */
+	Object poll(){
+		Entry e=queue.pollFirst();
+		if(e==null){
+			return null;
+		}
+		Integer count=pendingCounts.get(e.serviceId);
+		if(count==null||count<=1){
+			pendingCounts.remove(e.serviceId);
+		}else{
+			pendingCounts.put(e.serviceId,count-1);
+		}
+		return e.message;
+	}
+	/**
+	 * release all held messages
+	 */
+	void clear(){
+		Entry e;
+		while((e=queue.pollFirst())!=null){
+			ReferenceCountUtil.release(e.message);
+		}
+		pendingCounts.clear();
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.util.TypeUtils;
+
+/**
+ * binds request parameters to service method arguments.extractor of each
+ * parameter is resolved once when service registered.supported types are
+ * String,primitive and wrapper of boolean/short/int/long/float/double,enum
+ * (name or ordinal) and POJO with public no-arg constructor(json object).
+ */
+class ParameterBinder {
+	@FunctionalInterface
+	interface Extractor{
+		Object extract(Context context,int idx) throws Exception;
+	}
+	//
+	private final Class<?>types[];
+	private final Extractor extractors[];
+	//
+	private ParameterBinder(Class<?>types[],Extractor extractors[]) {
+		this.types=types;
+		this.extractors=extractors;
+	}
+	/**
+	 * @return binder of method or null if parameter type not supported,
+	 * first parameter of method must be Context
+	 */
+	static ParameterBinder compile(Method m){
+		Class<?>pTypes[]=m.getParameterTypes();
+		Extractor extractors[]=new Extractor[pTypes.length];
+		for(int i=1;i<pTypes.length;i++){
+			extractors[i]=getExtractor(pTypes[i]);
+			if(extractors[i]==null){
+				return null;
+			}
+		}
+		return new ParameterBinder(pTypes,extractors);
+	}
+	//
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Extractor getExtractor(Class<?>type){
+		if(type==String.class){
+			return Context::getString;
+		}
+		if(type==Integer.class||type==int.class){
+			return Context::getInteger;
+		}
+		if(type==Long.class||type==long.class){
+			return Context::getLong;
+		}
+		if(type==Boolean.class||type==boolean.class){
+			return Context::getBoolean;
+		}
+		if(type==Short.class||type==short.class){
+			return Context::getShort;
+		}
+		if(type==Double.class||type==double.class){
+			return Context::getDouble;
+		}
+		if(type==Float.class||type==float.class){
+			return Context::getFloat;
+		}
+		if(type.isEnum()){
+			Object constants[]=type.getEnumConstants();
+			Class<? extends Enum>enumType=(Class<? extends Enum>)type;
+			return (ctx,idx)->{
+				Object o=ctx.getParameter(idx);
+				if(o==null){
+					return null;
+				}
+				int ordinal;
+				if(o instanceof Number){
+					ordinal=((Number)o).intValue();
+				}else{
+					String s=o.toString();
+					//enum name can not start with digit,text formats send 
+					//ordinal as string
+					if(s.isEmpty()||!Character.isDigit(s.charAt(0))){
+						return Enum.valueOf(enumType,s);
+					}
+					ordinal=Integer.parseInt(s);
+				}
+				if(ordinal<0||ordinal>=constants.length){
+					throw new IllegalArgumentException("bad ordinal "+ordinal+
+							" of "+type.getSimpleName());
+				}
+				return constants[ordinal];
+			};
+		}
+		if(isPojo(type)){
+			return (ctx,idx)->{
+				Object o=ctx.getParameter(idx);
+				if(o==null){
+					return null;
+				}
+				if(o instanceof String){
+					return JSON.parseObject((String)o,type);
+				}
+				//map of binary format
+				return TypeUtils.castToJavaBean(o,type);
+			};
+		}
+		return null;
+	}
+	//
+	private static boolean isPojo(Class<?>type){
+		if(type.isPrimitive()||type.isArray()||type.isInterface()||
+				Modifier.isAbstract(type.getModifiers())||
+				!Modifier.isPublic(type.getModifiers())||
+				type.getName().startsWith("java.")){
+			return false;
+		}
+		try {
+			return Modifier.isPublic(type.getConstructor().getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+	/**
+	 * @return parameter types of method
+	 */
+	Class<?>[] getTypes(){
+		return types;
+	}
+	/**
+	 * extract parameters into args,args[0] is context
+	 * @return index of missing parameter or -1
+	 */
+	int bind(Context context,Object args[]) throws Exception{
+		args[0]=context;
+		for(int i=1;i<extractors.length;i++){
+			args[i]=extractors[i].extract(context,i-1);
+			if(args[i]==null){
+				return i;
+			}
+		}
+		return -1;
+	}
+}
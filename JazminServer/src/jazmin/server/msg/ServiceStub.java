@@ -5,6 +5,8 @@ package jazmin.server.msg;
 
 import java.lang.reflect.Method;
 
+import jazmin.core.thread.MethodInvoker;
+
 /**
  * @author yama
  * 26 Dec, 2014
@@ -13,10 +15,12 @@ public class ServiceStub implements Comparable<ServiceStub>{
 	public String serviceId;
 	public Object instance;
 	public Method method;
+	public MethodInvoker invoker;
 	public boolean isSyncOnSessionService;
 	public boolean isDisableResponseService;
 	public boolean isContinuationService;
 	public boolean isRestrictRequestRate;
+	ParameterBinder binder;
 
 	
 	@Override
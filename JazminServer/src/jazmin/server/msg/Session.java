@@ -15,6 +15,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.netty.buffer.ByteBuf;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.RateLimiter;
@@ -141,6 +142,20 @@ public class Session {
 	public int getRemotePort() {
 		return remotePort;
 	}
+	/**
+	 * @return bytes written to session but not yet sent
+	 */
+	public long getPendingOutboundBytes(){
+		NetworkChannel channel=this.channel;
+		return channel==null?0:channel.getPendingOutboundBytes();
+	}
+	/**
+	 * @return count of push messages held by slow consumer policy
+	 */
+	public int getPendingPushCount(){
+		NetworkChannel channel=this.channel;
+		return channel==null?0:channel.getPendingPushCount();
+	}
 	/**
 	 * @return last access time
 	 */
@@ -318,8 +333,25 @@ public class Session {
 			if(responseMessage.responseObject==null){
 				responseMessage.responseObject=ResponseMessage.emptyHashMap;
 			}
-			channel.writeAndFlush(responseMessage);
+			if(responseMessage.requestId==0){
+				channel.writePush(responseMessage.serviceId,responseMessage);
+			}else{
+				channel.writeAndFlush(responseMessage);
+			}
+		}
+	}
+	/**
+	 * send encoded push frame,frame is released after written
+	 */
+	void sendFrame(String serviceId,ByteBuf frame){
+		NetworkChannel channel=this.channel;
+		if(channel==null){
+			frame.release();
+			return;
 		}
+		lastAccess();
+		sentMessageCount++;
+		channel.writePush(serviceId,frame);
 	}
 	//
 	@Override
@@ -0,0 +1,20 @@
+/**
+ *
+ */
+package jazmin.server.msg;
+
+/**
+ * what to do with push message when outbound buffer of session is above 
+ * high water mark.responses of requests are always written.
+ */
+public enum SlowConsumerPolicy {
+	/**write anyway,netty outbound buffer keeps growing*/
+	WRITE,
+	/**hold pushes until writable,oldest pending push of same service id is 
+	 * dropped when pending count exceed maxPendingPushCount*/
+	DROP_OLDEST,
+	/**hold pushes until writable,only latest push of same service id is kept*/
+	COALESCE,
+	/**close session*/
+	KICK
+}
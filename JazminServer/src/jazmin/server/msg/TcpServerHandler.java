@@ -29,10 +29,22 @@ public class TcpServerHandler extends ChannelHandlerAdapter{
     public void channelInactive(ChannelHandlerContext ctx) 
     		throws Exception {
     	Session session=ctx.channel().attr(SESSION_KEY).get();
+    	if(session!=null&&session.channel instanceof NettyNetworkChannel){
+    		((NettyNetworkChannel)session.channel).closed();
+    	}
     	messageServer.sessionDisconnected(session);
 	}
 	//
 	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx)
+			throws Exception {
+		Session session=ctx.channel().attr(SESSION_KEY).get();
+		if(session!=null&&session.channel instanceof NettyNetworkChannel){
+			((NettyNetworkChannel)session.channel).writabilityChanged();
+		}
+	}
+	//
+	@Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) 
     		throws Exception {
 		//
@@ -44,7 +56,7 @@ public class TcpServerHandler extends ChannelHandlerAdapter{
 	@Override
 	public void channelActive(ChannelHandlerContext ctx) 
 			throws Exception {
-		Session session=new Session(new NettyNetworkChannel(ctx.channel()));
+		Session session=new Session(messageServer.createNetworkChannel(ctx.channel()));
 		ctx.channel().attr(SESSION_KEY).set(session);
 		messageServer.sessionCreated(session);
 	}
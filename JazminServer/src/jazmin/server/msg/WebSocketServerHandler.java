@@ -148,13 +148,25 @@ public class WebSocketServerHandler extends SimpleChannelInboundHandler<Object>
 	@Override
 	public void channelInactive(ChannelHandlerContext ctx) throws Exception {
 		Session session = ctx.channel().attr(SESSION_KEY).get();
+		if(session!=null&&session.channel instanceof NettyNetworkChannel){
+			((NettyNetworkChannel)session.channel).closed();
+		}
 		messageServer.sessionDisconnected(session);
 	}
 	//
 	@Override
+	public void channelWritabilityChanged(ChannelHandlerContext ctx)
+			throws Exception {
+		Session session = ctx.channel().attr(SESSION_KEY).get();
+		if(session!=null&&session.channel instanceof NettyNetworkChannel){
+			((NettyNetworkChannel)session.channel).writabilityChanged();
+		}
+	}
+	//
+	@Override
 	public void channelActive(ChannelHandlerContext ctx) throws Exception {
 		WebSocketSession session = new WebSocketSession(
-				new NettyNetworkChannel(ctx.channel()),
+				messageServer.createNetworkChannel(ctx.channel()),
 				messageServer);
 		ctx.channel().attr(SESSION_KEY).set(session);
 		messageServer.sessionCreated(session);
@@ -3,6 +3,7 @@
  */
 package jazmin.server.msg.client;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,6 +23,7 @@ import jazmin.misc.io.NetworkTrafficStat;
 import jazmin.server.msg.codec.DefaultCodecFactory;
 import jazmin.server.msg.codec.RequestMessage;
 import jazmin.server.msg.codec.ResponseMessage;
+import jazmin.server.msg.codec.StreamDeflater;
 import jazmin.server.rpc.RpcException;
 import jazmin.util.DumpUtil;
 
@@ -38,6 +40,7 @@ public class MessageClient {
 	private Map<Integer,RPCLock> lockMap;
 	private int timeout=5000;//5 sec timeout
 	private AtomicInteger messageId;
+	private byte compressDictionary[];
 	//
 	public static int MESSAGE_TYPE=DefaultCodecFactory.FORMAT_JSON;
 	//
@@ -59,7 +62,7 @@ public class MessageClient {
 			public void initChannel(SocketChannel sc) throws Exception {
 				sc.pipeline().addLast(
 							new MessageEncoder(networkTrafficStat), 
-							new MessageDecoder(networkTrafficStat),
+							new MessageDecoder(networkTrafficStat,compressDictionary),
 							clientHandler);
 				
 			}
@@ -72,6 +75,13 @@ public class MessageClient {
         .option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, 8*1024)
 		.handler(channelInitializer);
 	}
+	/**
+	 * set zjson-stream dictionary words,must be same as words of server
+	 * (see MessageServer.getCompressDictionaryWords)
+	 */
+	public void setCompressDictionary(List<String>words){
+		compressDictionary=StreamDeflater.buildDictionary(words);
+	}
 	//
 	public void connect(String host,int port){
 		try {
@@ -95,6 +105,10 @@ public class MessageClient {
 	}
 	//
 	public void send(int msgId,String serviceId,String[] args){
+		send(msgId,serviceId,args,null);
+	}
+	//
+	private void send(int msgId,String serviceId,String[] args,Object[]typedArgs){
 		RequestMessage msg=new RequestMessage();
 		msg.requestId=msgId;
 		msg.messageType=MESSAGE_TYPE;
@@ -102,6 +116,7 @@ public class MessageClient {
 		if(args!=null){
 			msg.requestParameters=args;
 		}
+		msg.requestObjects=typedArgs;
 		if(logger.isDebugEnabled()){
 			logger.debug(">>>>>>>>\n"+DumpUtil.dump(msg));
 		}
@@ -115,11 +130,27 @@ public class MessageClient {
 	}
 	//
 	public ResponseMessage invokeSync(String serviceId,String[] args){
+		return invokeSync(serviceId, args, null);
+	}
+	/**
+	 * invoke with typed arguments,arguments keep their types only in
+	 * FORMAT_BINARY,other formats send them as strings
+	 */
+	public ResponseMessage invokeSync(String serviceId,Object[] args){
+		String stringArgs[]=new String[args==null?0:args.length];
+		for(int i=0;i<stringArgs.length;i++){
+			stringArgs[i]=args[i]==null?null:args[i].toString();
+		}
+		return invokeSync(serviceId, stringArgs,
+				MESSAGE_TYPE==DefaultCodecFactory.FORMAT_BINARY?args:null);
+	}
+	//
+	private ResponseMessage invokeSync(String serviceId,String[] args,Object[]typedArgs){
 		RPCLock lock=new RPCLock();
 		lock.startTime=System.currentTimeMillis();
 		lock.id=messageId.incrementAndGet();
 		lockMap.put(lock.id,lock);
-		send(lock.id,serviceId,args);
+		send(lock.id,serviceId,args,typedArgs);
 		synchronized (lock) {
 			try {
 				while(lock.response==null){
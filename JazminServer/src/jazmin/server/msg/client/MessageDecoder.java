@@ -4,14 +4,17 @@ import java.nio.charset.Charset;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.CorruptedFrameException;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.msg.codec.BinaryCodec;
 import jazmin.server.msg.codec.DefaultCodecFactory;
 import jazmin.server.msg.codec.ResponseMessage;
+import jazmin.server.msg.codec.StreamInflater;
 import jazmin.util.DumpUtil;
 import jazmin.util.IOUtil;
 /**
@@ -23,6 +26,7 @@ public class MessageDecoder extends ByteToMessageDecoder {
 	//
 	private static final int MAX_MESSAGE_LENGTH = 1024 * 10;
 	NetworkTrafficStat networkTrafficStat;
+	private StreamInflater streamInflater;
 	private static Charset charset=Charset.forName("UTF-8");
 	//
 	private static Logger logger=LoggerFactory.get(MessageDecoder.class);
@@ -30,10 +34,26 @@ public class MessageDecoder extends ByteToMessageDecoder {
 	public MessageDecoder(NetworkTrafficStat networkTrafficStat) {
 	    this.networkTrafficStat=networkTrafficStat;
 	}
+	/**
+	 * @param compressDictionary preset dictionary of zjson-stream,must be 
+	 * same as server's
+	 */
+	public MessageDecoder(NetworkTrafficStat networkTrafficStat,
+			byte compressDictionary[]) {
+	    this.networkTrafficStat=networkTrafficStat;
+	    this.streamInflater=new StreamInflater(compressDictionary);
+	}
 	//
 	public static ResponseMessage decode0(
 			ByteBuf in,
 			NetworkTrafficStat networkTrafficStat) throws Exception {
+		return decode0(in, networkTrafficStat, null);
+	}
+	//
+	public static ResponseMessage decode0(
+			ByteBuf in,
+			NetworkTrafficStat networkTrafficStat,
+			StreamInflater streamInflater) throws Exception {
 		if (in.readableBytes() < 4) {
 			return null;
 		}
@@ -75,6 +95,11 @@ public class MessageDecoder extends ByteToMessageDecoder {
 			decodeJson(msg,payloadBytes);
 		}else if (messageType == DefaultCodecFactory.FORMAT_ZJSON) {
 			decodeZJson(msg,payloadBytes);
+		}else if (messageType == DefaultCodecFactory.FORMAT_BINARY) {
+			decodeBinary(msg,payloadBytes);
+		}else if (messageType == DefaultCodecFactory.FORMAT_ZJSON_STREAM
+				&&streamInflater!=null) {
+			decodeJson(msg,streamInflater.inflate(payloadBytes));
 		}else{
 			throw new CorruptedFrameException("bad message format:" + messageType);
 		}
@@ -89,13 +114,21 @@ public class MessageDecoder extends ByteToMessageDecoder {
 	@Override
 	protected void decode(ChannelHandlerContext ctx, ByteBuf in,
 			List<Object> out) throws Exception {
-		ResponseMessage msg=decode0(in, networkTrafficStat);
+		ResponseMessage msg=decode0(in, networkTrafficStat,streamInflater);
 		if(msg!=null){
 			out.add(msg);
 		}
 		
 	}
 	//
+	@Override
+	protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+		if(streamInflater!=null){
+			streamInflater.end();
+			streamInflater=null;
+		}
+	}
+	//
 	protected static void decodeJson(ResponseMessage msg,byte[]payload)throws Exception{
 		msg.responseObject=new String(payload,charset);
 	}
@@ -103,5 +136,9 @@ public class MessageDecoder extends ByteToMessageDecoder {
 	protected static void  decodeZJson(ResponseMessage msg,byte[]payload)throws Exception{
 		decodeJson(msg,IOUtil.decompress(payload));
 	}
+	//
+	protected static void decodeBinary(ResponseMessage msg,byte[]payload)throws Exception{
+		msg.responseObject=new BinaryCodec(Unpooled.wrappedBuffer(payload)).read();
+	}
 	
 }
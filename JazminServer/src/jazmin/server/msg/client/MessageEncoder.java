@@ -5,6 +5,7 @@ import java.nio.charset.Charset;
 import com.alibaba.fastjson.JSON;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.CorruptedFrameException;
@@ -12,6 +13,7 @@ import io.netty.handler.codec.MessageToByteEncoder;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.msg.codec.BinaryCodec;
 import jazmin.server.msg.codec.DefaultCodecFactory;
 import jazmin.server.msg.codec.RequestMessage;
 import jazmin.util.IOUtil;
@@ -40,10 +42,13 @@ public class MessageEncoder extends MessageToByteEncoder<RequestMessage> {
 			ByteBuf out,
 			NetworkTrafficStat networkTrafficStat) throws Exception{
 		byte body[]=null;
-		if(msg.messageType==DefaultCodecFactory.FORMAT_JSON){
+		if(msg.messageType==DefaultCodecFactory.FORMAT_JSON||
+				msg.messageType==DefaultCodecFactory.FORMAT_ZJSON_STREAM){
 			body=encodeJson(msg);
 		}else if(msg.messageType==DefaultCodecFactory.FORMAT_ZJSON){
 			body=encodeZJson(msg);
+		}else if(msg.messageType==DefaultCodecFactory.FORMAT_BINARY){
+			body=encodeBinary(msg);
 		}else{
 			throw new CorruptedFrameException("bad message type:"+msg.messageType);
 		}
@@ -93,4 +98,16 @@ public class MessageEncoder extends MessageToByteEncoder<RequestMessage> {
 	protected static byte[] encodeZJson(RequestMessage msg) throws Exception {
 		return IOUtil.compress(encodeJson(msg));
 	}
+	//
+	protected static byte[] encodeBinary(RequestMessage msg) throws Exception {
+		Object parameters[]=msg.requestObjects;
+		if(parameters==null){
+			parameters=msg.requestParameters;
+		}
+		ByteBuf buf=Unpooled.buffer(64);
+		new BinaryCodec(buf).writeParameters(parameters);
+		byte body[]=new byte[buf.readableBytes()];
+		buf.readBytes(body);
+		return body;
+	}
 }
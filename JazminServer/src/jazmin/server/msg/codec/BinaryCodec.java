@@ -0,0 +1,408 @@
+/**
+ *
+ */
+package jazmin.server.msg.codec;
+
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * compact typed binary payload used by FORMAT_BINARY.
+ *<pre>
+ * value		type tag(1) body
+ * NULL/FALSE/TRUE	no body
+ * INT/LONG		zigzag varint
+ * FLOAT/DOUBLE		4/8 bytes ieee754
+ * STRING/BYTES		varint length,utf8 bytes/raw bytes
+ * LIST			varint count,values
+ * MAP			varint count,(field id,value)...
+ * field id		varint,(index<<1|1) refer to name already sent in
+ * 			this message,(length<<1) followed by utf8 name
+ * request payload	LIST of parameters
+ * response payload	value
+ *</pre>
+ * java objects are written as MAP of public fields and bean properties
+ * sorted by name,null properties are skipped.field names are sent once per
+ * message so list of objects only carry field ids.
+ */
+public class BinaryCodec {
+	public static final int TYPE_NULL=0;
+	public static final int TYPE_FALSE=1;
+	public static final int TYPE_TRUE=2;
+	public static final int TYPE_INT=3;
+	public static final int TYPE_LONG=4;
+	public static final int TYPE_FLOAT=5;
+	public static final int TYPE_DOUBLE=6;
+	public static final int TYPE_STRING=7;
+	public static final int TYPE_BYTES=8;
+	public static final int TYPE_LIST=9;
+	public static final int TYPE_MAP=10;
+	//
+	private static final int MAX_DEPTH=64;
+	private static Charset charset=Charset.forName("UTF-8");
+	private static Map<Class<?>,ClassSchema>schemaMap=new ConcurrentHashMap<>();
+	//
+	private final ByteBuf buf;
+	private Map<String,Integer>writeNames;
+	private List<String>readNames;
+	private int depth;
+	//
+	public BinaryCodec(ByteBuf buf) {
+		this.buf=buf;
+	}
+	//--------------------------------------------------------------------------
+	/**
+	 * write request parameters as list
+	 */
+	public void writeParameters(Object parameters[]){
+		if(parameters==null){
+			parameters=new Object[0];
+		}
+		buf.writeByte(TYPE_LIST);
+		writeVarInt(buf,parameters.length);
+		for(Object o:parameters){
+			write(o);
+		}
+	}
+	/**
+	 * read request parameters
+	 */
+	public Object[] readParameters(){
+		Object o=read();
+		if(!(o instanceof List)){
+			throw new CorruptedFrameException("parameters must be list");
+		}
+		List<?>list=(List<?>)o;
+		if(list.size()>RequestMessage.MAX_PARAMETER_COUNT){
+			throw new CorruptedFrameException("too many parameters:"+list.size());
+		}
+		return list.toArray();
+	}
+	//
+	@SuppressWarnings("unchecked")
+	public void write(Object o){
+		if(o==null){
+			buf.writeByte(TYPE_NULL);
+		}else if(o instanceof String){
+			writeBytes(TYPE_STRING,((String)o).getBytes(charset));
+		}else if(o instanceof Integer||o instanceof Short||o instanceof Byte){
+			buf.writeByte(TYPE_INT);
+			writeVarInt(buf,zigzag(((Number)o).intValue()));
+		}else if(o instanceof Long){
+			buf.writeByte(TYPE_LONG);
+			writeVarLong(buf,zigzag((Long)o));
+		}else if(o instanceof Boolean){
+			buf.writeByte(((Boolean)o)?TYPE_TRUE:TYPE_FALSE);
+		}else if(o instanceof Double){
+			buf.writeByte(TYPE_DOUBLE);
+			buf.writeDouble((Double)o);
+		}else if(o instanceof Float){
+			buf.writeByte(TYPE_FLOAT);
+			buf.writeFloat((Float)o);
+		}else if(o instanceof byte[]){
+			writeBytes(TYPE_BYTES,(byte[])o);
+		}else if(o instanceof Character||o instanceof Enum||
+				o instanceof Number){
+			//BigDecimal,BigInteger keep precision as string
+			write(o instanceof Enum?((Enum<?>)o).name():o.toString());
+		}else if(o instanceof Date){
+			buf.writeByte(TYPE_LONG);
+			writeVarLong(buf,zigzag(((Date)o).getTime()));
+		}else{
+			if(++depth>MAX_DEPTH){
+				throw new IllegalArgumentException("object too deep,max depth "+MAX_DEPTH);
+			}
+			if(o instanceof Collection){
+				Collection<Object>c=(Collection<Object>)o;
+				buf.writeByte(TYPE_LIST);
+				writeVarInt(buf,c.size());
+				for(Object e:c){
+					write(e);
+				}
+			}else if(o.getClass().isArray()){
+				int length=Array.getLength(o);
+				buf.writeByte(TYPE_LIST);
+				writeVarInt(buf,length);
+				for(int i=0;i<length;i++){
+					write(Array.get(o, i));
+				}
+			}else if(o instanceof Map){
+				Map<Object,Object>m=(Map<Object,Object>)o;
+				buf.writeByte(TYPE_MAP);
+				writeVarInt(buf,m.size());
+				for(Map.Entry<Object,Object>e:m.entrySet()){
+					writeName(String.valueOf(e.getKey()));
+					write(e.getValue());
+				}
+			}else{
+				writeObject(o);
+			}
+			depth--;
+		}
+	}
+	//
+	private void writeObject(Object o){
+		ClassSchema schema=getSchema(o.getClass());
+		Object values[]=new Object[schema.names.length];
+		int count=0;
+		for(int i=0;i<values.length;i++){
+			values[i]=schema.get(i, o);
+			if(values[i]!=null){
+				count++;
+			}
+		}
+		buf.writeByte(TYPE_MAP);
+		writeVarInt(buf,count);
+		for(int i=0;i<values.length;i++){
+			if(values[i]!=null){
+				writeName(schema.names[i]);
+				write(values[i]);
+			}
+		}
+	}
+	//
+	private void writeBytes(int type,byte bytes[]){
+		buf.writeByte(type);
+		writeVarInt(buf,bytes.length);
+		buf.writeBytes(bytes);
+	}
+	//
+	private void writeName(String name){
+		if(writeNames==null){
+			writeNames=new HashMap<>();
+		}
+		Integer idx=writeNames.get(name);
+		if(idx!=null){
+			writeVarInt(buf,(idx<<1)|1);
+			return;
+		}
+		writeNames.put(name,writeNames.size());
+		byte bytes[]=name.getBytes(charset);
+		writeVarInt(buf,bytes.length<<1);
+		buf.writeBytes(bytes);
+	}
+	//--------------------------------------------------------------------------
+	/**
+	 * read value,objects are read as map
+	 */
+	public Object read(){
+		int type=buf.readUnsignedByte();
+		switch (type) {
+		case TYPE_NULL:
+			return null;
+		case TYPE_FALSE:
+			return Boolean.FALSE;
+		case TYPE_TRUE:
+			return Boolean.TRUE;
+		case TYPE_INT:
+			return unzigzag(readVarInt(buf));
+		case TYPE_LONG:
+			return unzigzag(readVarLong(buf));
+		case TYPE_FLOAT:
+			return buf.readFloat();
+		case TYPE_DOUBLE:
+			return buf.readDouble();
+		case TYPE_STRING:
+			return readString(readLength());
+		case TYPE_BYTES:
+			byte bytes[]=new byte[readLength()];
+			buf.readBytes(bytes);
+			return bytes;
+		case TYPE_LIST:
+			return readList();
+		case TYPE_MAP:
+			return readMap();
+		default:
+			throw new CorruptedFrameException("bad value type:"+type);
+		}
+	}
+	//
+	private List<Object> readList(){
+		if(++depth>MAX_DEPTH){
+			throw new CorruptedFrameException("object too deep");
+		}
+		int count=readLength();
+		List<Object>list=new ArrayList<>(count);
+		for(int i=0;i<count;i++){
+			list.add(read());
+		}
+		depth--;
+		return list;
+	}
+	//
+	private Map<String,Object> readMap(){
+		if(++depth>MAX_DEPTH){
+			throw new CorruptedFrameException("object too deep");
+		}
+		int count=readLength();
+		Map<String,Object>map=new LinkedHashMap<>();
+		for(int i=0;i<count;i++){
+			String name=readName();
+			map.put(name,read());
+		}
+		depth--;
+		return map;
+	}
+	//
+	private String readName(){
+		if(readNames==null){
+			readNames=new ArrayList<>();
+		}
+		int id=readVarInt(buf);
+		if((id&1)==1){
+			int idx=id>>>1;
+			if(idx>=readNames.size()){
+				throw new CorruptedFrameException("bad field id:"+idx);
+			}
+			return readNames.get(idx);
+		}
+		int length=id>>>1;
+		checkLength(length);
+		String name=readString(length);
+		readNames.add(name);
+		return name;
+	}
+	//
+	private String readString(int length){
+		String s=buf.toString(buf.readerIndex(),length,charset);
+		buf.skipBytes(length);
+		return s;
+	}
+	//
+	private int readLength(){
+		int length=readVarInt(buf);
+		checkLength(length);
+		return length;
+	}
+	//
+	private void checkLength(int length){
+		//each element takes at least one byte
+		if(length<0||length>buf.readableBytes()){
+			throw new CorruptedFrameException("bad length:"+length);
+		}
+	}
+	//--------------------------------------------------------------------------
+	static int zigzag(int v){
+		return (v<<1)^(v>>31);
+	}
+	//
+	static long zigzag(long v){
+		return (v<<1)^(v>>63);
+	}
+	//
+	static int unzigzag(int v){
+		return (v>>>1)^-(v&1);
+	}
+	//
+	static long unzigzag(long v){
+		return (v>>>1)^-(v&1);
+	}
+	//
+	public static void writeVarInt(ByteBuf buf,int v){
+		while((v&~0x7f)!=0){
+			buf.writeByte((v&0x7f)|0x80);
+			v>>>=7;
+		}
+		buf.writeByte(v);
+	}
+	//
+	public static void writeVarLong(ByteBuf buf,long v){
+		while((v&~0x7fL)!=0){
+			buf.writeByte((int)(v&0x7f)|0x80);
+			v>>>=7;
+		}
+		buf.writeByte((int)v);
+	}
+	//
+	public static int readVarInt(ByteBuf buf){
+		int v=0;
+		for(int shift=0;shift<35;shift+=7){
+			int b=buf.readUnsignedByte();
+			v|=(b&0x7f)<<shift;
+			if((b&0x80)==0){
+				return v;
+			}
+		}
+		throw new CorruptedFrameException("bad varint");
+	}
+	//
+	public static long readVarLong(ByteBuf buf){
+		long v=0;
+		for(int shift=0;shift<70;shift+=7){
+			int b=buf.readUnsignedByte();
+			v|=(long)(b&0x7f)<<shift;
+			if((b&0x80)==0){
+				return v;
+			}
+		}
+		throw new CorruptedFrameException("bad varint");
+	}
+	//--------------------------------------------------------------------------
+	private static ClassSchema getSchema(Class<?>clazz){
+		ClassSchema schema=schemaMap.get(clazz);
+		if(schema==null){
+			schema=new ClassSchema(clazz);
+			schemaMap.put(clazz, schema);
+		}
+		return schema;
+	}
+	//
+	private static class ClassSchema{
+		String names[];
+		Object accessors[];
+		//
+		ClassSchema(Class<?>clazz){
+			TreeMap<String,Object>map=new TreeMap<>();
+			for(Field f:clazz.getFields()){
+				int mod=f.getModifiers();
+				if(!Modifier.isStatic(mod)&&!Modifier.isTransient(mod)){
+					map.put(f.getName(),f);
+				}
+			}
+			try {
+				BeanInfo info=Introspector.getBeanInfo(clazz,Object.class);
+				for(PropertyDescriptor pd:info.getPropertyDescriptors()){
+					Method m=pd.getReadMethod();
+					if(m!=null&&Modifier.isPublic(m.getModifiers())){
+						m.setAccessible(true);
+						map.put(pd.getName(),m);
+					}
+				}
+			} catch (Exception e) {
+				throw new IllegalArgumentException("can not get properties of "+clazz,e);
+			}
+			names=map.keySet().toArray(new String[map.size()]);
+			accessors=map.values().toArray();
+		}
+		//
+		Object get(int idx,Object o){
+			try{
+				Object accessor=accessors[idx];
+				if(accessor instanceof Field){
+					return ((Field)accessor).get(o);
+				}
+				return ((Method)accessor).invoke(o);
+			}catch(Exception e){
+				throw new IllegalArgumentException("can not get property "+names[idx],e);
+			}
+		}
+	}
+}
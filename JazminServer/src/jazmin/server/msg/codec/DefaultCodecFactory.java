@@ -6,6 +6,7 @@ package jazmin.server.msg.codec;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -48,17 +49,70 @@ public class DefaultCodecFactory implements CodecFactory{
 	public static final int FORMAT_JSON=1;
 	public static final int FORMAT_ZJSON=2;
 	public static final int FORMAT_AMF=4;
+	public static final int FORMAT_BINARY=8;
+	/**json request,response compressed by deflate stream of connection*/
+	public static final int FORMAT_ZJSON_STREAM=16;
 	//
 	private static final int MAX_MESSAGE_LENGTH=1024*1024;
+	//type,requestId,timestamp,statusCode,statusMessage and serviceId length
+	private static final int FIXED_HEADER_LENGTH=2+4+8+2+2+2;
 	private static Charset charset=Charset.forName("UTF-8");
-	
+	//
+	private byte streamDictionary[];
+	private int streamThreshold=128;
+	//
+	/**
+	 * @param streamDictionary preset dictionary of FORMAT_ZJSON_STREAM
+	 */
+	public void setStreamDictionary(byte[] streamDictionary) {
+		this.streamDictionary = streamDictionary;
+	}
+	//
+	public byte[] getStreamDictionary() {
+		return streamDictionary;
+	}
+	/**
+	 * @param streamThreshold FORMAT_ZJSON_STREAM message shorter than 
+	 * threshold is sent as FORMAT_JSON
+	 */
+	public void setStreamThreshold(int streamThreshold) {
+		this.streamThreshold = streamThreshold;
+	}
+	//
+	public int getStreamThreshold() {
+		return streamThreshold;
+	}
+	//
+	@Override
+	public StreamDeflater createStreamDeflater() {
+		return new StreamDeflater(streamDictionary, streamThreshold);
+	}
 	//
 	public  void encode(
 			ResponseMessage msg,
 			ByteBuf out,
 			NetworkTrafficStat networkTrafficStat) throws Exception{
+		encode(msg, out, networkTrafficStat, null);
+	}
+	//
+	@Override
+	public  void encode(
+			ResponseMessage msg,
+			ByteBuf out,
+			NetworkTrafficStat networkTrafficStat,
+			StreamDeflater deflater) throws Exception{
 		byte payload[]=null;
-		if(msg.messageType==FORMAT_JSON){
+		int messageType=msg.messageType;
+		boolean deflate=false;
+		if(messageType==FORMAT_ZJSON_STREAM){
+			payload=encodeJson(msg);
+			if(deflater!=null&&payload.length>=deflater.getThreshold()){
+				deflate=true;
+			}else{
+				//small or shared message
+				messageType=FORMAT_JSON;
+			}
+		}else if(msg.messageType==FORMAT_JSON){
 			payload=encodeJson(msg);
 		}else if(msg.messageType==FORMAT_ZJSON){
 			payload=encodeZJson(msg);
@@ -66,6 +120,8 @@ public class DefaultCodecFactory implements CodecFactory{
 			payload=encodeAmf3(msg);
 		}else if(msg.messageType==FORMAT_RAW){
 			payload=msg.rawData;
+		}else if(msg.messageType==FORMAT_BINARY){
+			//written directly into out after header
 		}else{
 			throw new CorruptedFrameException("bad message type:"+msg.messageType);
 		}
@@ -81,23 +137,23 @@ public class DefaultCodecFactory implements CodecFactory{
 		//
 		byte statusMessageBytes[]=statusMessage.getBytes(charset);
 		byte serviceIdBytes[]=serviceId.getBytes(charset);
-		int dataLength= 2+  //raw flag
-						4+	//requestId
-						8+	//timestamp
-						2+	//statusCode
-						2+	//statusMsgLength
-						2+	//serviceIdLength
-						statusMessageBytes.length+ //statusMsg
-						serviceIdBytes.length+ //serviceId
-						payload.length;
-		
-		if(dataLength>MAX_MESSAGE_LENGTH){
-			throw new CorruptedFrameException("message too long" + dataLength
-					+ "/" + MAX_MESSAGE_LENGTH);
+		if(deflate){
+			//stream can not drop compressed data,so check worst case length
+			//before deflate and send message uncompressed if it may too long
+			int maxLength=FIXED_HEADER_LENGTH+
+					statusMessageBytes.length+
+					serviceIdBytes.length+
+					StreamDeflater.maxDeflateLength(payload.length);
+			if(maxLength>MAX_MESSAGE_LENGTH){
+				deflate=false;
+				messageType=FORMAT_JSON;
+			}
 		}
-		out.writeInt(dataLength);
+		//length is set after payload written
+		int start=out.writerIndex();
+		out.writeInt(0);
 		//
-		out.writeShort(msg.messageType);
+		out.writeShort(messageType);
 		out.writeInt(requestId);
 		out.writeLong(timestamp);
 		out.writeShort(statusCode);
@@ -105,7 +161,20 @@ public class DefaultCodecFactory implements CodecFactory{
 		out.writeShort(serviceIdBytes.length);
 		out.writeBytes(statusMessageBytes);
 		out.writeBytes(serviceIdBytes);
-		out.writeBytes(payload);
+		if(deflate){
+			deflater.deflate(payload, out);
+		}else if(payload!=null){
+			out.writeBytes(payload);
+		}else{
+			encodeBinary(msg,out);
+		}
+		int dataLength=out.writerIndex()-start-4;
+		if(dataLength>MAX_MESSAGE_LENGTH){
+			out.writerIndex(start);
+			throw new CorruptedFrameException("message too long" + dataLength
+					+ "/" + MAX_MESSAGE_LENGTH);
+		}
+		out.setInt(start, dataLength);
 		networkTrafficStat.outBound(dataLength);
 	}
 	
@@ -143,6 +212,18 @@ public class DefaultCodecFactory implements CodecFactory{
 		return IOUtil.gzipCompress(encodeJson(msg));
 	}
 	//
+	protected static void encodeBinary(ResponseMessage msg,ByteBuf out) throws Exception {
+		new BinaryCodec(out).write(msg.responseObject);
+		if(logger.isDebugEnabled()){
+			logger.debug("\nencode message #{}-{} [{}-{}]-------------\n{}",
+					msg.requestId,
+					msg.serviceId,
+					msg.statusCode,
+					msg.statusMessage,
+					DumpUtil.dump(msg.responseObject));
+		}
+	}
+	//
 	
 	//--------------------------------------------------------------------------------
 	//
@@ -174,16 +255,26 @@ public class DefaultCodecFactory implements CodecFactory{
 		String serviceId = new String(serviceIdBytes, charset);
 		//
 		int payloadLength = dataLength - serviceIdLength - 12;
-		byte payloadBytes[] = new byte[payloadLength];
-		in.readBytes(payloadBytes);
 		//
 		RequestMessage msg = new RequestMessage();
 		msg.messageType = messageType;
 		msg.requestId = requestId;
 		msg.serviceId = serviceId;
+		if (messageType == FORMAT_BINARY) {
+			//typed parameters read in place
+			ByteBuf payload=in.readSlice(payloadLength);
+			try{
+				decodeBinary(msg,payload);
+			}catch (Exception e) {
+				throw new CorruptedFrameException("bad message format" ,e);
+			}
+			return msg;
+		}
+		byte payloadBytes[] = new byte[payloadLength];
+		in.readBytes(payloadBytes);
 		boolean decoded=false;
 		try{
-			if (messageType == FORMAT_JSON) {
+			if (messageType == FORMAT_JSON||messageType == FORMAT_ZJSON_STREAM) {
 				decodeJson(msg,payloadBytes);
 				decoded=true;
 			} else if (messageType == FORMAT_ZJSON) {
@@ -242,5 +333,16 @@ public class DefaultCodecFactory implements CodecFactory{
 	protected static void  decodeZJson(RequestMessage msg,byte[]payload)throws Exception{
 		decodeJson(msg,IOUtil.gzipDecompress(payload));
 	}
+	//
+	protected static void decodeBinary(RequestMessage msg,ByteBuf payload)throws Exception{
+		msg.requestObjects=new BinaryCodec(payload).readParameters();
+		if (logger.isDebugEnabled()) {
+			logger.debug(
+					"\ndecode message #{}-{} \n{} ",
+					msg.requestId,
+					msg.serviceId,
+					Arrays.toString(msg.requestObjects));
+		}
+	}
 	
 }
@@ -1,7 +1,6 @@
 package jazmin.server.msg.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import jazmin.log.Logger;
@@ -9,16 +8,16 @@ import jazmin.log.LoggerFactory;
 import jazmin.misc.io.NetworkTrafficStat;
 import jazmin.server.msg.CodecFactory;
 /**
- * 
+ * encoder is created per connection and keeps deflate stream of connection
  * @author yama
  *
  */
-@Sharable
 public class MessageEncoder extends MessageToByteEncoder<ResponseMessage> {
 	private static Logger logger=LoggerFactory.get(MessageEncoder.class);
 	//
 	private CodecFactory codecFactory;
 	NetworkTrafficStat networkTrafficStat;
+	private StreamDeflater streamDeflater;
 	
 	public MessageEncoder(CodecFactory codecFactory,NetworkTrafficStat networkTrafficStat) {
 	    this.networkTrafficStat=networkTrafficStat;
@@ -32,9 +31,25 @@ public class MessageEncoder extends MessageToByteEncoder<ResponseMessage> {
 			ResponseMessage msg,
 			ByteBuf out) throws Exception {
 		try{
-			codecFactory.encode(msg, out, networkTrafficStat);				
+			StreamDeflater deflater=null;
+			if(msg.messageType==DefaultCodecFactory.FORMAT_ZJSON_STREAM){
+				if(streamDeflater==null){
+					streamDeflater=codecFactory.createStreamDeflater();
+				}
+				deflater=streamDeflater;
+			}
+			codecFactory.encode(msg, out, networkTrafficStat,deflater);				
 		}catch (Exception e) {
 			logger.catching(e);
 		}
 	}
+	//
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		if(streamDeflater!=null){
+			streamDeflater.end();
+			streamDeflater=null;
+		}
+		super.handlerRemoved(ctx);
+	}
 }
@@ -25,6 +25,8 @@ public class RequestMessage {
 	public int requestId;//requestId
 	public String serviceId;//serviceId
 	public String[]requestParameters;
+	/**typed parameters of binary format,null for text formats*/
+	public Object[]requestObjects;
 	public byte rawData[];
 	public RequestMessage() {
 		requestParameters=new String[MAX_PARAMETER_COUNT];
@@ -28,6 +28,8 @@ public class ResponseMessage {
 	public static final int SC_SYNC_SERVICE=0x7;
 	/**repeat attack attack*/
 	public static final int SC_REPEAT_ATTACK=0x8;
+	/**server overloaded,request rejected before processing*/
+	public static final int SC_SERVER_BUSY=0x9;
 	//
 	public int messageType;
 	public byte[] rawData;
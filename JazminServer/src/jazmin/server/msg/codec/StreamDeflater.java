@@ -0,0 +1,92 @@
+/**
+ *
+ */
+package jazmin.server.msg.codec;
+
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.zip.Deflater;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * per connection deflate stream used by FORMAT_ZJSON_STREAM.messages are 
+ * compressed with sync flush so later messages reuse window of earlier ones,
+ * trailing 00 00 ff ff of each flush block is stripped and must be appended
+ * by peer before inflate(see StreamInflater).deflater is not thread safe,it
+ * must be used in io thread of connection in write order.
+ */
+public class StreamDeflater {
+	static final byte SYNC_TAIL[]={0,0,(byte)0xff,(byte)0xff};
+	private static Charset charset=Charset.forName("UTF-8");
+	//
+	private final Deflater deflater;
+	private final int threshold;
+	private final byte buffer[];
+	//
+	public StreamDeflater(byte dictionary[],int threshold) {
+		this.deflater=new Deflater(Deflater.BEST_SPEED,true);
+		if(dictionary!=null&&dictionary.length>0){
+			deflater.setDictionary(dictionary);
+		}
+		this.threshold=threshold;
+		this.buffer=new byte[1024];
+	}
+	/**
+	 * messages shorter than threshold are sent uncompressed
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+	/**
+	 * compress input into out and flush
+	 */
+	public void deflate(byte input[],ByteBuf out){
+		int start=out.writerIndex();
+		deflater.setInput(input);
+		int n;
+		do{
+			n=deflater.deflate(buffer,0,buffer.length,Deflater.SYNC_FLUSH);
+			out.writeBytes(buffer,0,n);
+		}while(n==buffer.length);
+		int end=out.writerIndex();
+		if(end-start>=4&&out.getInt(end-4)==0x0000ffff){
+			out.writerIndex(end-4);
+		}
+	}
+	/**
+	 * worst case length of deflated input,same as zlib deflateBound plus 
+	 * sync flush block
+	 */
+	public static int maxDeflateLength(int inputLength){
+		return inputLength+
+				((inputLength+7)>>3)+
+				((inputLength+63)>>6)+
+				5+6+SYNC_TAIL.length+1;
+	}
+	/**
+	 * free native resource
+	 */
+	public void end(){
+		deflater.end();
+	}
+	/**
+	 * build preset dictionary from words such as service ids and field 
+	 * names.zlib prefers matches near end of dictionary so put most common
+	 * words last.
+	 */
+	public static byte[] buildDictionary(Collection<String>words){
+		StringBuilder sb=new StringBuilder();
+		for(String w:words){
+			sb.append('"').append(w).append('"').append(':');
+		}
+		byte dict[]=sb.toString().getBytes(charset);
+		if(dict.length>32*1024){
+			//only last 32k of dictionary is used
+			byte tail[]=new byte[32*1024];
+			System.arraycopy(dict,dict.length-tail.length,tail,0,tail.length);
+			return tail;
+		}
+		return dict;
+	}
+}
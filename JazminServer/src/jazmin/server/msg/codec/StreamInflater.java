@@ -0,0 +1,46 @@
+/**
+ *
+ */
+package jazmin.server.msg.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * peer of StreamDeflater,inflate messages of one connection in order.
+ */
+public class StreamInflater {
+	private final Inflater inflater;
+	private final byte buffer[];
+	//
+	public StreamInflater(byte dictionary[]) {
+		this.inflater=new Inflater(true);
+		if(dictionary!=null&&dictionary.length>0){
+			inflater.setDictionary(dictionary);
+		}
+		this.buffer=new byte[1024];
+	}
+	//
+	public byte[] inflate(byte input[]) throws DataFormatException{
+		if(input.length==0){
+			//empty message,deflater flushed nothing
+			return input;
+		}
+		byte data[]=new byte[input.length+4];
+		System.arraycopy(input,0,data,0,input.length);
+		System.arraycopy(StreamDeflater.SYNC_TAIL,0,data,input.length,4);
+		inflater.setInput(data);
+		ByteArrayOutputStream out=new ByteArrayOutputStream(input.length*4);
+		int n;
+		do{
+			n=inflater.inflate(buffer);
+			out.write(buffer,0,n);
+		}while(n==buffer.length||(n>0&&!inflater.needsInput()));
+		return out.toByteArray();
+	}
+	//
+	public void end(){
+		inflater.end();
+	}
+}
@@ -0,0 +1,65 @@
+package jazmin.server.msg.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.msg.CodecFactory;
+/**
+ * encode ResponseMessage into BinaryWebSocketFrame when it is written to 
+ * channel,so messages held by slow consumer queue are deflated in the order
+ * they are sent.encoder is created per connection and keeps deflate stream
+ * of connection.
+ */
+public class WebSocketMessageEncoder extends ChannelHandlerAdapter {
+	private static Logger logger=LoggerFactory.get(WebSocketMessageEncoder.class);
+	//
+	private CodecFactory codecFactory;
+	private NetworkTrafficStat networkTrafficStat;
+	private StreamDeflater streamDeflater;
+	
+	public WebSocketMessageEncoder(CodecFactory codecFactory,NetworkTrafficStat networkTrafficStat) {
+	    this.networkTrafficStat=networkTrafficStat;
+	    this.codecFactory=codecFactory;
+	}
+	//
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg,
+			ChannelPromise promise) throws Exception {
+		if(!(msg instanceof ResponseMessage)){
+			ctx.write(msg, promise);
+			return;
+		}
+		ResponseMessage rsp=(ResponseMessage)msg;
+		ByteBuf out=ctx.alloc().buffer(256);
+		try{
+			StreamDeflater deflater=null;
+			if(rsp.messageType==DefaultCodecFactory.FORMAT_ZJSON_STREAM){
+				if(streamDeflater==null){
+					streamDeflater=codecFactory.createStreamDeflater();
+				}
+				deflater=streamDeflater;
+			}
+			codecFactory.encode(rsp, out, networkTrafficStat,deflater);
+		}catch (Exception e) {
+			out.release();
+			logger.catching(e);
+			promise.setFailure(e);
+			return;
+		}
+		ctx.write(new BinaryWebSocketFrame(out), promise);
+	}
+	//
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		if(streamDeflater!=null){
+			streamDeflater.end();
+			streamDeflater=null;
+		}
+		super.handlerRemoved(ctx);
+	}
+}
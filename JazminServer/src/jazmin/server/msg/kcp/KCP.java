@@ -1,5 +1,12 @@
 package jazmin.server.msg.kcp;
 import java.util.ArrayList;
+import java.util.Arrays;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.Recycler;
+import io.netty.util.Recycler.Handle;
 
 public abstract class KCP {
     public final int IKCP_RTO_NDL = 30;  // no delay min rto
@@ -24,7 +31,8 @@ public abstract class KCP {
     public final int IKCP_PROBE_INIT = 7000;   // 7 secs to probe window size
     public final int IKCP_PROBE_LIMIT = 120000; // up to 120 secs to probe window
 
-    protected abstract void output(byte[] buffer, int size); // 需具体实现
+    // buffer is allocated from allocator,implementation must release it
+    protected abstract void output(ByteBuf buffer); // 需具体实现
 
     // encode 8 bits unsigned int
     public static void ikcpEncode8u(byte[] p, int offset, byte c) {
@@ -66,15 +74,14 @@ public abstract class KCP {
         return ret;
     }
 
-    public static void slice(ArrayList<Segment> list, int start, int stop) {
-        int size = list.size();
-        for (int i = 0; i < size; ++i) {
-            if (i < stop - start) {
-                list.set(i, list.get(i + start));
-            } else {
-                list.remove(stop - start);
+    // remove first count segments,recycle them when they are consumed
+    static void removeFirst(ArrayList<Segment> list, int count, boolean recycle) {
+        if (recycle) {
+            for (int i = 0; i < count; i++) {
+                list.get(i).recycle();
             }
         }
+        list.subList(0, count).clear();
     }
 
     static int imin(int a, int b) {
@@ -93,8 +100,16 @@ public abstract class KCP {
         return ((int) (later - earlier));
     }
 
+    // segment data is a retained slice of pooled buffer,segment is recycled
+    // and data released when acked or delivered
     private static class Segment {
-
+        private static final Recycler<Segment> RECYCLER = new Recycler<Segment>() {
+            @Override
+            protected Segment newObject(Handle<Segment> handle) {
+                return new Segment(handle);
+            }
+        };
+        private final Handle<Segment> handle;
         protected int conv = 0;
         protected int cmd = 0;
         protected int frg = 0;
@@ -106,35 +121,48 @@ public abstract class KCP {
         protected int rto = 0;
         protected int fastack = 0;
         protected int xmit = 0;
-        protected byte[] data;
+        protected ByteBuf data;
 
-        protected Segment(int size) {
-            this.data = new byte[size];
+        private Segment(Handle<Segment> handle) {
+            this.handle = handle;
         }
 
-        // encode a segment into buffer
-        protected int encode(byte[] ptr, int offset) {
-            int offset_ = offset;
+        static Segment get(ByteBuf data) {
+            Segment seg = RECYCLER.get();
+            seg.data = data;
+            return seg;
+        }
 
-            ikcpEncode32u(ptr, offset, conv);
-            offset += 4;
-            ikcpEncode8u(ptr, offset, (byte) cmd);
-            offset += 1;
-            ikcpEncode8u(ptr, offset, (byte) frg);
-            offset += 1;
-            ikcpEncode16u(ptr, offset, (int) wnd);
-            offset += 2;
-            ikcpEncode32u(ptr, offset, (int)ts);
-            offset += 4;
-            ikcpEncode32u(ptr, offset, sn);
-            offset += 4;
-            ikcpEncode32u(ptr, offset, una);
-            offset += 4;
-            ikcpEncode32u(ptr, offset, data.length);
-            offset += 4;
+        void recycle() {
+            if (data != null) {
+                data.release();
+                data = null;
+            }
+            conv = cmd = frg = wnd = sn = una = rto = fastack = xmit = 0;
+            ts = resendts = 0;
+            handle.recycle(this);
+        }
 
-            return offset - offset_;
+        int length() {
+            return data.readableBytes();
         }
+
+        // encode segment header into buffer
+        void encode(ByteBuf out) {
+            encodeHeader(out, conv, cmd, frg, wnd, ts, sn, una, length());
+        }
+    }
+
+    static void encodeHeader(ByteBuf out, int conv, int cmd, int frg, int wnd,
+            long ts, int sn, int una, int length) {
+        out.writeInt(conv);
+        out.writeByte(cmd);
+        out.writeByte(frg);
+        out.writeShort(wnd);
+        out.writeInt((int) ts);
+        out.writeInt(sn);
+        out.writeInt(una);
+        out.writeInt(length);
     }
 
     protected int conv = 0;
@@ -154,13 +182,15 @@ public abstract class KCP {
     int probe = 0;
     protected int mtu = IKCP_MTU_DEF;
     int mss = this.mtu - IKCP_OVERHEAD;
-    byte[] buffer = new byte[(int) (mtu + IKCP_OVERHEAD) * 3];
+    protected ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
     ArrayList<Segment> nrcvbuf = new ArrayList<>(128);
     ArrayList<Segment> nsndBuf = new ArrayList<>(128);
     ArrayList<Segment> nrcvque = new ArrayList<>(128);
     ArrayList<Segment> nsndque = new ArrayList<>(128);
     int state = 0;
-    ArrayList<Integer> acklist = new ArrayList<>(128);
+    // sn,ts pairs
+    int[] acklist = new int[128];
+    int ackcount = 0;
     //int ackblock = 0;
     //int ackcount = 0;
     int rxsrtt = 0;
@@ -193,7 +223,7 @@ public abstract class KCP {
         Segment seq = nrcvque.get(0);
 
         if (0 == seq.frg) {
-            return seq.data.length;
+            return seq.length();
         }
 
         if (nrcvque.size() < seq.frg + 1) {
@@ -203,7 +233,7 @@ public abstract class KCP {
         int length = 0;
 
         for (Segment item : nrcvque) {
-            length += item.data.length;
+            length += item.length();
             if (0 == item.frg) {
                 break;
             }
@@ -214,7 +244,8 @@ public abstract class KCP {
 
     // user/upper level recv: returns size, returns below zero for EAGAIN
     // 将接收队列中的数据传递给上层引用
-    public int recv(byte[] buffer) {
+    // merged message is written to buffer
+    public int recv(ByteBuf buffer) {
         if (0 == nrcvque.size()) {
             return -1;
         }
@@ -222,9 +253,6 @@ public abstract class KCP {
         if (0 > peekSize) {
             return -2;
         }
-        if (peekSize > buffer.length) {
-            return -3;
-        }
         boolean fastrecover = false;
         if (nrcvque.size() >= rcvWnd) {
             fastrecover = true;
@@ -233,15 +261,16 @@ public abstract class KCP {
         int count = 0;
         int n = 0;
         for (Segment seg : nrcvque) {
-            System.arraycopy(seg.data, 0, buffer, n, seg.data.length);
-            n += seg.data.length;
+            int length = seg.length();
+            buffer.writeBytes(seg.data, seg.data.readerIndex(), length);
+            n += length;
             count++;
             if (0 == seg.frg) {
                 break;
             }
         }
         if (0 < count) {
-            slice(nrcvque, count, nrcvque.size());
+            removeFirst(nrcvque, count, true);
         }
         // move available data from rcv_buf -> nrcv_que
         count = 0;
@@ -255,7 +284,7 @@ public abstract class KCP {
             }
         }
         if (0 < count) {
-            slice(nrcvbuf, count, nrcvbuf.size());
+            removeFirst(nrcvbuf, count, false);
         }
         // fast recover
         if (nrcvque.size() < rcvWnd && fastrecover) {
@@ -267,15 +296,17 @@ public abstract class KCP {
     }
     // user/upper level send, returns below zero for error
     // 上层要发送的数据丢给发送队列，发送队列会根据mtu大小分片
-    public int send(byte[] buffer) {
-        if (0 == buffer.length) {
+    // segments keep retained slices of buffer,caller still owns buffer
+    public int send(ByteBuf buffer) {
+        int bufferLength = buffer.readableBytes();
+        if (0 == bufferLength) {
             return -1;
         }
         int count;
-        if (buffer.length < mss) {
+        if (bufferLength < mss) {
             count = 1;
         } else {
-            count = (int) (buffer.length + mss - 1) / mss;
+            count = (int) (bufferLength + mss - 1) / mss;
         }
         if (count > 255 ) {
             //return -2;
@@ -285,13 +316,9 @@ public abstract class KCP {
             count = 1;
         }
 
-        int offset = 0;
-        int bufferLength=buffer.length;
         for (int i = 0; i < count; i++) {
             int size = (int) (bufferLength > mss ? mss : bufferLength);
-            Segment seg = new Segment(size);
-            System.arraycopy(buffer, offset, seg.data, 0, size);
-            offset += size;
+            Segment seg = Segment.get(buffer.readSlice(size).retain());
             seg.frg = count - i - 1;
             nsndque.add(seg);
             bufferLength-=size;
@@ -339,7 +366,7 @@ public abstract class KCP {
         int index = 0;
         for (Segment seg : nsndBuf) {
             if (sn == seg.sn) {
-                nsndBuf.remove(index);
+                nsndBuf.remove(index).recycle();
                 break;
             } else {
                 seg.fastack++;
@@ -360,14 +387,17 @@ public abstract class KCP {
         }
 
         if (0 < count) {
-            slice(nsndBuf, count, nsndBuf.size());
+            removeFirst(nsndBuf, count, true);
         }
     }
 
     void ackPush(int sn, int ts) {
-        // c原版实现中按*2扩大容量,java不用
-        acklist.add(sn);
-        acklist.add(ts);
+        if (ackcount * 2 + 2 > acklist.length) {
+            acklist = Arrays.copyOf(acklist, acklist.length * 2);
+        }
+        acklist[ackcount * 2] = sn;
+        acklist[ackcount * 2 + 1] = ts;
+        ackcount++;
     }
 
     // 用户数据包解析
@@ -376,6 +406,7 @@ public abstract class KCP {
         boolean repeat = false;
 
         if (itimediff(sn, rcvnxt + rcvWnd) >= 0 || itimediff(sn, rcvnxt) < 0) {
+            newseg.recycle();
             return;
         }
 
@@ -403,6 +434,8 @@ public abstract class KCP {
             } else {
                 nrcvbuf.add(afteridx + 1, newseg);
             }
+        } else {
+            newseg.recycle();
         }
 
         // move available data from nrcv_buf -> nrcv_que
@@ -420,58 +453,49 @@ public abstract class KCP {
 
         // 从接收缓存中移除
         if (0 < count) {
-            slice(nrcvbuf, count, nrcvbuf.size());
+            removeFirst(nrcvbuf, count, false);
         }
     }
     //
-    public static int getConversionId(byte[] data){
-    	if(data.length<4){
+    public static int getConversionId(ByteBuf data){
+    	if(data.readableBytes()<4){
     		return -1;
     	}
-    	return ikcpDecode32u(data, 0);
+    	return data.getInt(data.readerIndex());
     }
     // when you received a low level packet (eg. UDP packet), call it
     // 底层收包后调用，再由上层通过Recv获得处理后的数据
-    public int input(byte[] data) {
+    // pushed segments keep retained slices of data
+    public int input(ByteBuf data) {
 
         int s_una = sndUna;
-        if (data.length < IKCP_OVERHEAD) {
+        if (data.readableBytes() < IKCP_OVERHEAD) {
             return 0;
         }
 
-        int offset = 0;
-
         while (true) {
         	int ts, sn, length, una, conv_;
             int wnd;
-            byte cmd, frg;
+            int cmd, frg;
 
-            if (data.length - offset < IKCP_OVERHEAD) {
+            if (data.readableBytes() < IKCP_OVERHEAD) {
                 break;
             }
 
-            conv_ = ikcpDecode32u(data, offset);
-            offset += 4;
+            conv_ = data.readInt();
 
             if (conv != conv_) {
                 return -1;
             }
 
-            cmd = ikcpDecode8u(data, offset);
-            offset += 1;
-            frg = ikcpDecode8u(data, offset);
-            offset += 1;
-            wnd = ikcpDecode16u(data, offset);
-            offset += 2;
-            ts = ikcpDecode32u(data, offset);
-            offset += 4;
-            sn = ikcpDecode32u(data, offset);
-            offset += 4;
-            una = ikcpDecode32u(data, offset);
-            offset += 4;
-            length = ikcpDecode32u(data, offset);
-            offset += 4;
-            if (data.length - offset < length) {
+            cmd = data.readUnsignedByte();
+            frg = data.readUnsignedByte();
+            wnd = data.readUnsignedShort();
+            ts = data.readInt();
+            sn = data.readInt();
+            una = data.readInt();
+            length = data.readInt();
+            if (length < 0 || data.readableBytes() < length) {
                 return -2;
             }
 
@@ -493,7 +517,7 @@ public abstract class KCP {
                 if (itimediff(sn, rcvnxt + rcvWnd) < 0) {
                     ackPush(sn, ts);
                     if (itimediff(sn, rcvnxt) >= 0) {
-                        Segment seg = new Segment((int) length);
+                        Segment seg = Segment.get(data.slice(data.readerIndex(), length).retain());
                         seg.conv = conv_;
                         seg.cmd = cmd;
                         seg.frg = frg;
@@ -501,11 +525,6 @@ public abstract class KCP {
                         seg.ts = ts;
                         seg.sn = sn;
                         seg.una = una;
-
-                        if (length > 0) {
-                            System.arraycopy(data, offset, seg.data, 0, (int) length);
-                        }
-
                         parseData(seg);
                     }
                 }
@@ -519,7 +538,7 @@ public abstract class KCP {
                 return -3;
             }
 
-            offset += (int) length;
+            data.skipBytes(length);
         }
 
         if (itimediff(sndUna, s_una) > 0) {
@@ -565,26 +584,18 @@ public abstract class KCP {
             return;
         }
 
-        Segment seg = new Segment(0);
-        seg.conv = conv;
-        seg.cmd = IKCP_CMD_ACK;
-        seg.wnd =  wndUnused();
-        seg.una = rcvnxt;
+        int wnd = wndUnused();
+        ByteBuf buffer = null;
 
         // flush acknowledges
-        int count = acklist.size() / 2;
-        int offset = 0;
+        int count = ackcount;
         for (int i = 0; i < count; i++) {
-            if (offset + IKCP_OVERHEAD > mtu) {
-                output(buffer, offset);
-                offset = 0;
-            }
+            buffer = prepareOutput(buffer, IKCP_OVERHEAD);
             // ikcp_ack_get
-            seg.sn = acklist.get(i * 2 + 0);
-            seg.ts = acklist.get(i * 2 + 1);
-            offset += seg.encode(buffer, offset);
+            encodeHeader(buffer, conv, IKCP_CMD_ACK, 0, wnd,
+                    acklist[i * 2 + 1], acklist[i * 2 + 0], rcvnxt, 0);
         }
-        acklist.clear();
+        ackcount = 0;
 
         // probe window size (if remote window size equals zero)
         if (0 == rmtWnd) {
@@ -611,22 +622,14 @@ public abstract class KCP {
 
         // flush window probing commands
         if ((probe & IKCP_ASK_SEND) != 0) {
-            seg.cmd = IKCP_CMD_WASK;
-            if (offset + IKCP_OVERHEAD > mtu) {
-                output(buffer, offset);
-                offset = 0;
-            }
-            offset += seg.encode(buffer, offset);
+            buffer = prepareOutput(buffer, IKCP_OVERHEAD);
+            encodeHeader(buffer, conv, IKCP_CMD_WASK, 0, wnd, 0, 0, rcvnxt, 0);
         }
 
         // flush window probing commands(c#)
         if ((probe & IKCP_ASK_TELL) != 0) {
-            seg.cmd = IKCP_CMD_WINS;
-            if (offset + IKCP_OVERHEAD > mtu) {
-                output(buffer, offset);
-                offset = 0;
-            }
-            offset += seg.encode(buffer, offset);
+            buffer = prepareOutput(buffer, IKCP_OVERHEAD);
+            encodeHeader(buffer, conv, IKCP_CMD_WINS, 0, wnd, 0, 0, rcvnxt, 0);
         }
 
         probe = 0;
@@ -645,7 +648,7 @@ public abstract class KCP {
             Segment newseg = nsnd_que1;
             newseg.conv = conv;
             newseg.cmd = IKCP_CMD_PUSH;
-            newseg.wnd = seg.wnd;
+            newseg.wnd = wnd;
             newseg.ts = current_;
             newseg.sn = sndNxt;
             newseg.una = rcvnxt;
@@ -659,7 +662,7 @@ public abstract class KCP {
         }
 
         if (0 < count) {
-            slice(nsndque, count, nsndque.size());
+            removeFirst(nsndque, count, false);
         }
 
         // calculate resent
@@ -695,19 +698,14 @@ public abstract class KCP {
 
             if (needsend) {
                 segment.ts = current_;
-                segment.wnd = seg.wnd;
+                segment.wnd = wnd;
                 segment.una = rcvnxt;
 
-                int need = IKCP_OVERHEAD + segment.data.length;
-                if (offset + need >= mtu) {
-                    output(buffer, offset);
-                    offset = 0;
-                }
-
-                offset += segment.encode(buffer, offset);
-                if (segment.data.length > 0) {
-                    System.arraycopy(segment.data, 0, buffer, offset, segment.data.length);
-                    offset += segment.data.length;
+                int length = segment.length();
+                buffer = prepareOutput(buffer, IKCP_OVERHEAD + length);
+                segment.encode(buffer);
+                if (length > 0) {
+                    buffer.writeBytes(segment.data, segment.data.readerIndex(), length);
                 }
 
                 if (segment.xmit >= deadlink) {
@@ -717,8 +715,8 @@ public abstract class KCP {
         }
 
         // flash remain segments
-        if (offset > 0) {
-            output(buffer, offset);
+        if (buffer != null) {
+            output(buffer);
         }
 
         // update ssthresh
@@ -747,6 +745,18 @@ public abstract class KCP {
         }
     }
 
+    // output buffer if it can not hold need bytes,allocate new one if needed
+    private ByteBuf prepareOutput(ByteBuf buffer, int need) {
+        if (buffer != null && buffer.readableBytes() + need > mtu) {
+            output(buffer);
+            buffer = null;
+        }
+        if (buffer == null) {
+            buffer = allocator.ioBuffer(mtu);
+        }
+        return buffer;
+    }
+
     // update state (call it repeatedly, every 10ms-100ms), or you can ask
     // ikcp_check when to call it again (without ikcp_input/_send calling).
     // 'current' - current timestamp in millisec.
@@ -825,10 +835,8 @@ public abstract class KCP {
         if (mtu_ < 50 || mtu_ < (int) IKCP_OVERHEAD) {
             throw new IllegalArgumentException("mtu must >=50");
         }
-        byte[] buffer_ = new byte[(mtu_ + IKCP_OVERHEAD) * 3];
         mtu = (int) mtu_;
         mss = mtu - IKCP_OVERHEAD;
-        buffer = buffer_;
         return 0;
     }
 
@@ -894,4 +902,19 @@ public abstract class KCP {
     public int waitSnd() {
         return nsndBuf.size() + nsndque.size();
     }
+
+    // no data waiting, no pending ack and no window probe,update can be
+    // skipped until next input or send
+    public boolean isIdle() {
+        return waitSnd() == 0 && ackcount == 0 && probe == 0;
+    }
+
+    // recycle all queued segments,called when connection closed
+    public void release() {
+        removeFirst(nsndque, nsndque.size(), true);
+        removeFirst(nsndBuf, nsndBuf.size(), true);
+        removeFirst(nrcvque, nrcvque.size(), true);
+        removeFirst(nrcvbuf, nrcvbuf.size(), true);
+        ackcount = 0;
+    }
 }
\ No newline at end of file
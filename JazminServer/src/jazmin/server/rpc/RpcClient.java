@@ -4,12 +4,16 @@
 package jazmin.server.rpc;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -20,11 +24,15 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
 import jazmin.core.Jazmin;
+import jazmin.core.JazminThreadFactory;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.io.IOWorker;
 import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.rpc.codec.binary.BinaryCodec;
 import jazmin.server.rpc.codec.fst.FSTDecoder;
 import jazmin.server.rpc.codec.fst.FSTEncoder;
 import jazmin.server.rpc.codec.json.JSONDecoder;
@@ -33,6 +41,8 @@ import jazmin.server.rpc.codec.zjson.CompressedJSONDecoder;
 import jazmin.server.rpc.codec.zjson.CompressedJSONEncoder;
 
 /**
+ * rpc client,sessions are spread over ioThreadCount io threads.responses
+ * complete futures in io thread,so future callbacks should not block.
  * @author yama
  * 23 Dec, 2014
  */
@@ -41,6 +51,10 @@ public class RpcClient {
 	//
 	public static final AttributeKey<RpcSession> SESSION_KEY=
 										AttributeKey.valueOf("rpcsession");
+	//request timeouts of all clients,10ms tick
+	private static final HashedWheelTimer TIMEOUT_TIMER=new HashedWheelTimer(
+			new JazminThreadFactory("RPCClientTimer"),
+			10,TimeUnit.MILLISECONDS,512);
 	//
 	private EventLoopGroup group;
 	private RpcClientHandler clientHandler;
@@ -56,24 +70,34 @@ public class RpcClient {
 	private RpcBreaker breakerCounter;
 	private SslContext sslContext;
 	private RpcSession currentSession;
+	private int ioThreadCount;
 	//
 	static class RPCLock{
 		public int id;
-		public long startTime;
-		public RpcMessage response;
-		public RpcMessageCallback asyncCallback;
+		public RpcSession session;
+		public long startTime;//nano time
+		public String serviceId;
+		public CompletableFuture<RpcMessage>future;
+		public Timeout timeoutTask;
 	}
 	//
 	public RpcClient() {
+		this(1);
+	}
+	/**
+	 * @param ioThreadCount count of io threads sessions are spread over
+	 */
+	public RpcClient(int ioThreadCount) {
+		if(ioThreadCount<=0){
+			throw new IllegalArgumentException("ioThreadCount must >0");
+		}
+		this.ioThreadCount=ioThreadCount;
 		breakerCounter=new RpcBreaker();
 		messageId=new AtomicInteger();
 		lockMap=new ConcurrentHashMap<Integer, RPCLock>();
 		timeout=DEFAULT_TIMEOUT;
 		networkTrafficStat=new NetworkTrafficStat();
 		initNettyConnector();
-		Jazmin.scheduleAtFixedRate(
-				this::checkAsyncTimeout,
-				2000, 2000, TimeUnit.MILLISECONDS);
 		principal=Jazmin.getServerName();
 	}
 	//
@@ -104,20 +128,24 @@ public class RpcClient {
 		return principal;
 	}
 	//
-	private void checkAsyncTimeout(){
-		lockMap.forEach((id,lock)->{
-			if(lock.asyncCallback!=null&&
-					(System.currentTimeMillis()-lock.startTime)>timeout){
-				Throwable e=new RpcException("rpc request:"+lock.id+" timeout");
-				RpcMessage msg=new RpcMessage();
-				msg.id=id;
-				msg.type=RpcMessage.TYPE_RPC_CALL_RSP;
-				msg.payloads=new Object[]{null,e};
-				lock.asyncCallback.callback(null,msg);
-				breakerCounter.stat(true);
-				lockMap.remove(id);
-			}
-		});
+	public int getIoThreadCount(){
+		return ioThreadCount;
+	}
+	/**
+	 * @return count of requests waiting for response
+	 */
+	public int getPendingRequestCount(){
+		return lockMap.size();
+	}
+	//
+	private void timeout(RPCLock lock){
+		if(lockMap.remove(lock.id)==null){
+			return;
+		}
+		breakerCounter.stat(true);
+		lock.session.requestCompleted(System.nanoTime()-lock.startTime);
+		lock.future.completeExceptionally(new RpcException(
+				"rpc request:"+lock.id+" timeout,serviceId:"+lock.serviceId));
 	}
 
 	//
@@ -126,8 +154,8 @@ public class RpcClient {
 	}
 	//
 	private void initNettyConnector(){
-		IOWorker worker=new IOWorker("RPCClientIO",1);
-		group = new NioEventLoopGroup(1,worker);
+		IOWorker worker=new IOWorker("RPCClientIO",ioThreadCount);
+		group = new NioEventLoopGroup(ioThreadCount,worker);
 		bootstrap = new Bootstrap();
 		clientHandler=new RpcClientHandler(this);
 		ChannelInitializer <SocketChannel>channelInitializer=
@@ -141,24 +169,23 @@ public class RpcClient {
 	                		currentSession.remoteHostAddress,
 	                		currentSession.remotePort));	
 	            }
+				ChannelHandler encoder;
+				ChannelHandler decoder;
 				if(RpcServer.codec==RpcServer.CODEC_ZJSON){
-					sc.pipeline().addLast(
-							new CompressedJSONEncoder(networkTrafficStat), 
-							new CompressedJSONDecoder(networkTrafficStat),
-							clientHandler);		
+					encoder=new CompressedJSONEncoder(networkTrafficStat); 
+					decoder=new CompressedJSONDecoder(networkTrafficStat);
 				}else if(RpcServer.codec==RpcServer.CODEC_JSON){
-					sc.pipeline().addLast(
-							new JSONEncoder(networkTrafficStat), 
-							new JSONDecoder(networkTrafficStat),
-							clientHandler);
+					encoder=new JSONEncoder(networkTrafficStat); 
+					decoder=new JSONDecoder(networkTrafficStat);
 				}else if(RpcServer.codec==RpcServer.CODEC_FST){
-					sc.pipeline().addLast(
-							new FSTEncoder(networkTrafficStat), 
-							new FSTDecoder(networkTrafficStat),
-							clientHandler);
+					encoder=new FSTEncoder(networkTrafficStat); 
+					decoder=new FSTDecoder(networkTrafficStat);
 				}else{
 					throw new IllegalArgumentException("bad codec type:"+RpcServer.codec);
 				}
+				//binary codec negotiated per connection
+				BinaryCodec.addLast(sc.pipeline(),networkTrafficStat,
+						encoder,decoder,clientHandler);
 			}
 		};
 		bootstrap.group(group);
@@ -184,7 +211,9 @@ public class RpcClient {
 			Channel channel=bootstrap.connect(host, port).sync().channel();
 			channel.attr(SESSION_KEY).set(session);
 			session.setChannel(channel);
-			session.setPrincipal(principal);	
+			if(session.getPrincipal()==null){
+				session.setPrincipal(principal);	
+			}
 		}
 		//send auth message
 		auth(session);		
@@ -194,7 +223,8 @@ public class RpcClient {
 		RpcMessage msg=new RpcMessage();
 		msg.id=messageId.incrementAndGet();
 		msg.type=RpcMessage.TYPE_SESSION_AUTH;
-		msg.payloads=new Object[session.getTopics().size()+3];
+		boolean offer=RpcServer.negotiateBinaryCodec;
+		msg.payloads=new Object[session.getTopics().size()+(offer?4:3)];
 		msg.payloads[0]=session.getPrincipal();
 		msg.payloads[1]=session.getCredential();
 		msg.payloads[2]=session.disablePushMessage;
@@ -202,6 +232,9 @@ public class RpcClient {
 		for(String s:session.getTopics()){
 			msg.payloads[idx++]=s;
 		}
+		if(offer){
+			msg.payloads[idx++]=BinaryCodec.getOffer();
+		}
 		session.write(msg);
 	}
 	/**/
@@ -233,6 +266,18 @@ public class RpcClient {
 				logger.debug("receive heartheat {}",session.getPrincipal());
 			}
 			break;
+		case RpcMessage.TYPE_SESSION_AUTH:
+			if(BinaryCodec.isSwitchMessage(message)){
+				//server accept binary codec,switch our encoder too
+				session.binaryCodec=true;
+				session.write(BinaryCodec.createSwitchMessage());
+				if(logger.isInfoEnabled()){
+					logger.info("binary codec negotiated {}",session);
+				}
+				break;
+			}
+			logger.warn("bad message type:"+message);
+			break;
 		default:
 			logger.warn("bad message type:"+message);
 			break;
@@ -247,23 +292,15 @@ public class RpcClient {
 	}
 	//
 	private void rpcRspMessageReceived(RpcSession session,RpcMessage msg){
-		RPCLock lock=lockMap.get(msg.id);
+		RPCLock lock=lockMap.remove(msg.id);
 		if(lock==null){
 			logger.warn("request:"+msg.id+" already timeout");
 			return;
 		}
-		//
-		if(lock.asyncCallback==null){
-			//sync invoke
-			synchronized (lock) {
-				lock.response=msg;
-				lock.notifyAll();
-			}
-		}else{
-			lock.response=msg;
-			lockMap.remove(lock.id);
-			lock.asyncCallback.callback(session,lock.response);
-		}		
+		lock.timeoutTask.cancel();
+		lock.session.requestCompleted(System.nanoTime()-lock.startTime);
+		breakerCounter.stat(false);
+		lock.future.complete(msg);
 	}
 	//
 	/**
@@ -282,59 +319,120 @@ public class RpcClient {
 		return msg.id;
 	}
 	/**
-	 * sync invoke service
+	 * invoke service,future is completed with response message in io 
+	 * thread or completed exceptionally with RpcException when timeout.
 	 */
-	public RpcMessage invokeSync(RpcSession session,String serviceId,Object args[]){
+	public CompletableFuture<RpcMessage> invoke(
+			RpcSession session,
+			String serviceId,
+			Object args[]){
+		return invoke0(session, serviceId, args,timeout).future;
+	}
+	/**
+	 * invoke service with timeout in milliseconds
+	 */
+	public CompletableFuture<RpcMessage> invoke(
+			RpcSession session,
+			String serviceId,
+			Object args[],
+			long timeout){
+		return invoke0(session, serviceId, args,timeout).future;
+	}
+	//
+	private RPCLock invoke0(
+			RpcSession session,
+			String serviceId,
+			Object args[],
+			long timeout){
 		if(breakerCounter.isBreak()){
 			logger.fatal("rpc client:"+session.cluster+" breaking,serviceId:"+serviceId);
 			throw new RpcBreakerException(
 					"rpc client:"+session.cluster+" breaking,serviceId:"+serviceId);
 		}
 		RPCLock lock=new RPCLock();
-		lock.startTime=System.currentTimeMillis();
-		int nextMsgId=messageId.incrementAndGet();
-		lock.id=nextMsgId;
+		lock.startTime=System.nanoTime();
+		lock.session=session;
+		lock.id=messageId.incrementAndGet();
+		lock.serviceId=serviceId;
+		lock.future=new CompletableFuture<>();
 		lockMap.put(lock.id,lock);
-		sendMessage(nextMsgId,session,serviceId, args);
-		synchronized (lock) {
-			try {
-				while(lock.response==null){
-					lock.wait(timeout/2);//wait 10 seconds
-					long currentTime=System.currentTimeMillis();
-					if((currentTime-lock.startTime)>timeout){
-						lockMap.remove(lock.id);
-						breakerCounter.stat(true);
-						throw new RpcException(
-								"rpc request:"+lock.id+" timeout,serviceId:"+serviceId);
-					}
-				}
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
+		session.requestSent();
+		lock.timeoutTask=TIMEOUT_TIMER.newTimeout(
+				t->timeout(lock),timeout,TimeUnit.MILLISECONDS);
+		sendMessage(lock.id,session,serviceId, args);
+		return lock;
+	}
+	/**
+	 * sync invoke service,caller waits until response or timeout
+	 */
+	public RpcMessage invokeSync(RpcSession session,String serviceId,Object args[]){
+		return invokeSync(session, serviceId, args, timeout);
+	}
+	/**
+	 * sync invoke service with timeout in milliseconds
+	 */
+	public RpcMessage invokeSync(RpcSession session,String serviceId,
+			Object args[],long timeout){
+		long deadline=System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(timeout);
+		RPCLock lock=invoke0(session, serviceId, args,timeout);
+		try {
+			return lock.future.get(deadline-System.nanoTime(),TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			timeout(lock);
+			//response may arrive just before timeout
+			if(!lock.future.isCompletedExceptionally()){
+				return lock.future.getNow(null);
 			}
-			lockMap.remove(lock.id);
-			breakerCounter.stat(false);
-			return lock.response;
+			throw new RpcException(
+					"rpc request:"+lock.id+" timeout,serviceId:"+serviceId);
+		} catch (ExecutionException e) {
+			Throwable cause=e.getCause();
+			if(cause instanceof RuntimeException){
+				throw (RuntimeException)cause;
+			}
+			throw new RpcException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			//caller gave up,not a failure of remote server
+			if(lockMap.remove(lock.id)!=null){
+				lock.timeoutTask.cancel();
+				lock.session.requestCompleted(System.nanoTime()-lock.startTime);
+			}
+			return null;
 		}
 	}
 	/**
-	 * async invoke service  
+	 * async invoke service,callback is called with response message or 
+	 * a message with RpcException when timeout
 	 */
 	public void invokeAsync(
 			RpcSession session,
 			String serviceId,
 			Object args[],
 			RpcMessageCallback callback){
-		if(breakerCounter.isBreak()){
-			logger.fatal("rpc client:"+session.cluster+" breaking,serviceId:"+serviceId);
-			throw new RpcBreakerException(
-					"rpc client:"+session.cluster+" breaking,serviceId:"+serviceId);
-		}
-		RPCLock lock=new RPCLock();
-		lock.startTime=System.currentTimeMillis();
-		lock.id=messageId.incrementAndGet();
-		lock.asyncCallback=callback;
-		lockMap.put(lock.id,lock);
-		sendMessage(lock.id,session,serviceId, args);
+		invokeAsync(session, serviceId, args, callback, timeout);
+	}
+	/**
+	 * async invoke service with timeout in milliseconds
+	 */
+	public void invokeAsync(
+			RpcSession session,
+			String serviceId,
+			Object args[],
+			RpcMessageCallback callback,
+			long timeout){
+		RPCLock lock=invoke0(session, serviceId, args,timeout);
+		lock.future.whenComplete((msg,e)->{
+			if(e!=null){
+				RpcMessage rsp=new RpcMessage();
+				rsp.id=lock.id;
+				rsp.type=RpcMessage.TYPE_RPC_CALL_RSP;
+				rsp.payloads=new Object[]{null,e};
+				callback.callback(null,rsp);
+			}else{
+				callback.callback(session,msg);
+			}
+		});
 	}
 	//
 	/**
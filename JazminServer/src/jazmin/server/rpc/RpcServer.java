@@ -4,6 +4,7 @@
 package jazmin.server.rpc;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
@@ -35,6 +36,8 @@ import jazmin.core.app.AppException;
 import jazmin.core.monitor.Monitor;
 import jazmin.core.monitor.MonitorAgent;
 import jazmin.core.thread.DispatcherCallbackAdapter;
+import jazmin.core.thread.DispatcherOverloadException;
+import jazmin.core.thread.MethodInvoker;
 import jazmin.log.Logger;
 import jazmin.log.LoggerFactory;
 import jazmin.misc.InfoBuilder;
@@ -42,6 +45,7 @@ import jazmin.misc.io.IOWorker;
 import jazmin.misc.io.NetworkTrafficStat;
 import jazmin.server.console.ConsoleServer;
 import jazmin.server.rpc.RpcMessage.AppExceptionMessage;
+import jazmin.server.rpc.codec.binary.BinaryCodec;
 import jazmin.server.rpc.codec.fst.FSTDecoder;
 import jazmin.server.rpc.codec.fst.FSTEncoder;
 import jazmin.server.rpc.codec.json.JSONDecoder;
@@ -68,7 +72,7 @@ public class RpcServer extends Server implements Registerable{
 	private EventLoopGroup workerGroup;
 	private RpcServerHandler rpcServerHandler;
 	private Map<String,Object>instanceMap;
-	private Map<String,Method>methodMap;
+	private Map<String,MethodInvoker>methodMap;
 	private Map<String,RpcSession>sessionMap;
 	private Map<String,List<RpcSession>>topicSessionMap;
 	private Map<String,LongAdder>pushMessageCountMap;
@@ -84,11 +88,16 @@ public class RpcServer extends Server implements Registerable{
 	public static final int CODEC_ZJSON=2;
 	public static final int CODEC_FST=3;
 	public static int codec=CODEC_ZJSON;
+	/**
+	 * negotiate binary codec with peer on session auth,peer without binary
+	 * codec keeps using default codec
+	 */
+	public static boolean negotiateBinaryCodec=true;
 	//
 	public RpcServer() {
 		nettyServer=new ServerBootstrap();
 		instanceMap=new ConcurrentHashMap<String, Object>();
-		methodMap=new ConcurrentHashMap<String, Method>();
+		methodMap=new ConcurrentHashMap<String, MethodInvoker>();
 		sessionMap=new ConcurrentHashMap<String, RpcSession>();
 		topicSessionMap=new ConcurrentHashMap<String, List<RpcSession>>();
 		pushMessageCountMap=new ConcurrentHashMap<String, LongAdder>();
@@ -147,7 +156,7 @@ public class RpcServer extends Server implements Registerable{
 						+" already exists.");
 			}
 			logger.debug("register method:{}",methodName);
-			methodMap.put(methodName, m);
+			methodMap.put(methodName, Jazmin.dispatcher.getMethodInvoker(m));
 		}
 	}
 	/**
@@ -206,24 +215,23 @@ public class RpcServer extends Server implements Registerable{
 	            }
 				sc.pipeline().addLast("idleStateHandler",
 						new IdleStateHandler(idleTime,idleTime,0));
+				ChannelHandler encoder;
+				ChannelHandler decoder;
 				if(codec==CODEC_ZJSON){
-					sc.pipeline().addLast(
-							new CompressedJSONEncoder(networkTrafficStat), 
-							new CompressedJSONDecoder(networkTrafficStat),
-							rpcServerHandler);		
+					encoder=new CompressedJSONEncoder(networkTrafficStat); 
+					decoder=new CompressedJSONDecoder(networkTrafficStat);
 				}else if(codec==CODEC_JSON){
-					sc.pipeline().addLast(
-							new JSONEncoder(networkTrafficStat), 
-							new JSONDecoder(networkTrafficStat),
-							rpcServerHandler);
+					encoder=new JSONEncoder(networkTrafficStat); 
+					decoder=new JSONDecoder(networkTrafficStat);
 				}else if(codec==CODEC_FST){
-					sc.pipeline().addLast(
-							new FSTEncoder(networkTrafficStat), 
-							new FSTDecoder(networkTrafficStat),
-							rpcServerHandler);
+					encoder=new FSTEncoder(networkTrafficStat); 
+					decoder=new FSTDecoder(networkTrafficStat);
 				}else{
 					throw new IllegalArgumentException("bad codec type:"+RpcServer.codec);
 				}
+				//binary codec negotiated per connection
+				BinaryCodec.addLast(sc.pipeline(),networkTrafficStat,
+						encoder,decoder,rpcServerHandler);
 			}
 		};
 		//
@@ -294,10 +302,20 @@ public class RpcServer extends Server implements Registerable{
 	//
 	private void authMessageReceived(RpcSession session,RpcMessage message){
 		synchronized (session) {
+			if(BinaryCodec.isSwitchMessage(message)){
+				//peer switched encoder to binary codec
+				return;
+			}
 			String principal=(String)message.payloads[0];
 			String credential=(String)message.payloads[1];
 			Boolean disablePush=(Boolean)message.payloads[2];
-			Object topics[]=new Object[message.payloads.length-3];
+			int topicCount=message.payloads.length-3;
+			Object offer=null;
+			if(topicCount>0&&BinaryCodec.isOffer(message.payloads[message.payloads.length-1])){
+				offer=message.payloads[message.payloads.length-1];
+				topicCount--;
+			}
+			Object topics[]=new Object[topicCount];
 			if(topics.length>0){
 				System.arraycopy(message.payloads,3, topics, 0, topics.length);
 			}
@@ -310,6 +328,10 @@ public class RpcServer extends Server implements Registerable{
 			}
 			checkCredential(session);
 			sessionCreated(session);
+			if(negotiateBinaryCodec&&BinaryCodec.getOffer().equals(offer)){
+				session.binaryCodec=true;
+				session.write(BinaryCodec.createSwitchMessage());
+			}
 		}
 	}
 	//
@@ -347,8 +369,8 @@ public class RpcServer extends Server implements Registerable{
 					"can not find instance:"+interfaceClass));
 			return;
 		}
-		Method method=methodMap.get(serviceId);
-		if(method==null){
+		MethodInvoker invoker=methodMap.get(serviceId);
+		if(invoker==null){
 			logger.error("can not find method:"+serviceId);
 			session.write(makeException(
 					message.id,
@@ -357,10 +379,11 @@ public class RpcServer extends Server implements Registerable{
 			return;
 		}
 		RPCInvokeCallback callback=new RPCInvokeCallback(session,message);
+		//callback build trace id when needed
 		Jazmin.dispatcher.invokeInPool(
-				"#"+message.id,
+				callback,
 				instance, 
-				method,
+				invoker,
 				callback, args);
 	}
 	//
@@ -371,6 +394,11 @@ public class RpcServer extends Server implements Registerable{
 			this.session=session;
 			this.message=rpcMessage;
 		}
+		//
+		@Override
+		public String toString() {
+			return "#"+message.id;
+		}
 		@Override
 		public void before(Object instance, Method method, Object[] args)
 				throws Exception {
@@ -390,6 +418,9 @@ public class RpcServer extends Server implements Registerable{
 				aem.code=ae.getCode();
 				aem.message=ae.getMessage();
 				rspMessage.payloads=new Object[]{ret,aem};
+			}else if(e instanceof DispatcherOverloadException){
+				rspMessage.payloads=new Object[]{null,
+						new RpcException("server busy:"+e.getMessage())};
 			}else{
 				rspMessage.payloads=new Object[]{ret,e};	
 			}
@@ -705,7 +736,10 @@ public class RpcServer extends Server implements Registerable{
 		.print("enableSSL",enableSSL)
 		.print("privateKeyFile",getPrivateKeyFile())
 		.print("certificateFile",getCertificateFile())
-		.print("idleTime",idleTime+" seconds");
+		.print("idleTime",idleTime+" seconds")
+		.print("codec",codec)
+		.print("negotiateBinaryCodec",negotiateBinaryCodec)
+		.print("binaryCompressThreshold",BinaryCodec.getCompressThreshold());
 		ib.section("accept hosts");
 		int index=1;
 		List<String>hosts=getAcceptRemoteHosts();
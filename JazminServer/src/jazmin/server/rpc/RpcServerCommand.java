@@ -193,7 +193,7 @@ public class RpcServerCommand extends ConsoleCommand {
     }
     //
     private void showSessions(int maxCount){
-		String format="%-5s:%-20s %-15s %-10s %-10s %-10s %-10s %-10s %-15s %-10s\n";
+		String format="%-5s:%-20s %-15s %-10s %-10s %-10s %-10s %-10s %-10s %-15s %-10s\n";
 		int i=1;
 		List<RpcSession> sessions=rpcServer.getSessions();
 		out.println("total "+sessions.size()+" sessions");
@@ -202,6 +202,7 @@ public class RpcServerCommand extends ConsoleCommand {
 				"HOSTADDRESS",
 				"PORT",
 				"DISPUSH",
+				"BINARY",
 				"SEND",
 				"RECEIVE",
 				"PUSH",
@@ -219,6 +220,7 @@ public class RpcServerCommand extends ConsoleCommand {
 					s.getRemoteHostAddress(),
 					s.getRemotePort(),
 					s.isDisablePushMessage(),
+					s.isBinaryCodec(),
 					s.getSentPackageCount(),
 					s.getReceivedPackageCount(),
 					s.getPushedPackageCount(),
@@ -11,6 +11,8 @@ import java.net.SocketAddress;
 import java.util.Date;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
 
 import jazmin.log.Logger;
@@ -38,8 +40,17 @@ public class RpcSession {
 	private LongAdder totalNetworkTime;
 	private long maxNetworkTime=0;
 	private long minNetworkTime=Long.MAX_VALUE;
+	//peak ewma of request latency in milliseconds,decays with time
+	private static final double LATENCY_DECAY_NANOS=TimeUnit.SECONDS.toNanos(2);
+	private AtomicInteger inflightCount;
+	private final Object latencyLock=new Object();
+	private double ewmaLatency;
+	private long ewmaStamp;
+	private boolean latencySampled;
+	private int weight;
 	String cluster;
 	boolean authed;
+	volatile boolean binaryCodec;
 	//
 	public RpcSession(){
 		topics=new TreeSet<String>();
@@ -48,8 +59,77 @@ public class RpcSession {
 		receivedPackageCount=new LongAdder();
 		pushedPackageCount=new LongAdder();
 		totalNetworkTime=new LongAdder();
+		inflightCount=new AtomicInteger();
+		weight=1;
 		authed=false;
 	}
+	/**
+	 * return true if binary codec negotiated on this connection
+	 */
+	public boolean isBinaryCodec() {
+		return binaryCodec;
+	}
+	/**
+	 * return load balance weight of this session
+	 */
+	public int getWeight() {
+		return weight;
+	}
+	/**
+	 * set load balance weight of this session,default 1
+	 */
+	public void setWeight(int weight) {
+		if(weight<=0){
+			throw new IllegalArgumentException("weight must >0");
+		}
+		this.weight = weight;
+	}
+	/**
+	 * return count of requests sent and waiting for response
+	 */
+	public int getInflightCount(){
+		return inflightCount.get();
+	}
+	/**
+	 * return peak exponentially weighted moving average of request latency
+	 * in milliseconds,timeout request count as latency of timeout.latency 
+	 * higher than average is taken at once,lower latency is blended in by 
+	 * time since last sample.average decays to 0 when no request completes 
+	 * so a slow session gets traffic again later.
+	 */
+	public double getEwmaLatency(){
+		synchronized (latencyLock) {
+			if(!latencySampled){
+				return 0;
+			}
+			return ewmaLatency*decayWeight(System.nanoTime());
+		}
+	}
+	//
+	private double decayWeight(long now){
+		long elapsed=Math.max(0,now-ewmaStamp);
+		return Math.exp(-elapsed/LATENCY_DECAY_NANOS);
+	}
+	//
+	void requestSent(){
+		inflightCount.incrementAndGet();
+	}
+	//
+	void requestCompleted(long latencyNanos){
+		inflightCount.decrementAndGet();
+		double latency=latencyNanos/1000000.0;
+		long now=System.nanoTime();
+		synchronized (latencyLock) {
+			if(!latencySampled||latency>ewmaLatency){
+				latencySampled=true;
+				ewmaLatency=latency;
+			}else{
+				double w=decayWeight(now);
+				ewmaLatency=ewmaLatency*w+latency*(1-w);
+			}
+			ewmaStamp=now;
+		}
+	}
 
 
 	/**
@@ -125,6 +205,8 @@ public class RpcSession {
 	//
 	void setChannel(Channel channel){
 		this.channel=channel;
+		//new connection starts with default codec
+		binaryCodec=false;
 		if(channel!=null){
 			SocketAddress remoteAddr=channel.remoteAddress();
 			if(remoteAddr!=null){
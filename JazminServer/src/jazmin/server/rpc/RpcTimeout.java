@@ -0,0 +1,21 @@
+/**
+ * 
+ */
+package jazmin.server.rpc;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * request timeout of rpc interface method in milliseconds,overrides 
+ * request timeout of rpc driver
+ */
+@Target(ElementType.METHOD)  
+@Retention(RetentionPolicy.RUNTIME)  
+@Documented
+public @interface RpcTimeout{
+	long value();
+}
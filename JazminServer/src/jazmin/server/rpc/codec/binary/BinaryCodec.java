@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package jazmin.server.rpc.codec.binary;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelPipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.rpc.RpcException;
+import jazmin.server.rpc.RpcMessage;
+
+import org.nustaq.serialization.FSTConfiguration;
+
+/**
+ * binary rpc codec negotiated per connection on top of default codec.
+ * client append offer to TYPE_SESSION_AUTH message,server accept it by 
+ * reply a switch message.each side switch encoder after sending switch
+ * message and switch decoder after receiving it,so peers without binary
+ * codec keep using default codec.offer is sent as a topic of auth message,
+ * server without binary codec does not reply switch message but subscribes
+ * session to a topic named by offer,nothing is published on it.
+ * <p>
+ * message is serialized by fst with registered class ids,classes must be
+ * registered in same order on both sides before rpc server or client 
+ * created,offer contains fingerprint of registered classes.
+ */
+public class BinaryCodec {
+	static final int MAX_MESSAGE_LENGTH=1024*1024*10;
+	static final int FLAG_COMPRESSED=1;
+	//
+	private static final String OFFER_PREFIX="@codec:binary:";
+	private static final List<String>registeredClasses=new ArrayList<>();
+	private static int compressThreshold=1024;
+	private static String offer;
+	static final FSTConfiguration conf=FSTConfiguration.createDefaultConfiguration();
+	static{
+		conf.setForceSerializable(true);
+		registerClass(
+				Object[].class,
+				ArrayList.class,
+				java.util.HashMap.class,
+				java.util.LinkedHashMap.class,
+				java.util.HashSet.class,
+				java.util.Date.class,
+				RpcException.class,
+				RpcMessage.AppExceptionMessage.class);
+	}
+	//
+	private BinaryCodec() {
+	}
+	/**
+	 * register classes to binary codec,registered class is written as 
+	 * type id instead of class name.
+	 */
+	public static synchronized void registerClass(Class<?>...classes){
+		conf.registerClass(classes);
+		for(Class<?>c:classes){
+			registeredClasses.add(c.getName());
+		}
+		offer=null;
+	}
+	/**
+	 * return names of registered classes
+	 */
+	public static synchronized List<String>getRegisteredClasses(){
+		return Collections.unmodifiableList(new ArrayList<>(registeredClasses));
+	}
+	/**
+	 * return size in bytes above which message is compressed,default 1024
+	 */
+	public static int getCompressThreshold() {
+		return compressThreshold;
+	}
+	/**
+	 * set size in bytes above which message is compressed
+	 */
+	public static void setCompressThreshold(int compressThreshold) {
+		BinaryCodec.compressThreshold = compressThreshold;
+	}
+	/**
+	 * return offer of this side,contains fingerprint of registered classes
+	 */
+	public static synchronized String getOffer(){
+		if(offer==null){
+			offer=OFFER_PREFIX+Integer.toHexString(
+					String.join(",",registeredClasses).hashCode());
+		}
+		return offer;
+	}
+	/**
+	 * return true if payload is binary codec offer
+	 */
+	public static boolean isOffer(Object payload){
+		return (payload instanceof String)&&
+				((String)payload).startsWith(OFFER_PREFIX);
+	}
+	/**
+	 * create switch message,side send it switch to binary encoder
+	 */
+	public static RpcMessage createSwitchMessage(){
+		RpcMessage msg=new RpcMessage();
+		msg.type=RpcMessage.TYPE_SESSION_AUTH;
+		msg.payloads=new Object[]{getOffer()};
+		return msg;
+	}
+	/**
+	 * return true if message is switch message
+	 */
+	public static boolean isSwitchMessage(RpcMessage msg){
+		return msg.type==RpcMessage.TYPE_SESSION_AUTH&&
+				msg.payloads!=null&&
+				msg.payloads.length==1&&
+				isOffer(msg.payloads[0]);
+	}
+	/**
+	 * add binary codec handlers around default codec encoder and decoder
+	 */
+	public static void addLast(
+			ChannelPipeline pipeline,
+			NetworkTrafficStat networkTrafficStat,
+			ChannelHandler defaultEncoder,
+			ChannelHandler defaultDecoder,
+			ChannelHandler handler){
+		BinaryDecoder decoder=new BinaryDecoder(networkTrafficStat);
+		pipeline.addLast(
+				decoder,
+				defaultEncoder,
+				defaultDecoder,
+				new BinaryEncoder(decoder,networkTrafficStat),
+				handler);
+	}
+}
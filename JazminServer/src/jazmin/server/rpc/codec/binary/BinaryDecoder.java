@@ -0,0 +1,148 @@
+/**
+ * 
+ */
+package jazmin.server.rpc.codec.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.DecoderException;
+
+import java.util.List;
+import java.util.zip.Inflater;
+
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.rpc.RpcMessage;
+
+import org.nustaq.serialization.FSTObjectInput;
+
+/**
+ * split length prefixed frames,pass frame to default codec decoder until
+ * switched to binary format.frames are fired one by one so switch message
+ * take effect on next frame.one instance per connection.
+ */
+public class BinaryDecoder extends ByteToMessageDecoder {
+	private static Logger logger=LoggerFactory.get(BinaryDecoder.class);
+	//
+	private final NetworkTrafficStat networkTrafficStat;
+	private FSTObjectInput objectInput;
+	private Inflater inflater;
+	private byte inputBuffer[];
+	private byte rawBuffer[];
+	private boolean binary;
+	//
+	public BinaryDecoder(NetworkTrafficStat networkTrafficStat) {
+		this.networkTrafficStat=networkTrafficStat;
+	}
+	//
+	void switchToBinary(){
+		objectInput=new FSTObjectInput(BinaryCodec.conf);
+		binary=true;
+	}
+	/**
+	 * return true if decoder switched to binary format
+	 */
+	public boolean isBinary(){
+		return binary;
+	}
+	//
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf in,
+			List<Object> out) throws Exception {
+		// Wait until the length prefix is available.
+		if (in.readableBytes() < 4) {
+			return;
+		}
+		in.markReaderIndex();
+		int dataLength = in.readInt();
+		if (dataLength < 0) {
+			in.resetReaderIndex();
+			logger.error("bad message length {} from:{}",
+					dataLength,
+					ctx.channel());
+			throw new DecoderException("bad message length " + dataLength);
+		}
+		if (dataLength > BinaryCodec.MAX_MESSAGE_LENGTH) {
+			in.resetReaderIndex();
+			logger.error("message too long {}/{} from:{}",
+					dataLength,
+					BinaryCodec.MAX_MESSAGE_LENGTH,
+					ctx.channel());
+			throw new DecoderException("message too long " + dataLength
+					+ "/" + BinaryCodec.MAX_MESSAGE_LENGTH);
+		}
+		if (in.readableBytes() < dataLength) {
+			in.resetReaderIndex();
+			return;
+		}
+		if(!binary){
+			//whole frame to default codec decoder
+			in.resetReaderIndex();
+			ctx.fireChannelRead(in.readSlice(dataLength+4).retain());
+			return;
+		}
+		networkTrafficStat.inBound(dataLength);
+		ctx.fireChannelRead(readMessage(in, dataLength));
+	}
+	//
+	private RpcMessage readMessage(ByteBuf in,int dataLength)throws Exception{
+		if(dataLength<1){
+			throw new DecoderException("bad message length " + dataLength);
+		}
+		int flags=in.readByte();
+		byte raw[];
+		int rawLength;
+		if((flags&BinaryCodec.FLAG_COMPRESSED)!=0){
+			rawLength=in.readInt();
+			if(rawLength>BinaryCodec.MAX_MESSAGE_LENGTH||rawLength<0){
+				throw new DecoderException("bad raw length " + rawLength);
+			}
+			int compressedLength=dataLength-5;
+			if(compressedLength<0){
+				throw new DecoderException("bad compressed length " + compressedLength);
+			}
+			inputBuffer=ensureCapacity(inputBuffer, compressedLength);
+			in.readBytes(inputBuffer,0,compressedLength);
+			rawBuffer=ensureCapacity(rawBuffer, rawLength);
+			if(inflater==null){
+				inflater=new Inflater();
+			}
+			inflater.reset();
+			inflater.setInput(inputBuffer,0,compressedLength);
+			int n=inflater.inflate(rawBuffer,0,rawLength);
+			if(n!=rawLength){
+				throw new DecoderException("bad compressed message");
+			}
+			raw=rawBuffer;
+		}else{
+			rawLength=dataLength-1;
+			rawBuffer=ensureCapacity(rawBuffer, rawLength);
+			in.readBytes(rawBuffer,0,rawLength);
+			raw=rawBuffer;
+		}
+		objectInput.resetForReuseUseArray(raw,rawLength);
+		RpcMessage msg=new RpcMessage();
+		msg.id=objectInput.readInt();
+		msg.type=objectInput.readByte();
+		msg.sentTime=objectInput.readLong();
+		msg.payloads=(Object[])objectInput.readObject();
+		return msg;
+	}
+	//
+	private static byte[] ensureCapacity(byte buffer[],int length){
+		if(buffer==null||buffer.length<length){
+			return new byte[length];
+		}
+		return buffer;
+	}
+	//
+	@Override
+	protected void handlerRemoved0(ChannelHandlerContext ctx) throws Exception {
+		if(inflater!=null){
+			inflater.end();
+			inflater=null;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * 
+ */
+package jazmin.server.rpc.codec.binary;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+
+import java.util.zip.Deflater;
+
+import jazmin.log.Logger;
+import jazmin.log.LoggerFactory;
+import jazmin.misc.io.NetworkTrafficStat;
+import jazmin.server.rpc.RpcMessage;
+import jazmin.server.rpc.codec.CodecUtil;
+
+import org.nustaq.serialization.FSTObjectOutput;
+
+/**
+ * write message to default codec encoder until switch message sent,then
+ * encode message in binary format.switch decoder to binary format when 
+ * switch message received.one instance per connection.
+ */
+public class BinaryEncoder extends ChannelHandlerAdapter{
+	private static Logger logger=LoggerFactory.get(BinaryEncoder.class);
+	//
+	private final BinaryDecoder decoder;
+	private final NetworkTrafficStat networkTrafficStat;
+	private FSTObjectOutput objectOutput;
+	private Deflater deflater;
+	private byte compressBuffer[];
+	private boolean binary;
+	//
+	public BinaryEncoder(BinaryDecoder decoder,NetworkTrafficStat networkTrafficStat) {
+		this.decoder=decoder;
+		this.networkTrafficStat=networkTrafficStat;
+	}
+	//
+	@Override
+	public void channelRead(ChannelHandlerContext ctx, Object msg)
+			throws Exception {
+		if((msg instanceof RpcMessage)&&
+				BinaryCodec.isSwitchMessage((RpcMessage)msg)){
+			decoder.switchToBinary();
+		}
+		ctx.fireChannelRead(msg);
+	}
+	//
+	@Override
+	public void write(ChannelHandlerContext ctx, Object msg,
+			ChannelPromise promise) throws Exception {
+		if(!(msg instanceof RpcMessage)){
+			ctx.write(msg, promise);
+			return;
+		}
+		RpcMessage message=(RpcMessage)msg;
+		if(!binary){
+			ctx.write(msg, promise);
+			if(BinaryCodec.isSwitchMessage(message)){
+				objectOutput=new FSTObjectOutput(BinaryCodec.conf);
+				binary=true;
+			}
+			return;
+		}
+		ByteBuf out=ctx.alloc().ioBuffer();
+		try{
+			try{
+				writeMessage(message, out);
+			}catch(Exception e){
+				out.clear();
+				writeMessage(CodecUtil.createExceptionMessage(
+						message.id, e.getMessage()), out);
+			}
+		}catch(Exception e){
+			out.release();
+			throw e;
+		}
+		ctx.write(out, promise);
+	}
+	//
+	private void writeMessage(RpcMessage msg,ByteBuf out) throws Exception {
+		objectOutput.resetForReUse();
+		objectOutput.writeInt(msg.id);
+		objectOutput.writeByte(msg.type);
+		objectOutput.writeLong(msg.sentTime);
+		objectOutput.writeObject(msg.payloads);
+		byte payloadBytes[]=objectOutput.getBuffer();
+		int rawLength=objectOutput.getWritten();
+		int dataLength=rawLength+1;
+		if(rawLength>=BinaryCodec.getCompressThreshold()){
+			int compressedLength=compress(payloadBytes, rawLength);
+			if(compressedLength>0){
+				payloadBytes=compressBuffer;
+				dataLength=compressedLength+5;
+			}
+		}
+		if(dataLength>BinaryCodec.MAX_MESSAGE_LENGTH){
+			logger.error("message too long {}/{},serviceId:{} ",
+					dataLength,
+					BinaryCodec.MAX_MESSAGE_LENGTH,
+					msg.payloads==null?null:msg.payloads[0]);
+			throw new EncoderException("message too long." + dataLength
+					+ "/" + BinaryCodec.MAX_MESSAGE_LENGTH);
+		}
+		out.writeInt(dataLength);
+		if(payloadBytes==compressBuffer){
+			out.writeByte(BinaryCodec.FLAG_COMPRESSED);
+			out.writeInt(rawLength);
+			out.writeBytes(payloadBytes,0,dataLength-5);
+		}else{
+			out.writeByte(0);
+			out.writeBytes(payloadBytes,0,rawLength);
+		}
+		networkTrafficStat.outBound(dataLength);
+	}
+	/**
+	 * @return compressed length or -1 if compressed data not smaller
+	 */
+	private int compress(byte input[],int length){
+		if(deflater==null){
+			deflater=new Deflater(Deflater.BEST_SPEED);
+		}
+		if(compressBuffer==null||compressBuffer.length<length){
+			compressBuffer=new byte[length];
+		}
+		deflater.reset();
+		deflater.setInput(input,0,length);
+		deflater.finish();
+		int n=deflater.deflate(compressBuffer);
+		if(!deflater.finished()){
+			return -1;
+		}
+		return n;
+	}
+	//
+	@Override
+	public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+		if(deflater!=null){
+			deflater.end();
+			deflater=null;
+		}
+	}
+}
@@ -0,0 +1,6 @@
+/**
+ * 
+ */
+/**
+ */
+package jazmin.server.rpc.codec.binary;
@@ -305,12 +305,12 @@ public class WebServer extends jazmin.core.Server implements Registerable{
 		//
 		@Override
 		public int getIdleThreads() {
-			return Jazmin.dispatcher.getMaximumPoolSize()-Jazmin.dispatcher.getActiveCount();
+			return Jazmin.dispatcher.getMaxThreadCount()-Jazmin.dispatcher.getActiveCount();
 		}
 		//
 		@Override
 		public int getThreads() {
-			return Jazmin.dispatcher.getMaximumPoolSize();
+			return Jazmin.dispatcher.getMaxThreadCount();
 		}
 		//
 		@Override
@@ -0,0 +1,43 @@
+/**
+ * 
+ */
+package jazmin.test.core.aop;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jazmin.core.Jazmin;
+import jazmin.core.thread.AsyncInvoke;
+import jazmin.log.LoggerFactory;
+
+/**
+ * invokeAsync,invokeAll and invokeAny of dispatcher
+ */
+public class TestAsyncInvoke {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args)throws Exception {
+		LoggerFactory.setLevel("WARN");
+		List<AsyncInvoke<Integer>>invokes=new ArrayList<>();
+		for(int i=0;i<5;i++){
+			final int idx=i;
+			invokes.add(()->{
+				Thread.sleep(100);
+				return idx;
+			});
+		}
+		long start=System.currentTimeMillis();
+		List<Integer>result=Jazmin.dispatcher.invokeAll(
+				"TestAsyncInvoke",invokes,1,TimeUnit.SECONDS);
+		System.out.println(result+" "+(System.currentTimeMillis()-start)+"ms");
+		//
+		int first=Jazmin.dispatcher.invokeAny(
+				"TestAsyncInvoke",invokes,1,TimeUnit.SECONDS);
+		System.out.println("first:"+first);
+		System.exit(0);
+	}
+
+}
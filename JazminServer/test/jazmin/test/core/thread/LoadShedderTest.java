@@ -0,0 +1,41 @@
+/**
+ * 
+ */
+package jazmin.test.core.thread;
+
+import jazmin.core.thread.InvokePriority;
+import jazmin.core.thread.LoadShedder;
+
+/**
+ * overload,then idle,then LOW only traffic must leave overload state
+ */
+public class LoadShedderTest {
+	//
+	private static void check(boolean b,String msg){
+		if(!b){
+			throw new IllegalStateException(msg);
+		}
+		System.out.println("ok "+msg);
+	}
+	//
+	public static void main(String[] args) {
+		long ms=1000000L;
+		//target 5ms,interval 100ms
+		LoadShedder shedder=new LoadShedder(5,100);
+		long now=System.nanoTime();
+		//standing queue of 50ms for two intervals
+		for(int i=0;i<=200;i+=10){
+			shedder.shed(InvokePriority.NORMAL,50*ms,now+i*ms);
+		}
+		check(shedder.isOverloaded(),"overloaded by standing queue");
+		check(shedder.reject(InvokePriority.LOW,now+210*ms),"LOW rejected in overload");
+		check(!shedder.reject(InvokePriority.HIGH,now+210*ms),"HIGH accepted in overload");
+		//idle,no invoke runs.interval with 50ms samples ends at 300ms,
+		//next interval without samples ends later
+		shedder.reject(InvokePriority.LOW,now+310*ms);
+		boolean rejected=shedder.reject(InvokePriority.LOW,now+500*ms);
+		check(!rejected,"LOW accepted after idle interval");
+		check(!shedder.isOverloaded(),"overload state cleared");
+		check(shedder.getRejectCount(InvokePriority.LOW)==2,"reject count");
+	}
+}
@@ -0,0 +1,40 @@
+/**
+ * 
+ */
+package jazmin.test.misc;
+
+import java.util.Random;
+
+import jazmin.misc.io.LatencyHistogram;
+
+/**
+ * percentiles and interval snapshot of LatencyHistogram
+ */
+public class LatencyHistogramTest {
+	//
+	public static void main(String[] args) {
+		LatencyHistogram h=new LatencyHistogram();
+		Random r=new Random();
+		//99% 1ms-2ms,1% 100ms
+		for(int i=0;i<100000;i++){
+			if(i%100==0){
+				h.record(100_000_000L);
+			}else{
+				h.record(1_000_000L+r.nextInt(1_000_000));
+			}
+		}
+		LatencyHistogram.Snapshot s1=h.snapshot();
+		System.out.println("count:"+s1.getCount());
+		System.out.println("p50:"+s1.getMillisAtPercentile(50));
+		System.out.println("p99:"+s1.getMillisAtPercentile(99));
+		System.out.println("p999:"+s1.getMillisAtPercentile(99.9));
+		System.out.println("max:"+s1.getMaxValue()/1000000.0);
+		//
+		for(int i=0;i<1000;i++){
+			h.record(5_000_000L);
+		}
+		LatencyHistogram.Snapshot interval=h.snapshot().since(s1);
+		System.out.println("interval count:"+interval.getCount());
+		System.out.println("interval p99:"+interval.getMillisAtPercentile(99));
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * 
+ */
+package jazmin.test.server.message;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jazmin.log.LoggerFactory;
+import jazmin.server.msg.AoiChannel;
+import jazmin.server.msg.KcpSession;
+import jazmin.server.msg.MessageServer;
+import jazmin.server.msg.NetworkChannel;
+import jazmin.server.msg.Session;
+
+/**
+ * move,remove,radius and neighbor queries of AoiChannel
+ */
+public class AoiChannelTest {
+	//
+	static class DummyChannel implements NetworkChannel{
+		@Override
+		public InetSocketAddress getRemoteAddress() {
+			return null;
+		}
+		@Override
+		public void close() {
+		}
+		@Override
+		public void writeAndFlush(Object obj) {
+		}
+	}
+	//
+	private static void check(boolean b,String msg){
+		if(!b){
+			throw new IllegalStateException(msg);
+		}
+		System.out.println("ok "+msg);
+	}
+	//
+	private static Set<String>principals(List<Session>sessions){
+		Set<String>result=new TreeSet<>();
+		sessions.forEach(s->result.add(s.getPrincipal()));
+		return result;
+	}
+	//
+	private static Set<String>set(String ...ss){
+		Set<String>result=new TreeSet<>();
+		for(String s:ss){
+			result.add(s);
+		}
+		return result;
+	}
+	//
+	public static void main(String[] args) {
+		LoggerFactory.setLevel("WARN");
+		MessageServer ms=new MessageServer();
+		AoiChannel channel=ms.createAoiChannel("world",10);
+		Session a=createSession(ms,"a");
+		Session b=createSession(ms,"b");
+		Session c=createSession(ms,"c");
+		Session d=createSession(ms,"d");
+		channel.addSession(a,5,5);
+		channel.addSession(b,12,5);
+		channel.addSession(c,-15,-15);
+		channel.addSession(d);
+		check(channel.getCellCount()==3,"3 non empty cells");
+		check(principals(channel.getSessions(5,5,8)).equals(set("a","b")),"radius query");
+		check(principals(channel.getSessions(5,5,6)).equals(set("a")),"radius filters distance");
+		check(principals(channel.getNeighborSessions(5,5)).equals(set("a","b")),
+				"neighbor query");
+		check(principals(channel.getSessions(0,0,1e9)).equals(set("a","b","c")),
+				"huge radius scans non empty cells,session without position excluded");
+		//move inside cell and across cells
+		channel.move(a,6,6);
+		check(channel.getCellCount()==3,"move inside cell");
+		channel.move(a,-14,-14);
+		check(channel.getCellCount()==2,"move across cell");
+		check(principals(channel.getNeighborSessions(-15,-15)).equals(set("a","c")),
+				"neighbor after move");
+		check(channel.getPosition("a")[0]==-14,"position updated");
+		//remove
+		channel.removeSession(c);
+		check(principals(channel.getSessions(-15,-15,5)).equals(set("a")),"removed session");
+		channel.removeSession("b");
+		check(channel.getCellCount()==1,"empty cells released");
+		check(channel.getPosition("b")==null,"position removed");
+		check(channel.getSessions().size()==2,"sessions left in channel");
+		channel.removeAllSessions();
+		check(channel.getCellCount()==0&&channel.getSessions().isEmpty(),"remove all");
+	}
+	//
+	private static Session createSession(MessageServer ms,String principal){
+		Session s=new KcpSession(new DummyChannel());
+		ms.setPrincipal(s,principal,null);
+		return s;
+	}
+}
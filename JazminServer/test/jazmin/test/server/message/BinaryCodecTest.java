@@ -0,0 +1,123 @@
+/**
+ * 
+ */
+package jazmin.test.server.message;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.CorruptedFrameException;
+import jazmin.server.msg.codec.BinaryCodec;
+
+/**
+ * round trip,field id reuse and corrupt frames of FORMAT_BINARY payload
+ */
+public class BinaryCodecTest {
+	//
+	public static class Item{
+		public int id;
+		public String name;
+		public List<String>tags;
+		//
+		public Item(int id,String name,String ...tags) {
+			this.id=id;
+			this.name=name;
+			this.tags=Arrays.asList(tags);
+		}
+	}
+	//
+	private static void check(boolean b,String msg){
+		if(!b){
+			throw new IllegalStateException(msg);
+		}
+		System.out.println("ok "+msg);
+	}
+	//
+	private static void checkCorrupted(ByteBuf buf,String msg){
+		try{
+			new BinaryCodec(buf).read();
+		}catch(CorruptedFrameException e){
+			System.out.println("ok "+msg+":"+e.getMessage());
+			return;
+		}
+		throw new IllegalStateException(msg);
+	}
+	//
+	private static int count(ByteBuf buf,String word){
+		String s=buf.toString(Charset.forName("ISO-8859-1"));
+		int n=0;
+		for(int i=s.indexOf(word);i!=-1;i=s.indexOf(word,i+1)){
+			n++;
+		}
+		return n;
+	}
+	//
+	@SuppressWarnings("unchecked")
+	public static void main(String[] args) {
+		//round trip
+		List<Item>items=new ArrayList<>();
+		for(int i=0;i<10;i++){
+			items.add(new Item(i,"item"+i,"a","b"));
+		}
+		ByteBuf buf=Unpooled.buffer();
+		new BinaryCodec(buf).writeParameters(new Object[]{
+				1,-2L,true,null,1.5d,"text",new byte[]{1,2},items});
+		check(count(buf,"tags")==1,"field name sent once per message");
+		Object ps[]=new BinaryCodec(buf).readParameters();
+		check(ps.length==8,"parameter count");
+		check(ps[0].equals(1)&&ps[1].equals(-2L)&&ps[2].equals(true),"int long boolean");
+		check(ps[3]==null&&ps[4].equals(1.5d)&&ps[5].equals("text"),"null double string");
+		check(Arrays.equals((byte[])ps[6],new byte[]{1,2}),"bytes");
+		List<Map<String,Object>>list=(List<Map<String,Object>>)ps[7];
+		check(list.size()==10,"list size");
+		check(list.get(9).get("id").equals(9)&&
+				list.get(9).get("name").equals("item9")&&
+				list.get(9).get("tags").equals(Arrays.asList("a","b")),
+				"object read as map with reused field ids");
+		check(!buf.isReadable(),"all bytes consumed");
+		//string length larger than frame
+		buf=Unpooled.buffer();
+		buf.writeByte(BinaryCodec.TYPE_STRING);
+		BinaryCodec.writeVarInt(buf,1000);
+		buf.writeBytes("abc".getBytes());
+		checkCorrupted(buf,"bad string length");
+		//negative length
+		buf=Unpooled.buffer();
+		buf.writeByte(BinaryCodec.TYPE_LIST);
+		BinaryCodec.writeVarInt(buf,-1);
+		checkCorrupted(buf,"negative list length");
+		//field id refers to name not sent
+		buf=Unpooled.buffer();
+		buf.writeByte(BinaryCodec.TYPE_MAP);
+		BinaryCodec.writeVarInt(buf,1);
+		BinaryCodec.writeVarInt(buf,(5<<1)|1);
+		buf.writeByte(BinaryCodec.TYPE_NULL);
+		checkCorrupted(buf,"unknown field id");
+		//too deep
+		buf=Unpooled.buffer();
+		for(int i=0;i<100;i++){
+			buf.writeByte(BinaryCodec.TYPE_LIST);
+			BinaryCodec.writeVarInt(buf,1);
+		}
+		buf.writeByte(BinaryCodec.TYPE_NULL);
+		checkCorrupted(buf,"read too deep");
+		List<Object>deep=new ArrayList<>();
+		List<Object>current=deep;
+		for(int i=0;i<100;i++){
+			List<Object>next=new ArrayList<>();
+			current.add(next);
+			current=next;
+		}
+		try{
+			new BinaryCodec(Unpooled.buffer()).write(deep);
+			throw new IllegalStateException("write too deep");
+		}catch(IllegalArgumentException e){
+			System.out.println("ok write too deep:"+e.getMessage());
+		}
+	}
+}
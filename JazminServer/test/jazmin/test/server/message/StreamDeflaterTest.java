@@ -0,0 +1,85 @@
+/**
+ * 
+ */
+package jazmin.test.server.message;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import jazmin.server.msg.codec.StreamDeflater;
+import jazmin.server.msg.codec.StreamInflater;
+
+/**
+ * zjson-stream deflate/inflate round trip with preset dictionary
+ */
+public class StreamDeflaterTest {
+	private static Charset charset=Charset.forName("UTF-8");
+	//
+	private static void check(boolean b,String msg){
+		if(!b){
+			throw new IllegalStateException(msg);
+		}
+		System.out.println("ok "+msg);
+	}
+	//
+	private static byte[] deflate(StreamDeflater deflater,String msg){
+		ByteBuf out=Unpooled.buffer();
+		deflater.deflate(msg.getBytes(charset),out);
+		byte bytes[]=new byte[out.readableBytes()];
+		out.readBytes(bytes);
+		return bytes;
+	}
+	//
+	public static void main(String[] args) throws Exception{
+		byte dict[]=StreamDeflater.buildDictionary(
+				Arrays.asList("userId","userName","level","RoomService.enter"));
+		StreamDeflater deflater=new StreamDeflater(dict,0);
+		StreamInflater inflater=new StreamInflater(dict);
+		String messages[]=new String[]{
+				"{\"userId\":1,\"userName\":\"tom\",\"level\":3}\n",
+				"{\"userId\":2,\"userName\":\"jerry\",\"level\":5}\n",
+				"{\"userId\":2,\"userName\":\"jerry\",\"level\":5}\n",
+				"",
+				"{\"userId\":3,\"userName\":\"中文\",\"level\":9}\n",
+		};
+		int sizes[]=new int[messages.length];
+		for(int i=0;i<messages.length;i++){
+			byte compressed[]=deflate(deflater,messages[i]);
+			sizes[i]=compressed.length;
+			String s=new String(inflater.inflate(compressed),charset);
+			check(s.equals(messages[i]),"round trip message "+i+
+					" "+messages[i].length()+"->"+compressed.length);
+		}
+		check(sizes[2]<sizes[1],"repeated message reuses stream window");
+		//large message spans several deflate buffers
+		StringBuilder sb=new StringBuilder();
+		for(int i=0;i<2000;i++){
+			sb.append("{\"userId\":").append(i).append("},");
+		}
+		byte compressed[]=deflate(deflater,sb.toString());
+		check(new String(inflater.inflate(compressed),charset).equals(sb.toString()),
+				"large message round trip");
+		//dictionary shortens first message
+		StreamDeflater plain=new StreamDeflater(null,0);
+		check(deflate(plain,messages[0]).length>sizes[0],"preset dictionary helps first message");
+		//inflater without dictionary can not read stream
+		StreamDeflater d2=new StreamDeflater(dict,0);
+		StreamInflater noDict=new StreamInflater(null);
+		boolean failed;
+		try{
+			String s=new String(noDict.inflate(deflate(d2,messages[0])),charset);
+			failed=!s.equals(messages[0]);
+		}catch(DataFormatException e){
+			failed=true;
+		}
+		check(failed,"dictionary mismatch detected");
+		deflater.end();
+		inflater.end();
+		plain.end();
+		d2.end();
+		noDict.end();
+	}
+}
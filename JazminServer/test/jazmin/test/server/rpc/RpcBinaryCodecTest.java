@@ -0,0 +1,72 @@
+/**
+ * 
+ */
+package jazmin.test.server.rpc;
+
+import jazmin.driver.rpc.JazminRpcDriver;
+import jazmin.log.LoggerFactory;
+import jazmin.server.rpc.RpcServer;
+import jazmin.server.rpc.RpcSession;
+import jazmin.test.server.rpc.TestRemoteService.TestRemoteServiceImpl;
+
+/**
+ * binary codec switch handshake between JazminRpcDriver and RpcServer
+ */
+public class RpcBinaryCodecTest {
+	//
+	private static void check(boolean b,String msg){
+		if(!b){
+			throw new IllegalStateException(msg);
+		}
+		System.out.println("ok "+msg);
+	}
+	//
+	private static JazminRpcDriver connect(int port)throws Exception{
+		JazminRpcDriver driver=new JazminRpcDriver();
+		driver.setPrincipal("client");
+		driver.addRemoteServer("jazmin://127.0.0.1:"+port+"/c1/s1?connections=2");
+		driver.init();
+		Thread.sleep(500);
+		return driver;
+	}
+	//
+	private static boolean allBinary(Iterable<RpcSession>sessions,boolean binary){
+		int count=0;
+		for(RpcSession s:sessions){
+			if(s.isBinaryCodec()!=binary){
+				return false;
+			}
+			count++;
+		}
+		return count>0;
+	}
+	//
+	public static void main(String[] args) throws Exception{
+		LoggerFactory.setLevel("WARN");
+		int port=17011;
+		RpcServer server=new RpcServer();
+		server.setPort(port);
+		server.registerService(new TestRemoteServiceImpl());
+		server.init();
+		server.start();
+		//
+		JazminRpcDriver driver=connect(port);
+		check(allBinary(driver.getSessions(),true),"client sessions switched to binary");
+		check(allBinary(server.getSessions(),true),"server sessions switched to binary");
+		TestRemoteService service=driver.create(TestRemoteService.class,"c1");
+		check(service.echo("中文").equals("echo:中文"),"call over binary codec");
+		StringBuilder sb=new StringBuilder();
+		for(int i=0;i<10000;i++){
+			sb.append(i);
+		}
+		check(service.echo(sb.toString()).equals("echo:"+sb),"compressed call over binary codec");
+		driver.stop();
+		//server refuses offer,both sides stay on default codec
+		RpcServer.negotiateBinaryCodec=false;
+		JazminRpcDriver driver2=connect(port);
+		check(allBinary(driver2.getSessions(),false),"client sessions keep default codec");
+		TestRemoteService service2=driver2.create(TestRemoteService.class,"c1");
+		check(service2.echo("x").equals("echo:x"),"call over default codec");
+		System.exit(0);
+	}
+}